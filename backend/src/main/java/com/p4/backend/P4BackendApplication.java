@@ -2,11 +2,10 @@ package com.p4.backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.boot.autoconfigure.batch.BatchAutoConfiguration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 
-@SpringBootApplication(exclude = {BatchAutoConfiguration.class})
+@SpringBootApplication
 @EnableScheduling
 @EnableAspectJAutoProxy
 public class P4BackendApplication {
@@ -1,34 +1,107 @@
 package com.p4.backend.catalog.controller;
 
+import com.p4.backend.catalog.dto.AttributeFilter;
+import com.p4.backend.catalog.dto.AvailabilityRequest;
+import com.p4.backend.catalog.dto.CountMode;
+import com.p4.backend.catalog.dto.CursorPage;
+import com.p4.backend.catalog.dto.FacetCounts;
+import com.p4.backend.catalog.dto.PriceInventoryFeedResult;
+import com.p4.backend.catalog.dto.ProductFilter;
+import com.p4.backend.catalog.dto.ProductSummary;
+import com.p4.backend.catalog.dto.SlicePage;
 import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.catalog.entity.ProductAttribute;
+import com.p4.backend.catalog.entity.ProductAttributeValue;
+import com.p4.backend.catalog.service.CatalogExportService;
+import com.p4.backend.catalog.service.ProductAttributeService;
+import com.p4.backend.catalog.service.ProductFeedService;
 import com.p4.backend.catalog.service.CatalogService;
+import com.p4.backend.catalog.service.CatalogVersionService;
+import com.p4.backend.search.index.Suggestion;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/catalog")
 public class CatalogController {
     
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    private static final int MAX_AVAILABILITY_KEYS = 5000;
+    
     @Autowired
     private CatalogService catalogService;
     
-    // Public browsing endpoint - only published products with pagination
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+    
+    @Autowired
+    private CatalogExportService catalogExportService;
+    
+    @Autowired
+    private ProductAttributeService productAttributeService;
+    
+    @Autowired
+    private ProductFeedService productFeedService;
+    
+    // Public browsing endpoint - only published products with pagination.
+    // Sending a cursor parameter (empty for the first page) switches to keyset pagination sorted by name, price or newest.
+    // A count parameter (exact, estimate or none) returns hasNext plus a total of that kind instead of a counted page.
     @GetMapping
-    public ResponseEntity<Page<Product>> getBrowsableProducts(
+    public ResponseEntity<?> getBrowsableProducts(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        Page<Product> products = catalogService.getBrowsableProducts(page, size);
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String count,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        // Version-based ETag: revalidation is answered before any query runs
+        String etag = catalogVersionService.catalogETag();
+        if (matchesETag(ifNoneMatch, etag)) {
+            return notModified(etag, "public, max-age=300");
+        }
         
-        // Generate an ETag based on the content and pagination info
-        String etag = generateETag(products.getContent().toString() + page + size);
+        if (cursor != null) {
+            CursorPage<ProductSummary> products;
+            try {
+                products = catalogService.getBrowsableProducts(cursor, sort, size);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+            
+            return ResponseEntity.ok()
+                    .header("ETag", etag)
+                    .header("Cache-Control", "public, max-age=300") // Cache for 5 minutes
+                    .body(products);
+        }
+        
+        if (count != null) {
+            SlicePage<ProductSummary> products;
+            try {
+                products = catalogService.getBrowsableProducts(page, size, CountMode.from(count, CountMode.NONE));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+            
+            return ResponseEntity.ok()
+                    .header("ETag", etag)
+                    .header("Cache-Control", "public, max-age=300") // Cache for 5 minutes
+                    .body(products);
+        }
+        
+        Page<ProductSummary> products = catalogService.getBrowsableProducts(page, size);
         
         return ResponseEntity.ok()
                 .header("ETag", etag)
@@ -36,29 +109,47 @@ public class CatalogController {
                 .body(products);
     }
     
-    // Admin/All products endpoint
+    // Admin/All products endpoint: full products streamed row by row as a JSON array (default) or NDJSON
+    // (format=ndjson or Accept: application/x-ndjson), gzip-compressed when the client accepts it
     @GetMapping("/all")
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = catalogService.getAllProducts();
-        
-        // Generate an ETag based on the content
-        String etag = generateETag(products.toString());
+    public ResponseEntity<StreamingResponseBody> getAllProducts(
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = "Accept", required = false) String accept,
+            @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        String etag = catalogVersionService.catalogETag();
+        if (matchesETag(ifNoneMatch, etag)) {
+            return notModified(etag, "no-cache");
+        }
         
-        return ResponseEntity.ok()
-                .header("ETag", etag)
-                .header("Cache-Control", "no-cache") // Don't cache admin endpoints
-                .body(products);
+        return exportResponse(null, format, accept, acceptEncoding, etag);
+    }
+    
+    // Full export of one vendor's products, streamed like /all
+    @GetMapping("/vendor/{vendorId}/export")
+    public ResponseEntity<StreamingResponseBody> exportVendorProducts(
+            @PathVariable String vendorId,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = "Accept", required = false) String accept,
+            @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding) {
+        return exportResponse(vendorId, format, accept, acceptEncoding, null);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable String id) {
+    public ResponseEntity<Product> getProductById(
+            @PathVariable String id,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         Optional<Product> product = catalogService.getProductById(id);
         
         if (product.isPresent()) {
             Product productEntity = product.get();
-            
-            // Generate an ETag based on the product content and last modified
-            String etag = generateETag(productEntity.getId() + productEntity.getUpdatedAt());
+            String etag = catalogVersionService.productETag(productEntity);
+            if (matchesETag(ifNoneMatch, etag)) {
+                return notModified(etag, "public, max-age=900");
+            }
+            if (productEntity.getStatus() == Product.ProductStatus.PUBLISHED) {
+                catalogService.recordProductView(id);
+            }
             
             return ResponseEntity.ok()
                     .header("ETag", etag)
@@ -85,6 +176,23 @@ public class CatalogController {
         return ResponseEntity.ok(updatedProduct);
     }
     
+    // Bulk price and stock feed by SKU, instead of one PUT per product: CSV with sku, base_price, inventory_qty and
+    // inventory_status columns, or JSON objects with sku, basePrice, inventoryQty and inventoryStatus (an array or
+    // one per line). Empty fields keep their stored value; the response counts the SKUs that matched no product
+    // and lists the first of them.
+    @PostMapping(value = "/feed", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE, NDJSON_MEDIA_TYPE})
+    public ResponseEntity<?> applyPriceInventoryFeed(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                     InputStream body) throws IOException {
+        try {
+            PriceInventoryFeedResult result = contentType.startsWith("text/csv")
+                    ? productFeedService.applyCsv(body)
+                    : productFeedService.applyJson(body);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable String id) {
         if (!catalogService.getProductById(id).isPresent()) {
@@ -94,33 +202,113 @@ public class CatalogController {
         return ResponseEntity.ok().build();
     }
     
+    // Attribute definitions; their ids are what the attr search filters refer to
+    @GetMapping("/attributes")
+    public ResponseEntity<List<ProductAttribute>> getAttributes() {
+        return ResponseEntity.ok(productAttributeService.getAttributes());
+    }
+    
+    @GetMapping("/{id}/attributes")
+    public ResponseEntity<List<ProductAttributeValue>> getProductAttributes(@PathVariable String id) {
+        if (!catalogService.getProductById(id).isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(productAttributeService.getValues(id));
+    }
+    
+    // Replaces all attribute values of a product
+    @PutMapping("/{id}/attributes")
+    public ResponseEntity<?> updateProductAttributes(@PathVariable String id,
+                                                     @RequestBody List<ProductAttributeValue> values) {
+        if (!catalogService.getProductById(id).isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(productAttributeService.replaceValues(id, values));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @GetMapping("/vendor/{vendorId}")
-    public ResponseEntity<List<Product>> getProductsByVendor(@PathVariable String vendorId) {
-        List<Product> products = catalogService.getProductsByVendor(vendorId);
+    public ResponseEntity<List<ProductSummary>> getProductsByVendor(@PathVariable String vendorId) {
+        List<ProductSummary> products = catalogService.getProductsByVendor(vendorId);
         return ResponseEntity.ok(products);
     }
     
     @GetMapping("/vendor/{vendorId}/published")
-    public ResponseEntity<List<Product>> getPublishedProductsByVendor(@PathVariable String vendorId) {
-        List<Product> products = catalogService.getProductsByVendorAndStatus(vendorId, Product.ProductStatus.PUBLISHED);
+    public ResponseEntity<List<ProductSummary>> getPublishedProductsByVendor(@PathVariable String vendorId) {
+        List<ProductSummary> products = catalogService.getProductsByVendorAndStatus(vendorId, Product.ProductStatus.PUBLISHED);
         return ResponseEntity.ok(products);
     }
     
-    // Legacy search endpoint (still available)
+    // Typeahead completions for product names, SKUs and brands, answered from memory
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok()
+                .header("Cache-Control", "public, max-age=60")
+                .body(catalogService.suggest(q, limit));
+    }
+    
+    // Fuzzy search on name and SKU (tolerates typos in part numbers), most similar first
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String q) {
-        List<Product> products = catalogService.searchProducts(q);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> searchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) Double threshold) {
+        if (page < 0 || size < 1 || size > 100) {
+            return ResponseEntity.badRequest().body(Map.of("error", "page must be >= 0 and size between 1 and 100"));
+        }
+        try {
+            List<ProductSummary> products = catalogService.searchProducts(q, page, size, threshold);
+            return ResponseEntity.ok(products);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
     
-    // Public FTS search endpoint with pagination
+    // Public FTS search endpoint with pagination; a cursor parameter switches to keyset pagination
+    // (relevance order by default, or name/price/newest). Repeated attr parameters (attributeId:value or
+    // attributeId:min..max) narrow the hits to products with matching attribute values. A count parameter
+    // (exact, estimate or none) returns hasNext plus a total of that kind instead of a counted page.
     @GetMapping("/search/fts")
-    public ResponseEntity<Page<Product>> searchProductsFts(
+    public ResponseEntity<?> searchProductsFts(
             @RequestParam String q,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        Page<Product> products = catalogService.searchProductsFts(q, page, size);
-        return ResponseEntity.ok(products);
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort,
+            @RequestParam(name = "attr", required = false) List<String> attr,
+            @RequestParam(required = false) String count,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        String etag = catalogVersionService.catalogETag();
+        if (matchesETag(ifNoneMatch, etag)) {
+            return notModified(etag, "public, max-age=300");
+        }
+        
+        List<AttributeFilter> attributes;
+        try {
+            attributes = AttributeFilter.parseAll(attr);
+            if (cursor != null) {
+                return ResponseEntity.ok()
+                        .header("ETag", etag)
+                        .body(catalogService.searchProductsFts(q, attributes, cursor, sort, size));
+            }
+            if (count != null) {
+                return ResponseEntity.ok()
+                        .header("ETag", etag)
+                        .body(catalogService.searchProductsFts(q, attributes, page, size, CountMode.from(count, CountMode.NONE)));
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        Page<ProductSummary> products = catalogService.searchProductsFts(q, attributes, page, size);
+        return ResponseEntity.ok()
+                .header("ETag", etag)
+                .body(products);
     }
     
     // Check product availability
@@ -130,13 +318,24 @@ public class CatalogController {
         return ResponseEntity.ok(isAvailable);
     }
     
+    // Bulk availability for up to MAX_AVAILABILITY_KEYS product ids and/or SKUs, resolved in one lookup
+    @PostMapping("/availability")
+    public ResponseEntity<?> checkAvailability(@RequestBody AvailabilityRequest request) {
+        int keys = request.getIds().size() + request.getSkus().size();
+        if (keys == 0 || keys > MAX_AVAILABILITY_KEYS) {
+            return ResponseEntity.badRequest().body(Map.of("error",
+                    "Provide between 1 and " + MAX_AVAILABILITY_KEYS + " ids and skus in total"));
+        }
+        return ResponseEntity.ok(catalogService.checkAvailability(request.getIds(), request.getSkus()));
+    }
+    
     // Public search endpoint that combines both approaches
     @GetMapping("/search/combined")
     public ResponseEntity<Map<String, Object>> combinedSearch(
             @RequestParam String q,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
-        Page<Product> ftsResults = catalogService.searchProductsFts(q, page, size);
+        Page<ProductSummary> ftsResults = catalogService.searchProductsFts(q, page, size);
         
         return ResponseEntity.ok(Map.of(
             "query", q,
@@ -149,9 +348,11 @@ public class CatalogController {
         ));
     }
     
-    // Faceted search endpoint with advanced filtering
+    // Faceted search endpoint with advanced filtering; a cursor parameter switches to keyset pagination
+    // and includeFacets=true adds facet counts for the same filters to the response. A count parameter
+    // (exact, estimate or none) returns hasNext plus a total of that kind instead of a counted page.
     @GetMapping("/search/faceted")
-    public ResponseEntity<Page<Product>> facetedSearch(
+    public ResponseEntity<?> facetedSearch(
             @RequestParam(required = false) String q,
             @RequestParam(required = false) String vendorId,
             @RequestParam(required = false) String categoryId,
@@ -159,34 +360,85 @@ public class CatalogController {
             @RequestParam(required = false) java.math.BigDecimal minPrice,
             @RequestParam(required = false) java.math.BigDecimal maxPrice,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        Page<Product> results = catalogService.searchWithFacets(q, vendorId, categoryId, inventoryStatus, minPrice, maxPrice, page, size);
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "false") boolean includeFacets,
+            @RequestParam(name = "attr", required = false) List<String> attr,
+            @RequestParam(required = false) String count,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        String etag = catalogVersionService.catalogETag();
+        if (matchesETag(ifNoneMatch, etag)) {
+            return notModified(etag, "public, max-age=300");
+        }
+        
+        ProductFilter filter = new ProductFilter(q, vendorId, categoryId, inventoryStatus, minPrice, maxPrice);
+        try {
+            filter.setAttributes(AttributeFilter.parseAll(attr));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        FacetCounts facets = includeFacets ? catalogService.getFacets(filter) : null;
+        
+        if (cursor != null) {
+            CursorPage<ProductSummary> results;
+            try {
+                results = catalogService.searchWithFacets(filter, cursor, sort, size);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+            
+            return ResponseEntity.ok()
+                    .header("ETag", etag)
+                    .header("Cache-Control", "public, max-age=300") // Cache for 5 minutes
+                    .body(facets != null ? Map.of("results", results, "facets", facets) : results);
+        }
+        
+        if (count != null) {
+            SlicePage<ProductSummary> results;
+            try {
+                results = catalogService.searchWithFacets(filter, page, size, CountMode.from(count, CountMode.NONE));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+            
+            return ResponseEntity.ok()
+                    .header("ETag", etag)
+                    .header("Cache-Control", "public, max-age=300") // Cache for 5 minutes
+                    .body(facets != null ? Map.of("results", results, "facets", facets) : results);
+        }
         
-        // Generate an ETag based on the search parameters and results
-        String etag = generateETag((q != null ? q : "") + 
-                                 (vendorId != null ? vendorId : "") + 
-                                 (categoryId != null ? categoryId : "") + 
-                                 (inventoryStatus != null ? inventoryStatus : "") + 
-                                 (minPrice != null ? minPrice.toString() : "") + 
-                                 (maxPrice != null ? maxPrice.toString() : "") + 
-                                 page + size + results.getContent().toString());
+        Page<ProductSummary> results = catalogService.searchWithFacets(filter, page, size);
         
         return ResponseEntity.ok()
                 .header("ETag", etag)
                 .header("Cache-Control", "public, max-age=300") // Cache for 5 minutes
-                .body(results);
+                .body(facets != null ? Map.of("results", results, "facets", facets) : results);
     }
     
-    // Get available facets for search
+    // Get facet counts for search, optionally narrowed by the same filters as /search/faceted
     @GetMapping("/facets")
-    public ResponseEntity<Map<String, Object>> getFacets() {
-        Map<String, Object> facets = Map.of(
-            "categories", catalogService.getAvailableCategories(),
-            "vendors", catalogService.getAvailableVendors()
-        );
+    public ResponseEntity<?> getFacets(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String vendorId,
+            @RequestParam(required = false) String categoryId,
+            @RequestParam(required = false) String inventoryStatus,
+            @RequestParam(required = false) java.math.BigDecimal minPrice,
+            @RequestParam(required = false) java.math.BigDecimal maxPrice,
+            @RequestParam(name = "attr", required = false) List<String> attr,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        String etag = catalogVersionService.catalogETag();
+        if (matchesETag(ifNoneMatch, etag)) {
+            return notModified(etag, "public, max-age=3600");
+        }
         
-        // Generate an ETag for the facets data
-        String etag = generateETag(facets.toString());
+        ProductFilter filter = new ProductFilter(q, vendorId, categoryId, inventoryStatus, minPrice, maxPrice);
+        try {
+            filter.setAttributes(AttributeFilter.parseAll(attr));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        FacetCounts facets = catalogService.getFacets(filter);
         
         return ResponseEntity.ok()
                 .header("ETag", etag)
@@ -194,29 +446,62 @@ public class CatalogController {
                 .body(facets);
     }
     
+    private ResponseEntity<StreamingResponseBody> exportResponse(String vendorId, String format, String accept,
+                                                                 String acceptEncoding, String etag) {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format)
+                || (format == null && accept != null && accept.contains(NDJSON_MEDIA_TYPE));
+        CatalogExportService.Format exportFormat = ndjson ? CatalogExportService.Format.NDJSON : CatalogExportService.Format.JSON;
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                catalogExportService.export(vendorId, exportFormat, compressed);
+                compressed.finish();
+            } else {
+                catalogExportService.export(vendorId, exportFormat, out);
+            }
+        };
+        
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.parseMediaType(NDJSON_MEDIA_TYPE) : MediaType.APPLICATION_JSON)
+                .header("Cache-Control", "no-cache") // Don't cache admin exports
+                .header("Vary", "Accept, Accept-Encoding");
+        if (etag != null) {
+            builder.header("ETag", etag);
+        }
+        if (gzip) {
+            builder.header("Content-Encoding", "gzip");
+        }
+        return builder.body(body);
+    }
+    
     /**
-     * Generate an ETag for the given content
-     * @param content the content to generate ETag for
-     * @return the generated ETag
+     * Checks an If-None-Match header against the current ETag (weak comparison, as allowed for GET)
+     * @param ifNoneMatch the raw header value, possibly a comma-separated list
+     * @param etag the current ETag
+     * @return true if the client's copy is current
      */
-    private String generateETag(String content) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(content.getBytes("UTF-8"));
-            StringBuilder hexString = new StringBuilder();
-            
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
+    private boolean matchesETag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
             }
-            
-            return "\"" + hexString.toString() + "\"";
-        } catch (Exception e) {
-            // If there's an error generating the ETag, return a simple hash
-            return "\"" + content.hashCode() + "\"";
         }
+        return false;
+    }
+    
+    private <T> ResponseEntity<T> notModified(String etag, String cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .header("ETag", etag)
+                .header("Cache-Control", cacheControl)
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -9,12 +9,16 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/media")
 public class MediaAssetController {
     
+    private static final int MAX_BATCH_URLS = 100;
+    
     @Autowired
     private MediaAssetService mediaAssetService;
     
@@ -38,7 +42,8 @@ public class MediaAssetController {
                 "filename", mediaAsset.getFilename(),
                 "filePath", mediaAsset.getFilePath(),
                 "mediaType", mediaAsset.getMediaType(),
-                "fileSize", mediaAsset.getFileSize()
+                "fileSize", mediaAsset.getFileSize(),
+                "variantStatus", mediaAsset.getVariantStatus()
             ));
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
@@ -47,13 +52,53 @@ public class MediaAssetController {
     }
     
     /**
-     * Get presigned URL for a media asset (public access, but with signed URLs)
+     * Presigned URLs for up to MAX_BATCH_URLS media assets in one call (e.g. every image on a product page).
+     * Takes repeated id parameters and the same optional variant as /{id}/url; unknown ids are listed as notFound.
+     */
+    @GetMapping("/urls")
+    public ResponseEntity<Map<String, Object>> getPresignedUrls(@RequestParam("id") List<String> ids,
+                                                                @RequestParam(required = false) String variant) {
+        if (ids.isEmpty() || ids.size() > MAX_BATCH_URLS) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Provide between 1 and " + MAX_BATCH_URLS + " ids"));
+        }
+        MediaAsset.Variant mediaVariant;
+        try {
+            mediaVariant = parseVariant(variant);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        }
+        
+        try {
+            // URLs valid for 1 hour, as for single lookups
+            Map<String, String> urls = mediaAssetService.generatePresignedUrls(ids, mediaVariant, Duration.ofHours(1));
+            List<String> notFound = ids.stream().filter(id -> !urls.containsKey(id)).distinct().toList();
+            return ResponseEntity.ok(Map.of("urls", urls, "notFound", notFound));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Get presigned URL for a media asset (public access, but with signed URLs).
+     * variant=thumbnail|card|zoom points at a resized copy once it has been generated, the original until then.
      */
     @GetMapping("/{id}/url")
-    public ResponseEntity<Map<String, String>> getPresignedUrl(@PathVariable String id) {
+    public ResponseEntity<Map<String, String>> getPresignedUrl(@PathVariable String id,
+                                                               @RequestParam(required = false) String variant) {
+        MediaAsset.Variant mediaVariant;
+        try {
+            mediaVariant = parseVariant(variant);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        }
+        
         try {
             // Generate a URL that's valid for 1 hour
-            String presignedUrl = mediaAssetService.generatePresignedUrl(id, Duration.ofHours(1));
+            String presignedUrl = mediaAssetService.generatePresignedUrl(id, mediaVariant, Duration.ofHours(1));
             
             return ResponseEntity.ok(Map.of("url", presignedUrl));
         } catch (Exception e) {
@@ -89,4 +134,15 @@ public class MediaAssetController {
                     .body(Map.of("error", e.getMessage()));
         }
     }
+    
+    private static MediaAsset.Variant parseVariant(String variant) {
+        if (variant == null || variant.isBlank()) {
+            return null;
+        }
+        try {
+            return MediaAsset.Variant.valueOf(variant.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported variant: " + variant);
+        }
+    }
 }
\ No newline at end of file
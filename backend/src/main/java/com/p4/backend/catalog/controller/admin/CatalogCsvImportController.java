@@ -1,15 +1,23 @@
 package com.p4.backend.catalog.controller.admin;
 
 import com.p4.backend.catalog.csv.CatalogCsvService;
+import com.p4.backend.catalog.csv.ImportMode;
+import com.p4.backend.catalog.csv.ImportProgressPublisher;
+import com.p4.backend.catalog.csv.ProductImportJobConfig;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.security.Principal;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
@@ -19,13 +27,24 @@ public class CatalogCsvImportController {
     @Autowired
     private CatalogCsvService catalogCsvService;
     
+    @Autowired
+    private ImportProgressPublisher importProgressPublisher;
+    
     /**
      * Import products from a CSV file
+     * The import runs in the background: the response (202) carries its execution id for the status endpoints
+     * mode=upsert updates products by SKU and skips rows unchanged since the last import (daily full re-sends)
+     * vendor names whose fair share of the import capacity the import uses (defaults to the uploading user)
+     * bulk=true loads large files through a COPY into a staging table; small files are inserted in batches anyway
      * This endpoint is role-gated for staging only
      */
     @PostMapping("/import")
     @PreAuthorize("hasRole('ADMIN') or hasRole('OPS')")  // Role-gated access
-    public ResponseEntity<Map<String, Object>> importProducts(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<Map<String, Object>> importProducts(@RequestParam("file") MultipartFile file,
+                                                              @RequestParam(value = "mode", required = false) String mode,
+                                                              @RequestParam(value = "vendor", required = false) String vendor,
+                                                              @RequestParam(value = "bulk", defaultValue = "false") boolean bulk,
+                                                              Principal principal) {
         if (file.isEmpty()) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", "File is empty"));
@@ -37,21 +56,91 @@ public class CatalogCsvImportController {
                     .body(Map.of("error", "Only CSV files are allowed"));
         }
         
+        ImportMode importMode;
+        try {
+            importMode = ImportMode.from(mode, ImportMode.INSERT);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        
+        if (vendor == null || vendor.isBlank()) {
+            vendor = principal != null ? principal.getName() : ProductImportJobConfig.DEFAULT_VENDOR;
+        }
+        
         try {
-            var result = catalogCsvService.importProductsFromCsv(file);
+            var result = catalogCsvService.importProductsFromCsv(file, importMode, vendor, bulk);
             
-            return ResponseEntity.ok(Map.of(
-                "success", result.isSuccess(),
-                "totalRows", result.getTotalRows(),
-                "processedRows", result.getProcessedRows(),
-                "errors", result.getErrors()
-            ));
+            return ResponseEntity.accepted().body(toBody(result));
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body(Map.of("error", "Error during import: " + e.getMessage()));
         }
     }
     
+    /**
+     * Progress of an import by execution id; counts are updated as each chunk commits
+     */
+    @GetMapping("/import/{executionId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPS')")  // Role-gated access
+    public ResponseEntity<Map<String, Object>> getImportStatus(@PathVariable long executionId) {
+        return catalogCsvService.getImportStatus(executionId)
+                .map(result -> ResponseEntity.ok(toBody(result)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Progress of an import as server-sent "progress" events, until it finishes
+     */
+    @GetMapping(value = "/import/{executionId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPS')")  // Role-gated access
+    public ResponseEntity<SseEmitter> streamImportStatus(@PathVariable long executionId) {
+        return importProgressPublisher.subscribe(executionId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Resume a failed import after its last committed chunk; responds with the new execution
+     */
+    @PostMapping("/import/{executionId}/resume")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OPS')")  // Role-gated access
+    public ResponseEntity<Map<String, Object>> resumeImport(@PathVariable long executionId) {
+        try {
+            return catalogCsvService.resumeImport(executionId)
+                    .map(result -> ResponseEntity.accepted().body(toBody(result)))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    private static Map<String, Object> toBody(CatalogCsvService.ImportResult result) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("executionId", result.getExecutionId());
+        body.put("status", result.getStatus());
+        body.put("success", result.isSuccess());
+        body.put("bulk", result.isBulk());
+        body.put("progress", result.getProgress());
+        body.put("rowsPerSecond", result.getRowsPerSecond());
+        body.put("startedAt", result.getStartedAt());
+        body.put("endedAt", result.getEndedAt());
+        body.put("totalRows", result.getTotalRows());
+        body.put("processedRows", result.getProcessedRows());
+        body.put("unchangedRows", result.getUnchangedRows());
+        body.put("errorCount", result.getErrorCount());
+        body.put("errors", result.getErrors());
+        if (result.getFailureMessage() != null) {
+            body.put("failureMessage", result.getFailureMessage());
+        }
+        return body;
+    }
+    
     /**
      * Download a sample CSV template
      */
@@ -1,188 +1,285 @@
 package com.p4.backend.catalog.csv;
 
-import com.p4.backend.catalog.entity.Product;
-import com.p4.backend.catalog.repository.CatalogRepository;
-import com.opencsv.bean.CsvToBeanBuilder;
 import com.opencsv.bean.StatefulBeanToCsv;
 import com.opencsv.bean.StatefulBeanToCsvBuilder;
-import com.opencsv.exceptions.CsvException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.*;
-import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Runs product CSV imports as {@link ProductImportJobConfig} jobs on the import threads of the {@link ImportScheduler},
+ * shared between vendors, so an upload returns as soon as the file is stored. Progress is read back from the job
+ * repository, which every chunk commit updates; a failed import is resumed by restarting its job instance, which
+ * continues after the last committed chunk.
+ */
 @Service
 public class CatalogCsvService {
     
     private static final Logger logger = LoggerFactory.getLogger(CatalogCsvService.class);
     
     @Autowired
-    private CatalogRepository catalogRepository;
+    private JobRepository jobRepository;
+    
+    @Autowired
+    private JobExplorer jobExplorer;
+    
+    @Autowired
+    private Job productCsvImportJob;
+    
+    @Autowired
+    private ImportScheduler importScheduler;
+    
+    @Value("${catalog.import.dir:${java.io.tmpdir}/p4-imports}")
+    private String importDir;
+    
+    @Value("${catalog.import.stale-after-ms:600000}")
+    private long staleAfterMs = 600000;
+    
+    @Value("${catalog.import.bulk-min-bytes:1048576}")
+    private long bulkMinBytes = 1048576;
     
     /**
-     * Imports products from a CSV file
+     * Starts importing products from a CSV file with the chunk-oriented {@link ProductImportJobConfig} job.
+     * The upload is moved to the import directory and streamed from there by an import thread.
      * @param file The uploaded CSV file
-     * @return A result object containing success/error information
+     * @param mode Whether rows create products or upsert them by SKU
+     * @param vendor Whose share of the import capacity the import uses
+     * @param bulk Whether to load through a COPY into a staging table; files under
+     *             {@code catalog.import.bulk-min-bytes} use batched inserts either way
+     * @return The started import; poll {@link #getImportStatus} for its progress
+     * @throws TaskRejectedException when the import queue is full
      */
-    public ImportResult importProductsFromCsv(MultipartFile file) {
-        logger.info("Starting CSV import for file: {}", file.getOriginalFilename());
+    public ImportResult importProductsFromCsv(MultipartFile file, ImportMode mode, String vendor, boolean bulk) {
+        boolean copy = bulk && file.getSize() >= bulkMinBytes;
+        logger.info("Starting {} CSV import ({}) for vendor {}, file: {}", mode, copy ? "bulk COPY" : "batched inserts",
+                vendor, file.getOriginalFilename());
         
-        try (InputStreamReader reader = new InputStreamReader(file.getInputStream())) {
-            List<ProductCsvDto> csvProducts = new CsvToBeanBuilder<ProductCsvDto>(reader)
-                    .withType(ProductCsvDto.class)
-                    .withIgnoreLeadingWhiteSpace(true)
-                    .build()
-                    .parse();
-            
-            List<Product> productsToSave = new ArrayList<>();
-            List<ImportError> errors = new ArrayList<>();
-            
-            for (int i = 0; i < csvProducts.size(); i++) {
-                ProductCsvDto csvProduct = csvProducts.get(i);
-                try {
-                    Product product = convertToProduct(csvProduct);
-                    productsToSave.add(product);
-                } catch (Exception e) {
-                    errors.add(new ImportError(i + 1, e.getMessage(), csvProduct));
-                    logger.error("Error processing CSV row {}: {}", i + 1, e.getMessage());
-                }
-            }
-            
-            // Save all valid products
-            List<Product> savedProducts = catalogRepository.saveAll(productsToSave);
-            
-            ImportResult result = new ImportResult();
-            result.setTotalRows(csvProducts.size());
-            result.setProcessedRows(productsToSave.size());
-            result.setErrors(errors);
-            result.setSuccess(savedProducts.size() == productsToSave.size());
-            
-            logger.info("CSV import completed. Total: {}, Processed: {}, Errors: {}", 
-                       result.getTotalRows(), result.getProcessedRows(), result.getErrors().size());
-            
-            return result;
-            
-        } catch (Exception e) {
-            logger.error("Error during CSV import", e);
-            throw new RuntimeException("Error during CSV import: " + e.getMessage(), e);
+        Path stored;
+        try {
+            stored = storeUpload(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store the uploaded file: " + e.getMessage(), e);
+        }
+        JobParameters parameters = new JobParametersBuilder()
+                .addString(ProductImportJobConfig.FILE_PARAMETER, stored.toString())
+                .addString(ProductImportJobConfig.MODE_PARAMETER, mode.name())
+                .addString("filename", String.valueOf(file.getOriginalFilename()), false)
+                .addLong(ProductImportJobConfig.FILE_SIZE_PARAMETER, file.getSize(), false)
+                .addString(ProductImportJobConfig.BULK_PARAMETER, String.valueOf(copy), false)
+                .addString(ProductImportJobConfig.VENDOR_PARAMETER, vendor, false)
+                .addLong("uploadedAt", System.currentTimeMillis())
+                .toJobParameters();
+        try {
+            return toResult(launch(parameters));
+        } catch (RuntimeException e) {
+            deleteQuietly(stored);
+            throw e;
         }
     }
     
     /**
-     * Converts a CSV DTO to a Product entity
+     * Progress of an import, read from the job repository (updated at every chunk commit)
      */
-    private Product convertToProduct(ProductCsvDto csvProduct) {
-        Product product = new Product();
-        
-        // Required fields
-        product.setName(csvProduct.getName());
-        product.setSku(csvProduct.getSku());
-        product.setVendorId(csvProduct.getVendorId());
-        
-        // Optional fields
-        product.setSlug(csvProduct.getSlug());
-        product.setDescription(csvProduct.getDescription());
-        product.setShortDescription(csvProduct.getShortDescription());
-        product.setUpc(csvProduct.getUpc());
-        product.setGtin(csvProduct.getGtin());
-        product.setMpn(csvProduct.getMpn());
-        product.setBrand(csvProduct.getBrand());
-        product.setCategoryId(csvProduct.getCategoryId());
-        
-        // Status
-        if (csvProduct.getStatus() != null) {
-            try {
-                product.setStatus(Product.ProductStatus.valueOf(csvProduct.getStatus().toUpperCase()));
-            } catch (IllegalArgumentException e) {
-                throw new IllegalArgumentException("Invalid product status: " + csvProduct.getStatus());
-            }
+    public Optional<ImportResult> getImportStatus(long executionId) {
+        return findImport(executionId).map(CatalogCsvService::toResult);
+    }
+    
+    /**
+     * Resumes a failed or stopped import after its last committed chunk, as a new execution of the same job instance.
+     * An import still marked running whose last commit is older than catalog.import.stale-after-ms is taken to have
+     * died with its node and is marked failed first.
+     * @throws IllegalStateException when the import completed, is still running, or its file is gone
+     * @throws TaskRejectedException when the import queue is full
+     */
+    public Optional<ImportResult> resumeImport(long executionId) {
+        Optional<JobExecution> found = findImport(executionId);
+        if (found.isEmpty()) {
+            return Optional.empty();
         }
-        
-        // Currency
-        if (csvProduct.getCurrency() != null) {
-            product.setCurrency(csvProduct.getCurrency().toUpperCase());
+        JobExecution execution = found.get();
+        JobExecution latest = jobExplorer.getLastJobExecution(execution.getJobInstance());
+        if (latest != null && !latest.getId().equals(execution.getId())) {
+            throw new IllegalStateException("Import " + executionId + " was already resumed as import " + latest.getId());
         }
-        
-        // Price
-        if (csvProduct.getBasePrice() != null && !csvProduct.getBasePrice().trim().isEmpty()) {
-            try {
-                product.setBasePrice(new BigDecimal(csvProduct.getBasePrice()));
-            } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("Invalid base price format: " + csvProduct.getBasePrice());
+        if (execution.isRunning()) {
+            if (!isStale(execution)) {
+                throw new IllegalStateException("Import " + executionId + " is still running");
             }
+            markFailed(execution);
         }
-        
-        product.setTaxClass(csvProduct.getTaxClass());
-        product.setMetaTitle(csvProduct.getMetaTitle());
-        product.setMetaDescription(csvProduct.getMetaDescription());
-        // Convert comma-separated string to array for metaKeywords
-        String metaKeywordsStr = csvProduct.getMetaKeywords();
-        String[] metaKeywordsArray = (metaKeywordsStr != null && !metaKeywordsStr.trim().isEmpty()) 
-            ? metaKeywordsStr.split(",\\s*") 
-            : new String[0];
-        // Convert to JSON string format for metaKeywords
-        String metaKeywordsJson = metaKeywordsArray != null && metaKeywordsArray.length > 0
-            ? "[\"" + String.join("\",\"", metaKeywordsArray) + "\"]"
-            : "[]";
-        product.setMetaKeywords(metaKeywordsJson);
-        
-        // Weight
-        if (csvProduct.getWeight() != null && !csvProduct.getWeight().trim().isEmpty()) {
-            try {
-                product.setWeight(new BigDecimal(csvProduct.getWeight()));
-            } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("Invalid weight format: " + csvProduct.getWeight());
-            }
+        if (execution.getStatus() == BatchStatus.COMPLETED || execution.getStatus() == BatchStatus.ABANDONED) {
+            throw new IllegalStateException("Import " + executionId + " is " + execution.getStatus() + " and cannot be resumed");
         }
-        
-        // Quantities
-        if (csvProduct.getMinOrderQty() != null && !csvProduct.getMinOrderQty().trim().isEmpty()) {
-            try {
-                product.setMinOrderQty(Integer.parseInt(csvProduct.getMinOrderQty()));
-            } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("Invalid min order quantity format: " + csvProduct.getMinOrderQty());
-            }
+        String file = execution.getJobParameters().getString(ProductImportJobConfig.FILE_PARAMETER);
+        if (file == null || !Files.exists(Path.of(file))) {
+            throw new IllegalStateException("The file of import " + executionId + " is no longer available");
         }
-        
-        if (csvProduct.getMoq() != null && !csvProduct.getMoq().trim().isEmpty()) {
+        logger.info("Resuming CSV import {}", executionId);
+        return Optional.of(toResult(launch(execution.getJobParameters())));
+    }
+    
+    private JobExecution launch(JobParameters parameters) {
+        // Checked up front so a full queue does not leave a failed execution behind in the common case
+        importScheduler.checkCapacity();
+        TaskExecutor executor = importScheduler.executorFor(
+                parameters.getString(ProductImportJobConfig.VENDOR_PARAMETER, ProductImportJobConfig.DEFAULT_VENDOR),
+                parameters.getString(ProductImportJobConfig.FILE_PARAMETER));
+        // The launcher does not rethrow a rejection, it records the execution as failed; keep hold of it instead
+        AtomicReference<TaskRejectedException> rejected = new AtomicReference<>();
+        TaskExecutorJobLauncher jobLauncher = new TaskExecutorJobLauncher();
+        jobLauncher.setJobRepository(jobRepository);
+        jobLauncher.setTaskExecutor(task -> {
             try {
-                product.setMoq(Integer.parseInt(csvProduct.getMoq()));
-            } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("Invalid MOQ format: " + csvProduct.getMoq());
+                executor.execute(task);
+            } catch (TaskRejectedException e) {
+                rejected.set(e);
+                throw e;
             }
+        });
+        JobExecution execution;
+        try {
+            jobLauncher.afterPropertiesSet();
+            execution = jobLauncher.run(productCsvImportJob, parameters);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not start the import: " + e.getMessage(), e);
         }
-        
-        // Inventory tracking
-        if (csvProduct.getInventoryTracking() != null) {
-            product.setInventoryTracking("true".equalsIgnoreCase(csvProduct.getInventoryTracking()) || 
-                                        "1".equals(csvProduct.getInventoryTracking()) || 
-                                        "yes".equalsIgnoreCase(csvProduct.getInventoryTracking()));
+        if (rejected.get() != null) {
+            throw rejected.get();
         }
-        
-        if (csvProduct.getInventoryQty() != null && !csvProduct.getInventoryQty().trim().isEmpty()) {
-            try {
-                product.setInventoryQty(Integer.parseInt(csvProduct.getInventoryQty()));
-            } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("Invalid inventory quantity format: " + csvProduct.getInventoryQty());
+        return execution;
+    }
+    
+    private Optional<JobExecution> findImport(long executionId) {
+        JobExecution execution = jobExplorer.getJobExecution(executionId);
+        if (execution == null || !ProductImportJobConfig.JOB_NAME.equals(execution.getJobInstance().getJobName())) {
+            return Optional.empty();
+        }
+        return Optional.of(execution);
+    }
+    
+    // Step executions are updated at every chunk commit, the job execution only when it starts and ends.
+    // An import waiting for a thread on this node has neither, but is not stale
+    private boolean isStale(JobExecution execution) {
+        if (importScheduler.isQueued(execution.getJobParameters().getString(ProductImportJobConfig.FILE_PARAMETER))) {
+            return false;
+        }
+        LocalDateTime lastUpdated = execution.getLastUpdated();
+        for (StepExecution step : execution.getStepExecutions()) {
+            if (step.getLastUpdated() != null && (lastUpdated == null || step.getLastUpdated().isAfter(lastUpdated))) {
+                lastUpdated = step.getLastUpdated();
             }
         }
-        
-        // Inventory status
-        if (csvProduct.getInventoryStatus() != null) {
-            try {
-                product.setInventoryStatus(Product.InventoryStatus.valueOf(csvProduct.getInventoryStatus().toUpperCase()));
-            } catch (IllegalArgumentException e) {
-                throw new IllegalArgumentException("Invalid inventory status: " + csvProduct.getInventoryStatus());
+        return lastUpdated == null || lastUpdated.isBefore(LocalDateTime.now().minus(Duration.ofMillis(staleAfterMs)));
+    }
+    
+    private void markFailed(JobExecution execution) {
+        LocalDateTime now = LocalDateTime.now();
+        for (StepExecution step : execution.getStepExecutions()) {
+            if (step.getStatus().isRunning()) {
+                step.setStatus(BatchStatus.FAILED);
+                step.setExitStatus(ExitStatus.FAILED.addExitDescription("Import thread stopped without finishing"));
+                step.setEndTime(now);
+                jobRepository.update(step);
             }
         }
+        execution.setStatus(BatchStatus.FAILED);
+        execution.setExitStatus(ExitStatus.FAILED.addExitDescription("Import thread stopped without finishing"));
+        execution.setEndTime(now);
+        jobRepository.update(execution);
+    }
+    
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+    
+    private Path storeUpload(MultipartFile file) throws IOException {
+        Path dir = Path.of(importDir);
+        Files.createDirectories(dir);
+        Path stored = dir.resolve(UUID.randomUUID() + ".csv");
+        // Moves the multipart temp file where the container allows it, instead of copying large uploads
+        file.transferTo(stored);
+        return stored;
+    }
+    
+    private static ImportResult toResult(JobExecution execution) {
+        long totalRows = 0;
+        long processedRows = 0;
+        long unchangedRows = 0;
+        long rejected = 0;
+        long bytesRead = 0;
+        long rowsThisRun = 0;
+        List<ImportError> errors = new ArrayList<>();
+        for (StepExecution step : execution.getStepExecutions()) {
+            // Counts in the execution context carry over from the executions this one resumed
+            ExecutionContext progress = step.getExecutionContext();
+            totalRows += ProductCsvItemReader.recordsReadOf(progress);
+            processedRows += progress.getLong(ProductJdbcItemWriter.WRITTEN_KEY, 0);
+            unchangedRows += progress.getLong(ProductJdbcItemWriter.UNCHANGED_KEY, 0);
+            rejected += progress.getLong(ProductImportErrors.COUNT_KEY, 0);
+            bytesRead += ProductCsvItemReader.bytesReadOf(progress);
+            rowsThisRun += step.getReadCount();
+            errors.addAll(ProductImportErrors.samplesOf(progress));
+        }
         
-        return product;
+        ImportResult result = new ImportResult();
+        result.setExecutionId(execution.getId());
+        result.setStatus(execution.getStatus().name());
+        result.setTotalRows(totalRows);
+        result.setProcessedRows(processedRows);
+        result.setUnchangedRows(unchangedRows);
+        result.setErrorCount(rejected);
+        result.setErrors(errors);
+        result.setSuccess(execution.getStatus() == BatchStatus.COMPLETED);
+        result.setStartedAt(execution.getStartTime());
+        result.setEndedAt(execution.getEndTime());
+        result.setBulk(Boolean.parseBoolean(execution.getJobParameters().getString(ProductImportJobConfig.BULK_PARAMETER)));
+        
+        Long fileSize = execution.getJobParameters().getLong(ProductImportJobConfig.FILE_SIZE_PARAMETER);
+        if (execution.getStatus() == BatchStatus.COMPLETED) {
+            result.setProgress(1.0);
+        } else if (fileSize != null && fileSize > 0) {
+            result.setProgress(Math.min(1.0, (double) bytesRead / fileSize));
+        }
+        if (execution.getStartTime() != null) {
+            LocalDateTime end = execution.getEndTime() != null ? execution.getEndTime() : LocalDateTime.now();
+            long millis = Duration.between(execution.getStartTime(), end).toMillis();
+            result.setRowsPerSecond(millis > 0 ? rowsThisRun * 1000.0 / millis : 0);
+        }
+        if (execution.getStatus() == BatchStatus.FAILED) {
+            result.setFailureMessage(execution.getExitStatus().getExitDescription());
+        }
+        return result;
     }
     
     /**
@@ -237,26 +334,73 @@ public class CatalogCsvService {
     
     // Result classes
     public static class ImportResult {
-        private int totalRows;
-        private int processedRows;
+        private Long executionId;
+        private String status;
+        private long totalRows;
+        private long processedRows;
+        private long unchangedRows;
+        private long errorCount;
         private boolean success;
         private List<ImportError> errors;
+        private LocalDateTime startedAt;
+        private LocalDateTime endedAt;
+        private double progress;
+        private double rowsPerSecond;
+        private String failureMessage;
+        private boolean bulk;
         
         // Getters and setters
-        public int getTotalRows() { return totalRows; }
-        public void setTotalRows(int totalRows) { this.totalRows = totalRows; }
+        public Long getExecutionId() { return executionId; }
+        public void setExecutionId(Long executionId) { this.executionId = executionId; }
+        
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
         
-        public int getProcessedRows() { return processedRows; }
-        public void setProcessedRows(int processedRows) { this.processedRows = processedRows; }
+        public long getTotalRows() { return totalRows; }
+        public void setTotalRows(long totalRows) { this.totalRows = totalRows; }
+        
+        public long getProcessedRows() { return processedRows; }
+        public void setProcessedRows(long processedRows) { this.processedRows = processedRows; }
+        
+        // Upsert imports only: rows identical to the stored product, which were not written
+        public long getUnchangedRows() { return unchangedRows; }
+        public void setUnchangedRows(long unchangedRows) { this.unchangedRows = unchangedRows; }
+        
+        // All rejected rows; errors holds only the first ProductImportErrors.MAX_SAMPLES of them
+        public long getErrorCount() { return errorCount; }
+        public void setErrorCount(long errorCount) { this.errorCount = errorCount; }
         
         public boolean isSuccess() { return success; }
         public void setSuccess(boolean success) { this.success = success; }
         
         public List<ImportError> getErrors() { return errors; }
         public void setErrors(List<ImportError> errors) { this.errors = errors; }
+        
+        public LocalDateTime getStartedAt() { return startedAt; }
+        public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+        
+        public LocalDateTime getEndedAt() { return endedAt; }
+        public void setEndedAt(LocalDateTime endedAt) { this.endedAt = endedAt; }
+        
+        // Share of the file read as of the last commit, 0 to 1
+        public double getProgress() { return progress; }
+        public void setProgress(double progress) { this.progress = progress; }
+        
+        // Rows read per second by this execution, since it started
+        public double getRowsPerSecond() { return rowsPerSecond; }
+        public void setRowsPerSecond(double rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+        
+        public String getFailureMessage() { return failureMessage; }
+        public void setFailureMessage(String failureMessage) { this.failureMessage = failureMessage; }
+        
+        // Loaded through a COPY into a staging table rather than batched inserts
+        public boolean isBulk() { return bulk; }
+        public void setBulk(boolean bulk) { this.bulk = bulk; }
+        
+        public boolean isRunning() { return BatchStatus.valueOf(status).isRunning(); }
     }
     
-    public static class ImportError {
+    public static class ImportError implements Serializable {
         private int rowNumber;
         private String error;
         private ProductCsvDto rowValue;
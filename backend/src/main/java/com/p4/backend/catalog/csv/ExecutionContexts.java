@@ -0,0 +1,20 @@
+package com.p4.backend.catalog.csv;
+
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * ExecutionContext.put leaves the context dirty only if the value of that last put changed, and a step saves its
+ * context at a chunk commit only when it is dirty. Putting an unchanged count after a changed one would therefore
+ * drop the whole update, so the import's streams put a value only when it differs from the stored one.
+ */
+final class ExecutionContexts {
+    
+    private ExecutionContexts() {
+    }
+    
+    static void putLongIfChanged(ExecutionContext executionContext, String key, long value) {
+        if (!executionContext.containsKey(key) || executionContext.getLong(key) != value) {
+            executionContext.putLong(key, value);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.p4.backend.catalog.csv;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Waiting items per vendor, handed out to the waiting vendor with the fewest items running; among equals,
+ * to the one served least recently. A vendor with many queued items therefore gets one turn per round, and
+ * a vendor with nothing running goes ahead of one that already has work running.
+ * Not thread-safe: {@link ImportScheduler} guards it.
+ */
+final class FairShareQueue<T> {
+
+    private final Map<String, ArrayDeque<T>> waiting = new HashMap<>();
+    private final Map<String, Integer> running = new HashMap<>();
+    // When each vendor with running or waiting items last started one; forgotten once it has neither
+    private final Map<String, Long> lastServed = new HashMap<>();
+    private long served;
+    private int size;
+    private int runningTotal;
+
+    void add(String vendor, T item) {
+        waiting.computeIfAbsent(vendor, v -> new ArrayDeque<>()).addLast(item);
+        // A vendor never served yet ranks before every served one, in order of arrival
+        lastServed.putIfAbsent(vendor, Long.MIN_VALUE + served++);
+        size++;
+    }
+
+    boolean remove(String vendor, T item) {
+        ArrayDeque<T> items = waiting.get(vendor);
+        if (items == null || !items.remove(item)) {
+            return false;
+        }
+        if (items.isEmpty()) {
+            waiting.remove(vendor);
+            forgetIfIdle(vendor);
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Takes the next item to run and counts it as running for its vendor, or returns null when nothing waits
+     */
+    T poll() {
+        String next = null;
+        int fewest = Integer.MAX_VALUE;
+        long oldest = Long.MAX_VALUE;
+        for (String vendor : waiting.keySet()) {
+            int count = running.getOrDefault(vendor, 0);
+            long last = lastServed.get(vendor);
+            if (count < fewest || (count == fewest && last < oldest)) {
+                next = vendor;
+                fewest = count;
+                oldest = last;
+            }
+        }
+        if (next == null) {
+            return null;
+        }
+        ArrayDeque<T> items = waiting.get(next);
+        T item = items.pollFirst();
+        if (items.isEmpty()) {
+            waiting.remove(next);
+        }
+        size--;
+        start(next);
+        return item;
+    }
+
+    /**
+     * Counts an item as running for the vendor without it having waited
+     */
+    void start(String vendor) {
+        running.merge(vendor, 1, Integer::sum);
+        lastServed.put(vendor, served++);
+        runningTotal++;
+    }
+
+    void finished(String vendor) {
+        Integer count = running.get(vendor);
+        if (count == null) {
+            return;
+        }
+        if (count == 1) {
+            running.remove(vendor);
+            forgetIfIdle(vendor);
+        } else {
+            running.put(vendor, count - 1);
+        }
+        runningTotal--;
+    }
+
+    private void forgetIfIdle(String vendor) {
+        if (!running.containsKey(vendor) && !waiting.containsKey(vendor)) {
+            lastServed.remove(vendor);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int running() {
+        return runningTotal;
+    }
+}
@@ -0,0 +1,41 @@
+package com.p4.backend.catalog.csv;
+
+import org.springframework.batch.core.JobInterruptedException;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.repeat.RepeatCallback;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.repeat.support.RepeatInternalState;
+import org.springframework.batch.repeat.support.RepeatTemplate;
+
+/**
+ * Step operations running each chunk (read, convert, write, commit) only once {@link ImportScheduler} grants the
+ * import's vendor a chunk permit. The wait comes before the chunk's transaction begins, so a waiting import holds
+ * no connection.
+ */
+class FairShareStepOperations extends RepeatTemplate {
+
+    private final ImportScheduler scheduler;
+
+    FairShareStepOperations(ImportScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    protected RepeatStatus getNextResult(RepeatContext context, RepeatCallback callback, RepeatInternalState state)
+            throws Throwable {
+        String vendor = StepSynchronizationManager.getContext().getStepExecution().getJobParameters()
+                .getString(ProductImportJobConfig.VENDOR_PARAMETER, ProductImportJobConfig.DEFAULT_VENDOR);
+        try {
+            scheduler.acquireChunk(vendor);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JobInterruptedException("Import interrupted while waiting for its turn");
+        }
+        try {
+            return super.getNextResult(context, callback, state);
+        } finally {
+            scheduler.releaseChunk(vendor);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.p4.backend.catalog.csv;
+
+import java.util.Locale;
+
+/**
+ * How imported rows are written.
+ * INSERT creates a product per row and fails the chunk on a SKU that already exists; UPSERT updates the product
+ * with the row's SKU instead, and skips rows whose content hash matches the stored one.
+ */
+public enum ImportMode {
+    INSERT, UPSERT;
+
+    public static ImportMode from(String value, ImportMode defaultMode) {
+        if (value == null || value.isBlank()) {
+            return defaultMode;
+        }
+        try {
+            return ImportMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported import mode: " + value);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.p4.backend.catalog.csv;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams import progress over server-sent events. Every catalog.import.events-interval-ms each subscribed import's
+ * status is read once from the job repository and sent as a "progress" event to its subscribers; the stream ends
+ * after the event that reports the import finished. Rejected row samples are left to the status endpoint.
+ */
+@Component
+public class ImportProgressPublisher {
+    
+    @Autowired
+    private CatalogCsvService catalogCsvService;
+    
+    @Value("${catalog.import.events-timeout-ms:3600000}")
+    private long timeoutMs = 3600000;
+    
+    private final Map<SseEmitter, Long> subscribers = new ConcurrentHashMap<>();
+    
+    /**
+     * Subscribes to an import's progress; empty when there is no such import
+     */
+    public Optional<SseEmitter> subscribe(long executionId) {
+        Optional<CatalogCsvService.ImportResult> status = catalogCsvService.getImportStatus(executionId);
+        if (status.isEmpty()) {
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(emitter));
+        subscribers.put(emitter, executionId);
+        send(emitter, status);
+        return Optional.of(emitter);
+    }
+    
+    @Scheduled(fixedDelayString = "${catalog.import.events-interval-ms:1000}")
+    public void publish() {
+        Map<Long, Optional<CatalogCsvService.ImportResult>> statuses = new HashMap<>();
+        subscribers.forEach((emitter, executionId) ->
+                send(emitter, statuses.computeIfAbsent(executionId, catalogCsvService::getImportStatus)));
+    }
+    
+    private void send(SseEmitter emitter, Optional<CatalogCsvService.ImportResult> status) {
+        try {
+            if (status.isPresent()) {
+                emitter.send(SseEmitter.event().name("progress").data(progressOf(status.get())));
+            }
+            if (status.isEmpty() || !status.get().isRunning()) {
+                subscribers.remove(emitter);
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away, or the emitter already completed
+            subscribers.remove(emitter);
+        }
+    }
+    
+    private static Map<String, Object> progressOf(CatalogCsvService.ImportResult result) {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("executionId", result.getExecutionId());
+        progress.put("status", result.getStatus());
+        progress.put("progress", result.getProgress());
+        progress.put("rowsPerSecond", result.getRowsPerSecond());
+        progress.put("totalRows", result.getTotalRows());
+        progress.put("processedRows", result.getProcessedRows());
+        progress.put("unchangedRows", result.getUnchangedRows());
+        progress.put("errorCount", result.getErrorCount());
+        if (result.getFailureMessage() != null) {
+            progress.put("failureMessage", result.getFailureMessage());
+        }
+        return progress;
+    }
+}
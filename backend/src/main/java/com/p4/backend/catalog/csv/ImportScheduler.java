@@ -0,0 +1,184 @@
+package com.p4.backend.catalog.csv;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shares import capacity between vendors at two levels, each handed out with a {@link FairShareQueue}:
+ * <ul>
+ *   <li>import threads: at most {@code catalog.import.threads} imports run at once, and a waiting import of a
+ *       vendor with fewer imports running starts first, so one vendor's batch of uploads cannot hold every thread;</li>
+ *   <li>chunk permits: running imports take turns per chunk for {@code catalog.import.pool-share} of the connection
+ *       pool, so a small import keeps moving next to a 1M-row feed and the rest of the pool stays with storefront
+ *       requests.</li>
+ * </ul>
+ * Queues are per node; imports queued on another node are not visible here.
+ */
+@Component
+public class ImportScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportScheduler.class);
+
+    @Value("${catalog.import.threads:4}")
+    private int threads = 4;
+
+    @Value("${catalog.import.queue-capacity:20}")
+    private int queueCapacity = 20;
+
+    @Value("${catalog.import.pool-share:0.3}")
+    private double poolShare = 0.3;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int poolSize = 10;
+
+    private final FairShareQueue<QueuedImport> imports = new FairShareQueue<>();
+    private final Set<String> queuedKeys = new HashSet<>();
+    private final FairShareQueue<CountDownLatch> chunks = new FairShareQueue<>();
+    private int chunkPermits;
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        // The queue of the pool stays empty: imports wait in the fair queue until a thread is free
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-import-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        chunkPermits = Math.max(1, (int) (poolSize * poolShare));
+        logger.info("Import scheduler: {} import threads, {} of {} pool connections for chunks", threads, chunkPermits, poolSize);
+    }
+
+    // Imports still running fail their current chunk; they can be resumed once they are reported stale
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Executor for launching one import of a vendor; {@code key} identifies the import for {@link #isQueued}
+     */
+    public TaskExecutor executorFor(String vendor, String key) {
+        return task -> submit(new QueuedImport(vendor, key, task));
+    }
+
+    /**
+     * Whether an import is waiting on this node for a thread
+     */
+    public synchronized boolean isQueued(String key) {
+        return queuedKeys.contains(key);
+    }
+
+    /**
+     * Rejects a new import when it would have to wait and the queue is full; {@link #executorFor} rejects the same
+     * way, for imports that lose a race for the last free place
+     */
+    public synchronized void checkCapacity() {
+        if (!(imports.running() < threads && imports.size() == 0) && imports.size() >= queueCapacity) {
+            throw queueFull();
+        }
+    }
+
+    private synchronized void submit(QueuedImport queued) {
+        if (imports.running() < threads && imports.size() == 0) {
+            imports.start(queued.vendor);
+            run(queued);
+        } else if (imports.size() >= queueCapacity) {
+            throw queueFull();
+        } else {
+            imports.add(queued.vendor, queued);
+            queuedKeys.add(queued.key);
+        }
+    }
+
+    private TaskRejectedException queueFull() {
+        return new TaskRejectedException("Too many imports are queued (" + queueCapacity + " waiting); try again later");
+    }
+
+    private void run(QueuedImport queued) {
+        try {
+            executor.execute(() -> {
+                try {
+                    queued.task.run();
+                } finally {
+                    importFinished(queued.vendor);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down: the import stays STARTING and is resumed as stale
+            imports.finished(queued.vendor);
+        }
+    }
+
+    private synchronized void importFinished(String vendor) {
+        imports.finished(vendor);
+        QueuedImport next = imports.poll();
+        if (next != null) {
+            queuedKeys.remove(next.key);
+            run(next);
+        }
+    }
+
+    /**
+     * Blocks until the vendor may run its next chunk. Every call must be paired with {@link #releaseChunk}.
+     */
+    public void acquireChunk(String vendor) throws InterruptedException {
+        CountDownLatch granted = new CountDownLatch(1);
+        synchronized (this) {
+            if (chunks.running() < chunkPermits && chunks.size() == 0) {
+                chunks.start(vendor);
+                return;
+            }
+            chunks.add(vendor, granted);
+        }
+        try {
+            granted.await();
+        } catch (InterruptedException e) {
+            synchronized (this) {
+                if (!chunks.remove(vendor, granted)) {
+                    // Granted while being interrupted: pass the permit on
+                    releaseChunk(vendor);
+                }
+            }
+            throw e;
+        }
+    }
+
+    public synchronized void releaseChunk(String vendor) {
+        chunks.finished(vendor);
+        while (chunks.running() < chunkPermits) {
+            CountDownLatch next = chunks.poll();
+            if (next == null) {
+                break;
+            }
+            next.countDown();
+        }
+    }
+
+    private static final class QueuedImport {
+        private final String vendor;
+        private final String key;
+        private final Runnable task;
+
+        private QueuedImport(String vendor, String key, Runnable task) {
+            this.vendor = vendor;
+            this.key = key;
+            this.task = task;
+        }
+    }
+}
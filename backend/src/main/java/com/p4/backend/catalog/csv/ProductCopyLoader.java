@@ -0,0 +1,134 @@
+package com.p4.backend.catalog.csv;
+
+import com.p4.backend.catalog.entity.Product;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk path of the import writer: streams a chunk into a temporary staging table with the PostgreSQL COPY
+ * protocol and merges it into {@code product} with one set-based statement, instead of one batched INSERT
+ * per row. The staging table lives for the connection and is emptied when each chunk commits; a chunk that
+ * rolls back takes its staged rows with it.
+ */
+final class ProductCopyLoader {
+
+    static final String STAGING_TABLE = "product_import_staging";
+
+    static final String CREATE_STAGING_SQL = "CREATE TEMP TABLE IF NOT EXISTS " + STAGING_TABLE +
+        " ON COMMIT DELETE ROWS AS SELECT " + ProductJdbcItemWriter.COLUMNS + " FROM product WITH NO DATA";
+
+    static final String COPY_SQL = "COPY " + STAGING_TABLE + " (" + ProductJdbcItemWriter.COLUMNS + ") FROM STDIN";
+
+    static final String MERGE_SQL = "INSERT INTO product (" + ProductJdbcItemWriter.COLUMNS + ") SELECT " +
+        ProductJdbcItemWriter.COLUMNS + " FROM " + STAGING_TABLE;
+
+    // RETURNING only reports rows that were inserted or actually updated: skipped rows are the existing
+    // SKUs (insert mode) or the unchanged ones (upsert mode)
+    static final String MERGE_INSERT_SQL = MERGE_SQL + " ON CONFLICT (sku) DO NOTHING RETURNING id, sku";
+    static final String MERGE_UPSERT_SQL = MERGE_SQL + ProductJdbcItemWriter.ON_CONFLICT_UPDATE + " RETURNING id, sku";
+
+    private static final int FLUSH_CHARS = 1 << 16;
+
+    private ProductCopyLoader() {
+    }
+
+    /**
+     * Loads the products in the current transaction and returns the stored id of every row written, keyed
+     * by SKU. Rows without a SKU never conflict and are always written under the id they were given.
+     */
+    static Map<String, String> load(JdbcTemplate jdbcTemplate, List<Product> products, ImportMode mode) {
+        return jdbcTemplate.execute((ConnectionCallback<Map<String, String>>) con -> {
+            try (Statement statement = con.createStatement()) {
+                statement.execute(CREATE_STAGING_SQL);
+                copy(con, products);
+                Map<String, String> written = new HashMap<>();
+                try (ResultSet rs = statement.executeQuery(mode == ImportMode.UPSERT ? MERGE_UPSERT_SQL : MERGE_INSERT_SQL)) {
+                    while (rs.next()) {
+                        String sku = rs.getString("sku");
+                        written.put(sku != null ? sku : rs.getString("id"), rs.getString("id"));
+                    }
+                }
+                return written;
+            }
+        });
+    }
+
+    private static void copy(Connection con, List<Product> products) throws SQLException {
+        CopyIn copyIn = con.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+        try {
+            StringBuilder buffer = new StringBuilder(FLUSH_CHARS + 4096);
+            for (Product product : products) {
+                appendRow(buffer, product);
+                if (buffer.length() >= FLUSH_CHARS) {
+                    flush(copyIn, buffer);
+                }
+            }
+            flush(copyIn, buffer);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private static void flush(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.length() > 0) {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+
+    /** Appends one product as a line of COPY text format, in {@link ProductJdbcItemWriter#COLUMNS} order. */
+    static void appendRow(StringBuilder out, Product product) {
+        Object[] values = {
+            product.getId(), product.getName(), product.getSlug(), product.getDescription(),
+            product.getShortDescription(), product.getSku(), product.getUpc(), product.getGtin(), product.getMpn(),
+            product.getBrand(), product.getCategoryId(), product.getVendorId(),
+            product.getStatus() != null ? product.getStatus().name() : null, product.getCurrency(),
+            product.getBasePrice() != null ? product.getBasePrice().toPlainString() : null, product.getTaxClass(),
+            product.getMetaTitle(), product.getMetaDescription(), product.getMetaKeywords(),
+            product.getWeight() != null ? product.getWeight().toPlainString() : null, product.getMinOrderQty(),
+            product.getMoq(), product.getInventoryTracking(), product.getInventoryQty(),
+            product.getInventoryStatus() != null ? product.getInventoryStatus().name() : null,
+            product.getCreatedAt(), product.getUpdatedAt(), product.getImportHash()
+        };
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.append('\t');
+            }
+            appendValue(out, values[i]);
+        }
+        out.append('\n');
+    }
+
+    private static void appendValue(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append("\\N");
+            return;
+        }
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '\t' -> out.append("\\t");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                default -> out.append(c);
+            }
+        }
+    }
+}
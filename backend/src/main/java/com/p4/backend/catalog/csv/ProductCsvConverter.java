@@ -0,0 +1,163 @@
+package com.p4.backend.catalog.csv;
+
+import com.p4.backend.catalog.entity.Product;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Maps a parsed CSV row onto a new {@link Product}; invalid values raise IllegalArgumentException
+ */
+final class ProductCsvConverter {
+    
+    private ProductCsvConverter() {
+    }
+    
+    /**
+     * Converts a CSV DTO to a Product entity
+     */
+    static Product toProduct(ProductCsvDto csvProduct) {
+        Product product = new Product();
+        
+        // Required fields
+        product.setName(csvProduct.getName());
+        product.setSku(csvProduct.getSku());
+        product.setVendorId(csvProduct.getVendorId());
+        
+        // Optional fields
+        product.setSlug(csvProduct.getSlug());
+        product.setDescription(csvProduct.getDescription());
+        product.setShortDescription(csvProduct.getShortDescription());
+        product.setUpc(csvProduct.getUpc());
+        product.setGtin(csvProduct.getGtin());
+        product.setMpn(csvProduct.getMpn());
+        product.setBrand(csvProduct.getBrand());
+        product.setCategoryId(csvProduct.getCategoryId());
+        
+        // Status
+        if (csvProduct.getStatus() != null) {
+            try {
+                product.setStatus(Product.ProductStatus.valueOf(csvProduct.getStatus().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid product status: " + csvProduct.getStatus());
+            }
+        }
+        
+        // Currency
+        if (csvProduct.getCurrency() != null) {
+            product.setCurrency(csvProduct.getCurrency().toUpperCase());
+        }
+        
+        // Price
+        if (csvProduct.getBasePrice() != null && !csvProduct.getBasePrice().trim().isEmpty()) {
+            try {
+                product.setBasePrice(new BigDecimal(csvProduct.getBasePrice()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid base price format: " + csvProduct.getBasePrice());
+            }
+        }
+        
+        product.setTaxClass(csvProduct.getTaxClass());
+        product.setMetaTitle(csvProduct.getMetaTitle());
+        product.setMetaDescription(csvProduct.getMetaDescription());
+        // Convert comma-separated string to array for metaKeywords
+        String metaKeywordsStr = csvProduct.getMetaKeywords();
+        String[] metaKeywordsArray = (metaKeywordsStr != null && !metaKeywordsStr.trim().isEmpty()) 
+            ? metaKeywordsStr.split(",\\s*") 
+            : new String[0];
+        // Convert to JSON string format for metaKeywords
+        String metaKeywordsJson = metaKeywordsArray != null && metaKeywordsArray.length > 0
+            ? "[\"" + String.join("\",\"", metaKeywordsArray) + "\"]"
+            : "[]";
+        product.setMetaKeywords(metaKeywordsJson);
+        
+        // Weight
+        if (csvProduct.getWeight() != null && !csvProduct.getWeight().trim().isEmpty()) {
+            try {
+                product.setWeight(new BigDecimal(csvProduct.getWeight()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid weight format: " + csvProduct.getWeight());
+            }
+        }
+        
+        // Quantities
+        if (csvProduct.getMinOrderQty() != null && !csvProduct.getMinOrderQty().trim().isEmpty()) {
+            try {
+                product.setMinOrderQty(Integer.parseInt(csvProduct.getMinOrderQty()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid min order quantity format: " + csvProduct.getMinOrderQty());
+            }
+        }
+        
+        if (csvProduct.getMoq() != null && !csvProduct.getMoq().trim().isEmpty()) {
+            try {
+                product.setMoq(Integer.parseInt(csvProduct.getMoq()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid MOQ format: " + csvProduct.getMoq());
+            }
+        }
+        
+        // Inventory tracking
+        if (csvProduct.getInventoryTracking() != null) {
+            product.setInventoryTracking("true".equalsIgnoreCase(csvProduct.getInventoryTracking()) || 
+                                        "1".equals(csvProduct.getInventoryTracking()) || 
+                                        "yes".equalsIgnoreCase(csvProduct.getInventoryTracking()));
+        }
+        
+        if (csvProduct.getInventoryQty() != null && !csvProduct.getInventoryQty().trim().isEmpty()) {
+            try {
+                product.setInventoryQty(Integer.parseInt(csvProduct.getInventoryQty()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid inventory quantity format: " + csvProduct.getInventoryQty());
+            }
+        }
+        
+        // Inventory status
+        if (csvProduct.getInventoryStatus() != null) {
+            try {
+                product.setInventoryStatus(Product.InventoryStatus.valueOf(csvProduct.getInventoryStatus().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid inventory status: " + csvProduct.getInventoryStatus());
+            }
+        }
+        
+        product.setImportHash(contentHash(product));
+        return product;
+    }
+    
+    /**
+     * SHA-256 over every column an import writes, so equal hashes mean an upsert would change nothing.
+     * Values are hashed after conversion: formatting differences that convert to the same values hash the same.
+     */
+    static String contentHash(Product product) {
+        Object[] values = {
+            product.getName(), product.getSlug(), product.getDescription(), product.getShortDescription(),
+            product.getSku(), product.getUpc(), product.getGtin(), product.getMpn(), product.getBrand(),
+            product.getCategoryId(), product.getVendorId(), product.getStatus(), product.getCurrency(),
+            product.getBasePrice() != null ? product.getBasePrice().stripTrailingZeros().toPlainString() : null,
+            product.getTaxClass(), product.getMetaTitle(), product.getMetaDescription(), product.getMetaKeywords(),
+            product.getWeight() != null ? product.getWeight().stripTrailingZeros().toPlainString() : null,
+            product.getMinOrderQty(), product.getMoq(), product.getInventoryTracking(), product.getInventoryQty(),
+            product.getInventoryStatus()
+        };
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        for (Object value : values) {
+            // Length-prefixed so that neighbouring values cannot run into each other; -1 marks null
+            byte[] bytes = value != null ? value.toString().getBytes(StandardCharsets.UTF_8) : null;
+            int length = bytes != null ? bytes.length : -1;
+            digest.update(new byte[] {(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length});
+            if (bytes != null) {
+                digest.update(bytes);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -2,11 +2,13 @@ package com.p4.backend.catalog.csv;
 
 import com.opencsv.bean.CsvBindByName;
 
+import java.io.Serializable;
+
 /**
  * Data Transfer Object for product CSV import
  * Maps CSV columns to Product entity fields
  */
-public class ProductCsvDto {
+public class ProductCsvDto implements Serializable {
     
     @CsvBindByName(column = "name", required = true)
     private String name;
@@ -0,0 +1,142 @@
+package com.p4.backend.catalog.csv;
+
+import com.opencsv.bean.CsvToBeanBuilder;
+import com.opencsv.exceptions.CsvException;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Streams an import file row by row as {@link ProductCsvRow}s, so only the current chunk is ever in memory.
+ * Rows OpenCSV cannot bind (missing required columns, malformed quoting) are reported to {@link ProductImportErrors}
+ * and skipped. The item count is saved at every commit; a restart reads past the rows already imported.
+ * Bytes consumed from the file are saved too, as the import's progress through it.
+ */
+public class ProductCsvItemReader extends AbstractItemCountingItemStreamItemReader<ProductCsvRow> {
+    
+    private static final String NAME = "productCsvReader";
+    private static final String REJECTED_KEY = "rejected.count";
+    private static final String BYTES_KEY = "bytes.read";
+    private static final String RECORDS_KEY = "records.read";
+    
+    private final Path file;
+    private final ProductImportErrors errors;
+    private Reader reader;
+    private Iterator<ProductCsvDto> rows;
+    private boolean replaying;
+    // Records rejected so far, so row numbers count every data record of the file
+    private long rejectedRecords;
+    // Items returned; the base class item count also counts the read that found the end of the file
+    private long itemsRead;
+    // Runs ahead of the current row by at most the reader's buffer
+    private long bytesRead;
+    
+    public ProductCsvItemReader(Path file, ProductImportErrors errors) {
+        this.file = file;
+        this.errors = errors;
+        setName(NAME);
+    }
+    
+    @Override
+    protected void doOpen() throws Exception {
+        bytesRead = 0;
+        itemsRead = 0;
+        InputStream counting = new FilterInputStream(Files.newInputStream(file)) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    bytesRead++;
+                }
+                return b;
+            }
+            
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) {
+                    bytesRead += n;
+                }
+                return n;
+            }
+        };
+        reader = new BufferedReader(new InputStreamReader(counting, StandardCharsets.UTF_8));
+        rows = new CsvToBeanBuilder<ProductCsvDto>(reader)
+                .withType(ProductCsvDto.class)
+                .withIgnoreLeadingWhiteSpace(true)
+                .withExceptionHandler(this::reject)
+                .build()
+                .iterator();
+    }
+    
+    @Override
+    protected ProductCsvRow doRead() {
+        if (!rows.hasNext()) {
+            return null;
+        }
+        itemsRead = getCurrentItemCount();
+        return new ProductCsvRow(itemsRead + rejectedRecords, rows.next());
+    }
+    
+    @Override
+    public void open(ExecutionContext executionContext) {
+        rejectedRecords = executionContext.getLong(getExecutionContextKey(REJECTED_KEY), 0);
+        super.open(executionContext);
+    }
+    
+    @Override
+    public void update(ExecutionContext executionContext) {
+        super.update(executionContext);
+        ExecutionContexts.putLongIfChanged(executionContext, getExecutionContextKey(REJECTED_KEY), rejectedRecords);
+        ExecutionContexts.putLongIfChanged(executionContext, getExecutionContextKey(RECORDS_KEY), itemsRead + rejectedRecords);
+        ExecutionContexts.putLongIfChanged(executionContext, getExecutionContextKey(BYTES_KEY), bytesRead);
+    }
+    
+    @Override
+    protected void jumpToItem(int itemIndex) throws Exception {
+        // Rows rejected before the restart were already counted
+        replaying = true;
+        try {
+            super.jumpToItem(itemIndex);
+        } finally {
+            replaying = false;
+        }
+    }
+    
+    @Override
+    protected void doClose() throws Exception {
+        if (reader != null) {
+            reader.close();
+        }
+    }
+    
+    /**
+     * Data records read up to the last commit, across restarts: items plus records the reader itself rejected
+     */
+    static long recordsReadOf(ExecutionContext executionContext) {
+        return executionContext.getLong(NAME + "." + RECORDS_KEY, 0);
+    }
+    
+    static long bytesReadOf(ExecutionContext executionContext) {
+        return executionContext.getLong(NAME + "." + BYTES_KEY, 0);
+    }
+    
+    private CsvException reject(CsvException e) {
+        if (!replaying) {
+            // The OpenCSV iterator binds one record ahead, so the failing record follows the current item
+            errors.reject(getCurrentItemCount() + rejectedRecords + 1, e.getMessage(), null);
+            rejectedRecords++;
+        }
+        return null;
+    }
+}
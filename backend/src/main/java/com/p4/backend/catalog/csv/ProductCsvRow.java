@@ -0,0 +1,28 @@
+package com.p4.backend.catalog.csv;
+
+import com.p4.backend.catalog.entity.Product;
+
+/**
+ * A bound CSV row with its 1-based position among the rows read.
+ * Conversion sets either the product or the reason the row was rejected.
+ */
+public class ProductCsvRow {
+    private final long rowNumber;
+    private final ProductCsvDto values;
+    private Product product;
+    private String error;
+    
+    public ProductCsvRow(long rowNumber, ProductCsvDto values) {
+        this.rowNumber = rowNumber;
+        this.values = values;
+    }
+    
+    public long getRowNumber() { return rowNumber; }
+    public ProductCsvDto getValues() { return values; }
+    
+    public Product getProduct() { return product; }
+    public void setProduct(Product product) { this.product = product; }
+    
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
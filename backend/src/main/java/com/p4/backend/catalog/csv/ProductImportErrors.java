@@ -0,0 +1,56 @@
+package com.p4.backend.catalog.csv;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rejected rows of one import step: every rejection is counted, the first MAX_SAMPLES are kept with their row.
+ * Saved into the step's execution context at each chunk commit, so progress queries and restarts see them.
+ */
+public class ProductImportErrors implements ItemStream {
+    
+    static final int MAX_SAMPLES = 100;
+    static final String COUNT_KEY = "import.errors.count";
+    static final String SAMPLES_KEY = "import.errors.samples";
+    
+    private long count;
+    private ArrayList<CatalogCsvService.ImportError> samples = new ArrayList<>();
+    
+    public synchronized void reject(long rowNumber, String error, ProductCsvDto row) {
+        count++;
+        if (samples.size() < MAX_SAMPLES) {
+            samples.add(new CatalogCsvService.ImportError((int) rowNumber, error, row));
+        }
+    }
+    
+    public synchronized long getCount() {
+        return count;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized void open(ExecutionContext executionContext) {
+        count = executionContext.getLong(COUNT_KEY, 0);
+        if (executionContext.containsKey(SAMPLES_KEY)) {
+            samples = new ArrayList<>((List<CatalogCsvService.ImportError>) executionContext.get(SAMPLES_KEY));
+        }
+    }
+    
+    @Override
+    public synchronized void update(ExecutionContext executionContext) {
+        // Samples only change with the count; the count goes last as the samples stop changing once full
+        if (!executionContext.containsKey(COUNT_KEY) || executionContext.getLong(COUNT_KEY) != count) {
+            executionContext.put(SAMPLES_KEY, new ArrayList<>(samples));
+            executionContext.putLong(COUNT_KEY, count);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    static List<CatalogCsvService.ImportError> samplesOf(ExecutionContext executionContext) {
+        Object samples = executionContext.get(SAMPLES_KEY);
+        return samples != null ? (List<CatalogCsvService.ImportError>) samples : new ArrayList<>();
+    }
+}
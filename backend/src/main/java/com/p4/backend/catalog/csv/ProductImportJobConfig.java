@@ -0,0 +1,178 @@
+package com.p4.backend.catalog.csv;
+
+import com.p4.backend.catalog.service.CatalogChangeNotifier;
+import com.p4.backend.catalog.service.CatalogVersionService;
+import com.p4.backend.search.index.CatalogIndexRebuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.CompletionPolicy;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Chunk-oriented product CSV import: rows are streamed from the stored upload, converted, and inserted
+ * (or upserted by SKU, see {@link ImportMode}) {@code catalog.import.chunk-size} at a time in one transaction
+ * and one JDBC batch per chunk. Conversion of a chunk is spread over {@code catalog.import.conversion-parallelism}
+ * threads (one per core by default). Bulk imports (see {@link ProductCopyLoader}) load larger chunks of
+ * {@code catalog.import.bulk-chunk-size} through a COPY into a staging table instead.
+ * Bulk imports do not notify the catalog change listeners per chunk; once the job ends, the in-memory indexes
+ * are rebuilt from the database and every catalog cache is invalidated, one time for the whole file.
+ * Each chunk waits for its vendor's turn with the {@link ImportScheduler} before its transaction begins.
+ * Read, write and reject counts are committed to the job repository with every chunk, so a failed import
+ * restarted with the same parameters resumes after the last committed chunk.
+ */
+@Configuration
+public class ProductImportJobConfig {
+    
+    public static final String JOB_NAME = "productCsvImport";
+    public static final String FILE_PARAMETER = "file";
+    public static final String MODE_PARAMETER = "mode";
+    public static final String FILE_SIZE_PARAMETER = "fileSize";
+    public static final String BULK_PARAMETER = "bulk";
+    public static final String VENDOR_PARAMETER = "vendor";
+    public static final String DEFAULT_VENDOR = "default";
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportJobConfig.class);
+    
+    @Bean
+    public Job productCsvImportJob(JobRepository jobRepository, Step productCsvImportStep,
+                                   CatalogIndexRebuilder catalogIndexRebuilder,
+                                   CatalogVersionService catalogVersionService) {
+        return new JobBuilder(JOB_NAME, jobRepository)
+                .start(productCsvImportStep)
+                .listener(storedFileCleanup())
+                .listener(bulkCatalogRefresh(catalogIndexRebuilder, catalogVersionService))
+                .build();
+    }
+    
+    @Bean
+    public Step productCsvImportStep(JobRepository jobRepository, PlatformTransactionManager transactionManager,
+                                     ProductCsvItemReader productCsvItemReader,
+                                     ProductJdbcItemWriter productJdbcItemWriter,
+                                     ProductImportErrors productImportErrors,
+                                     CompletionPolicy productImportChunkPolicy,
+                                     ImportScheduler importScheduler) {
+        // No item processor: rows are converted by the writer, a chunk at a time in parallel
+        return new StepBuilder("productCsvImportStep", jobRepository)
+                .<ProductCsvRow, ProductCsvRow>chunk(productImportChunkPolicy, transactionManager)
+                .reader(productCsvItemReader)
+                .writer(productJdbcItemWriter)
+                .stream(productImportErrors)
+                .listener(progressListener())
+                .stepOperations(new FairShareStepOperations(importScheduler))
+                .build();
+    }
+    
+    // A COPY has a fixed cost per chunk (staging table, merge statement) that only pays off on bigger chunks
+    @Bean
+    @StepScope
+    public CompletionPolicy productImportChunkPolicy(@Value("#{jobParameters['" + BULK_PARAMETER + "']}") String bulk,
+                                                     @Value("${catalog.import.chunk-size:1000}") int chunkSize,
+                                                     @Value("${catalog.import.bulk-chunk-size:20000}") int bulkChunkSize) {
+        return new SimpleCompletionPolicy(Boolean.parseBoolean(bulk) ? bulkChunkSize : chunkSize);
+    }
+    
+    @Bean
+    @StepScope
+    public ProductImportErrors productImportErrors() {
+        return new ProductImportErrors();
+    }
+    
+    @Bean
+    @StepScope
+    public ProductCsvItemReader productCsvItemReader(@Value("#{jobParameters['" + FILE_PARAMETER + "']}") String file,
+                                                     ProductImportErrors productImportErrors) {
+        return new ProductCsvItemReader(Path.of(file), productImportErrors);
+    }
+    
+    @Bean(destroyMethod = "shutdown")
+    public ProductRowConverter productRowConverter(@Value("${catalog.import.conversion-parallelism:0}") int parallelism) {
+        return new ProductRowConverter(parallelism);
+    }
+    
+    @Bean
+    @StepScope
+    public ProductJdbcItemWriter productJdbcItemWriter(@Value("#{jobParameters['" + MODE_PARAMETER + "']}") String mode,
+                                                       @Value("#{jobParameters['" + BULK_PARAMETER + "']}") String bulk,
+                                                       JdbcTemplate jdbcTemplate, CatalogChangeNotifier catalogChangeNotifier,
+                                                       ProductRowConverter productRowConverter,
+                                                       ProductImportErrors productImportErrors) {
+        return new ProductJdbcItemWriter(jdbcTemplate, catalogChangeNotifier, productRowConverter, productImportErrors,
+                ImportMode.from(mode, ImportMode.INSERT), Boolean.parseBoolean(bulk));
+    }
+    
+    // The stored upload is kept until the import completes, so a failed import can be resumed from it
+    private static JobExecutionListener storedFileCleanup() {
+        return new JobExecutionListener() {
+            @Override
+            public void afterJob(JobExecution execution) {
+                logger.info("Import {} finished with status {}", execution.getId(), execution.getStatus());
+                if (execution.getStatus() == BatchStatus.COMPLETED) {
+                    String file = execution.getJobParameters().getString(FILE_PARAMETER);
+                    try {
+                        Files.deleteIfExists(Path.of(file));
+                    } catch (IOException e) {
+                        logger.warn("Could not delete imported file {}: {}", file, e.getMessage());
+                    }
+                }
+            }
+        };
+    }
+    
+    // Runs whatever the status: the chunks committed before a failure are in the database as well
+    private static JobExecutionListener bulkCatalogRefresh(CatalogIndexRebuilder catalogIndexRebuilder,
+                                                           CatalogVersionService catalogVersionService) {
+        return new JobExecutionListener() {
+            @Override
+            public void afterJob(JobExecution execution) {
+                if (!Boolean.parseBoolean(execution.getJobParameters().getString(BULK_PARAMETER))) {
+                    return;
+                }
+                long written = execution.getStepExecutions().stream().mapToLong(StepExecution::getWriteCount).sum();
+                if (written == 0) {
+                    return;
+                }
+                logger.info("Import {}: refreshing catalog indexes and caches after {} bulk rows", execution.getId(), written);
+                // Indexes first, so caches invalidated next are never recomputed from an index without the rows
+                catalogIndexRebuilder.rebuild();
+                catalogVersionService.markAllChanged();
+            }
+        };
+    }
+    
+    private static ChunkListener progressListener() {
+        return new ChunkListener() {
+            @Override
+            public void afterChunk(ChunkContext context) {
+                StepExecution step = context.getStepContext().getStepExecution();
+                ExecutionContext progress = step.getExecutionContext();
+                logger.info("Import {}: {} rows read, {} written, {} unchanged, {} rejected", step.getJobExecutionId(),
+                        ProductCsvItemReader.recordsReadOf(progress),
+                        progress.getLong(ProductJdbcItemWriter.WRITTEN_KEY, 0),
+                        progress.getLong(ProductJdbcItemWriter.UNCHANGED_KEY, 0),
+                        progress.getLong(ProductImportErrors.COUNT_KEY, 0));
+            }
+        };
+    }
+}
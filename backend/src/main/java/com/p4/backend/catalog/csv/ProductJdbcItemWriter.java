@@ -0,0 +1,261 @@
+package com.p4.backend.catalog.csv;
+
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.catalog.service.CatalogChangeNotifier;
+import com.p4.backend.shared.util.UlidUtil;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Writes a chunk of imported rows with one JDBC batch instead of one Hibernate statement per row.
+ * Rows are first converted in parallel by {@link ProductRowConverter}; rows that do not convert, and rows
+ * repeating a SKU seen earlier in the file, are rejected in file order while the rest of the chunk is written.
+ * The stored id and import hash of every SKU in the chunk are then read with one query: in {@link ImportMode#INSERT}
+ * rows for an existing SKU are rejected, in {@link ImportMode#UPSERT} rows whose hash matches are counted as
+ * unchanged and not written at all, and the rest are upserted on SKU.
+ * With {@code bulk} set the lookup and the batch are replaced by {@link ProductCopyLoader}, which COPYs the
+ * chunk into a staging table and merges it in one statement; the same rows end up rejected, unchanged or written.
+ * Ids are assigned here (ULIDs, as the entity generator would). The catalog change listeners are told
+ * about the chunk only after its transaction commits, so the indexes never see rows that were rolled back.
+ * Bulk imports skip the listeners: the job refreshes the indexes and caches once when it ends
+ * (see {@link ProductImportJobConfig}), rather than feeding them every chunk.
+ */
+public class ProductJdbcItemWriter implements ItemStreamWriter<ProductCsvRow> {
+    
+    static final String WRITTEN_KEY = "import.written.count";
+    static final String UNCHANGED_KEY = "import.unchanged.count";
+    
+    static final String COLUMNS =
+        "id, name, slug, description, short_description, sku, upc, gtin, mpn, brand, " +
+        "category_id, vendor_id, status, currency, base_price, tax_class, meta_title, meta_description, " +
+        "meta_keywords, weight, min_order_qty, moq, inventory_tracking, inventory_qty, inventory_status, " +
+        "created_at, updated_at, import_hash";
+    
+    static final String INSERT_SQL = "INSERT INTO product (" + COLUMNS + ") " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    // id and created_at keep their stored values; the WHERE clause makes a row that became identical
+    // after the lookup (a concurrent import of the same file) a no-op rather than a new row version
+    static final String ON_CONFLICT_UPDATE =
+        " ON CONFLICT (sku) DO UPDATE SET name = EXCLUDED.name, slug = EXCLUDED.slug, " +
+        "description = EXCLUDED.description, short_description = EXCLUDED.short_description, " +
+        "upc = EXCLUDED.upc, gtin = EXCLUDED.gtin, mpn = EXCLUDED.mpn, brand = EXCLUDED.brand, " +
+        "category_id = EXCLUDED.category_id, vendor_id = EXCLUDED.vendor_id, status = EXCLUDED.status, " +
+        "currency = EXCLUDED.currency, base_price = EXCLUDED.base_price, tax_class = EXCLUDED.tax_class, " +
+        "meta_title = EXCLUDED.meta_title, meta_description = EXCLUDED.meta_description, " +
+        "meta_keywords = EXCLUDED.meta_keywords, weight = EXCLUDED.weight, min_order_qty = EXCLUDED.min_order_qty, " +
+        "moq = EXCLUDED.moq, inventory_tracking = EXCLUDED.inventory_tracking, inventory_qty = EXCLUDED.inventory_qty, " +
+        "inventory_status = EXCLUDED.inventory_status, updated_at = EXCLUDED.updated_at, " +
+        "import_hash = EXCLUDED.import_hash " +
+        "WHERE product.import_hash IS DISTINCT FROM EXCLUDED.import_hash";
+    
+    static final String UPSERT_SQL = INSERT_SQL + ON_CONFLICT_UPDATE;
+    
+    static final String STORED_HASHES_SQL = "SELECT sku, id, import_hash FROM product WHERE sku = ANY (?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final CatalogChangeNotifier catalogChangeNotifier;
+    private final ProductRowConverter converter;
+    private final ProductImportErrors errors;
+    private final ImportMode mode;
+    private final boolean bulk;
+    // Every SKU accepted so far (about 100 bytes each). Not saved with the step: after a restart, repeats of
+    // rows written before it are caught by the stored SKU lookup instead (rejected on insert, upserted again)
+    private final Set<String> seenSkus = new HashSet<>();
+    private long written;
+    private long unchanged;
+    
+    public ProductJdbcItemWriter(JdbcTemplate jdbcTemplate, CatalogChangeNotifier catalogChangeNotifier,
+                                 ProductRowConverter converter, ProductImportErrors errors, ImportMode mode,
+                                 boolean bulk) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.catalogChangeNotifier = catalogChangeNotifier;
+        this.converter = converter;
+        this.errors = errors;
+        this.mode = mode;
+        this.bulk = bulk;
+    }
+    
+    @Override
+    public void write(Chunk<? extends ProductCsvRow> chunk) {
+        List<ProductCsvRow> rows = new ArrayList<>(chunk.getItems());
+        converter.convert(rows);
+        
+        List<ProductCsvRow> accepted = new ArrayList<>(rows.size());
+        for (ProductCsvRow row : rows) {
+            if (row.getError() != null) {
+                errors.reject(row.getRowNumber(), row.getError(), row.getValues());
+            } else if (row.getProduct().getSku() != null && !seenSkus.add(row.getProduct().getSku())) {
+                errors.reject(row.getRowNumber(), "Duplicate SKU in file: " + row.getProduct().getSku(), row.getValues());
+            } else {
+                accepted.add(row);
+            }
+        }
+        
+        List<Product> products = bulk ? copy(accepted) : batch(accepted);
+        if (products.isEmpty()) {
+            return;
+        }
+        written += products.size();
+        if (bulk) {
+            return;
+        }
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    catalogChangeNotifier.productsSaved(products);
+                }
+            });
+        } else {
+            catalogChangeNotifier.productsSaved(products);
+        }
+    }
+    
+    private List<Product> batch(List<ProductCsvRow> rows) {
+        List<Product> products = toWrite(rows);
+        assignIds(products);
+        if (!products.isEmpty()) {
+            jdbcTemplate.batchUpdate(mode == ImportMode.UPSERT ? UPSERT_SQL : INSERT_SQL,
+                    products, products.size(), ProductJdbcItemWriter::bind);
+        }
+        return products;
+    }
+    
+    /**
+     * Loads every accepted row through the staging table and sorts them by what the merge did: rows it
+     * returned were written (under the stored id when they replaced a product), the rest hit an existing SKU.
+     */
+    private List<Product> copy(List<ProductCsvRow> rows) {
+        List<Product> products = new ArrayList<>(rows.size());
+        for (ProductCsvRow row : rows) {
+            products.add(row.getProduct());
+        }
+        assignIds(products);
+        if (products.isEmpty()) {
+            return products;
+        }
+        Map<String, String> writtenIds = ProductCopyLoader.load(jdbcTemplate, products, mode);
+        
+        List<Product> written = new ArrayList<>(writtenIds.size());
+        for (ProductCsvRow row : rows) {
+            Product product = row.getProduct();
+            String id = writtenIds.get(product.getSku() != null ? product.getSku() : product.getId());
+            if (id != null) {
+                product.setId(id);
+                written.add(product);
+            } else if (mode == ImportMode.INSERT) {
+                errors.reject(row.getRowNumber(), "SKU already exists: " + product.getSku()
+                        + " (import with mode=upsert to update existing products)", row.getValues());
+            } else {
+                unchanged++;
+            }
+        }
+        return written;
+    }
+    
+    private static void assignIds(List<Product> products) {
+        for (Product product : products) {
+            if (product.getId() == null) {
+                product.setId(UlidUtil.generateUlid());
+            }
+        }
+    }
+    
+    /**
+     * Checks the accepted rows against the stored products with their SKUs. Rows to write for an existing
+     * product get its id, so listeners see the product they replace.
+     */
+    private List<Product> toWrite(List<ProductCsvRow> rows) {
+        String[] skus = rows.stream()
+                .map(row -> row.getProduct().getSku())
+                .filter(Objects::nonNull)
+                .toArray(String[]::new);
+        Map<String, String[]> stored = new HashMap<>();
+        if (skus.length > 0) {
+            jdbcTemplate.query(STORED_HASHES_SQL,
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", skus)),
+                    rs -> {
+                        stored.put(rs.getString("sku"), new String[] {rs.getString("id"), rs.getString("import_hash")});
+                    });
+        }
+        
+        List<Product> products = new ArrayList<>(rows.size());
+        for (ProductCsvRow row : rows) {
+            Product product = row.getProduct();
+            String[] idAndHash = product.getSku() != null ? stored.get(product.getSku()) : null;
+            if (idAndHash == null) {
+                products.add(product);
+            } else if (mode == ImportMode.INSERT) {
+                errors.reject(row.getRowNumber(), "SKU already exists: " + product.getSku()
+                        + " (import with mode=upsert to update existing products)", row.getValues());
+            } else if (idAndHash[1] != null && idAndHash[1].equals(product.getImportHash())) {
+                unchanged++;
+            } else {
+                product.setId(idAndHash[0]);
+                products.add(product);
+            }
+        }
+        return products;
+    }
+    
+    @Override
+    public void open(ExecutionContext executionContext) {
+        written = executionContext.getLong(WRITTEN_KEY, 0);
+        unchanged = executionContext.getLong(UNCHANGED_KEY, 0);
+    }
+    
+    @Override
+    public void update(ExecutionContext executionContext) {
+        ExecutionContexts.putLongIfChanged(executionContext, WRITTEN_KEY, written);
+        ExecutionContexts.putLongIfChanged(executionContext, UNCHANGED_KEY, unchanged);
+    }
+    
+    static void bind(PreparedStatement ps, Product product) throws SQLException {
+        ps.setString(1, product.getId());
+        ps.setString(2, product.getName());
+        ps.setString(3, product.getSlug());
+        ps.setString(4, product.getDescription());
+        ps.setString(5, product.getShortDescription());
+        ps.setString(6, product.getSku());
+        ps.setString(7, product.getUpc());
+        ps.setString(8, product.getGtin());
+        ps.setString(9, product.getMpn());
+        ps.setString(10, product.getBrand());
+        ps.setString(11, product.getCategoryId());
+        ps.setString(12, product.getVendorId());
+        ps.setString(13, product.getStatus() != null ? product.getStatus().name() : null);
+        ps.setString(14, product.getCurrency());
+        ps.setBigDecimal(15, product.getBasePrice());
+        ps.setString(16, product.getTaxClass());
+        ps.setString(17, product.getMetaTitle());
+        ps.setString(18, product.getMetaDescription());
+        ps.setString(19, product.getMetaKeywords());
+        ps.setBigDecimal(20, product.getWeight());
+        ps.setObject(21, product.getMinOrderQty(), Types.INTEGER);
+        ps.setObject(22, product.getMoq(), Types.INTEGER);
+        ps.setObject(23, product.getInventoryTracking(), Types.BOOLEAN);
+        ps.setObject(24, product.getInventoryQty(), Types.INTEGER);
+        ps.setString(25, product.getInventoryStatus() != null ? product.getInventoryStatus().name() : null);
+        ps.setTimestamp(26, product.getCreatedAt() != null ? Timestamp.valueOf(product.getCreatedAt()) : null);
+        ps.setTimestamp(27, product.getUpdatedAt() != null ? Timestamp.valueOf(product.getUpdatedAt()) : null);
+        ps.setString(28, product.getImportHash());
+    }
+}
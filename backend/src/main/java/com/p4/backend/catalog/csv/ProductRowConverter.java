@@ -0,0 +1,63 @@
+package com.p4.backend.catalog.csv;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Converts the rows of a chunk on a shared fork-join pool, one contiguous slice per worker.
+ * Every row keeps its own result, so callers still see the rows, and report their errors, in file order.
+ */
+public class ProductRowConverter {
+    
+    // Below this many rows per slice, handing work to the pool costs more than converting in place
+    private static final int MIN_SLICE = 64;
+    
+    private final ForkJoinPool pool;
+    
+    public ProductRowConverter(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+    
+    public void convert(List<ProductCsvRow> rows) {
+        int slices = Math.min(pool.getParallelism(), rows.size() / MIN_SLICE);
+        if (slices <= 1) {
+            rows.forEach(ProductRowConverter::convert);
+            return;
+        }
+        int sliceSize = (rows.size() + slices - 1) / slices;
+        List<Callable<Void>> tasks = new ArrayList<>(slices);
+        for (int from = 0; from < rows.size(); from += sliceSize) {
+            List<ProductCsvRow> slice = rows.subList(from, Math.min(from + sliceSize, rows.size()));
+            tasks.add(() -> {
+                slice.forEach(ProductRowConverter::convert);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> done : pool.invokeAll(tasks)) {
+                done.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while converting import rows", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+        }
+    }
+    
+    static void convert(ProductCsvRow row) {
+        try {
+            row.setProduct(ProductCsvConverter.toProduct(row.getValues()));
+        } catch (IllegalArgumentException e) {
+            row.setError(e.getMessage());
+        }
+    }
+    
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,86 @@
+package com.p4.backend.catalog.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A filter on one product attribute: either an exact value or an inclusive range.
+ * Written as {@code attributeId:value} or {@code attributeId:min..max}, where either range bound may be left out.
+ * Numeric bounds compare as numbers, anything else in string order (which is date order for ISO dates).
+ */
+public class AttributeFilter {
+    private static final String RANGE_SEPARATOR = "..";
+
+    private String attributeId;
+    private String value;
+    private String min;
+    private String max;
+
+    public AttributeFilter() {
+    }
+
+    public AttributeFilter(String attributeId, String value, String min, String max) {
+        this.attributeId = attributeId;
+        this.value = value;
+        this.min = min;
+        this.max = max;
+    }
+
+    public static AttributeFilter parse(String expression) {
+        int colon = expression != null ? expression.indexOf(':') : -1;
+        if (colon <= 0) {
+            throw new IllegalArgumentException("Attribute filter must look like attributeId:value or attributeId:min..max");
+        }
+        String attributeId = expression.substring(0, colon).trim();
+        String operand = expression.substring(colon + 1).trim();
+        int range = operand.indexOf(RANGE_SEPARATOR);
+        if (range < 0) {
+            if (operand.isEmpty()) {
+                throw new IllegalArgumentException("Attribute filter " + attributeId + " has no value");
+            }
+            return new AttributeFilter(attributeId, operand, null, null);
+        }
+        String min = blankToNull(operand.substring(0, range));
+        String max = blankToNull(operand.substring(range + RANGE_SEPARATOR.length()));
+        if (min == null && max == null) {
+            throw new IllegalArgumentException("Attribute range " + attributeId + " needs at least one bound");
+        }
+        return new AttributeFilter(attributeId, null, min, max);
+    }
+
+    public static List<AttributeFilter> parseAll(List<String> expressions) {
+        List<AttributeFilter> filters = new ArrayList<>();
+        if (expressions != null) {
+            for (String expression : expressions) {
+                filters.add(parse(expression));
+            }
+        }
+        return filters;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    public boolean isRange() {
+        return value == null;
+    }
+
+    // Getters and setters
+    public String getAttributeId() { return attributeId; }
+    public void setAttributeId(String attributeId) { this.attributeId = attributeId; }
+
+    public String getValue() { return value; }
+    public void setValue(String value) { this.value = value; }
+
+    public String getMin() { return min; }
+    public void setMin(String min) { this.min = min; }
+
+    public String getMax() { return max; }
+    public void setMax(String max) { this.max = max; }
+
+    @Override
+    public String toString() {
+        return attributeId + ":" + (isRange() ? (min != null ? min : "") + RANGE_SEPARATOR + (max != null ? max : "") : value);
+    }
+}
@@ -0,0 +1,18 @@
+package com.p4.backend.catalog.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Body of a bulk availability lookup: product ids, SKUs, or both
+ */
+public class AvailabilityRequest {
+    private List<String> ids = new ArrayList<>();
+    private List<String> skus = new ArrayList<>();
+
+    public List<String> getIds() { return ids; }
+    public void setIds(List<String> ids) { this.ids = ids != null ? ids : new ArrayList<>(); }
+
+    public List<String> getSkus() { return skus; }
+    public void setSkus(List<String> skus) { this.skus = skus != null ? skus : new ArrayList<>(); }
+}
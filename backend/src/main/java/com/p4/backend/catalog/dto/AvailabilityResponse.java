@@ -0,0 +1,22 @@
+package com.p4.backend.catalog.dto;
+
+import java.util.List;
+
+/**
+ * Result of a bulk availability lookup; each product appears once, in request order
+ */
+public class AvailabilityResponse {
+    private final List<ProductAvailability> products;
+    private final List<String> notFoundIds;
+    private final List<String> notFoundSkus;
+
+    public AvailabilityResponse(List<ProductAvailability> products, List<String> notFoundIds, List<String> notFoundSkus) {
+        this.products = products;
+        this.notFoundIds = notFoundIds;
+        this.notFoundSkus = notFoundSkus;
+    }
+
+    public List<ProductAvailability> getProducts() { return products; }
+    public List<String> getNotFoundIds() { return notFoundIds; }
+    public List<String> getNotFoundSkus() { return notFoundSkus; }
+}
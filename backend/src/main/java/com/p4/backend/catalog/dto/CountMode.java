@@ -0,0 +1,22 @@
+package com.p4.backend.catalog.dto;
+
+import java.util.Locale;
+
+/**
+ * How the total of an offset-paged search is reported.
+ * EXACT counts every match, ESTIMATE uses the in-memory indexes or planner statistics, NONE only reports hasNext.
+ */
+public enum CountMode {
+    EXACT, ESTIMATE, NONE;
+
+    public static CountMode from(String value, CountMode defaultMode) {
+        if (value == null || value.isBlank()) {
+            return defaultMode;
+        }
+        try {
+            return CountMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported count mode: " + value);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.p4.backend.catalog.dto;
+
+import java.util.List;
+
+/**
+ * A page of results addressed by an opaque cursor instead of a page number.
+ * No total count is computed; {@code nextCursor} is null on the last page.
+ */
+public class CursorPage<T> {
+    private final List<T> content;
+    private final String nextCursor;
+    private final boolean hasNext;
+    private final int size;
+    private final ProductSort sort;
+
+    public CursorPage(List<T> content, String nextCursor, int size, ProductSort sort) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+        this.size = size;
+        this.sort = sort;
+    }
+
+    public List<T> getContent() { return content; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean isHasNext() { return hasNext; }
+    public int getSize() { return size; }
+    public ProductSort getSort() { return sort; }
+}
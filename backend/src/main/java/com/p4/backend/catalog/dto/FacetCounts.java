@@ -0,0 +1,36 @@
+package com.p4.backend.catalog.dto;
+
+import java.util.List;
+
+/**
+ * Facet counts for one query and filter combination, sorted by descending count.
+ * {@code generation} identifies the catalog state the counts were computed from.
+ */
+public class FacetCounts {
+    private final List<FacetValue> categories;
+    private final List<FacetValue> vendors;
+    private final List<FacetValue> inventoryStatuses;
+    private final List<FacetValue> priceBuckets;
+    private final long generation;
+
+    public FacetCounts(List<FacetValue> categories, List<FacetValue> vendors,
+                       List<FacetValue> inventoryStatuses, List<FacetValue> priceBuckets, long generation) {
+        this.categories = categories;
+        this.vendors = vendors;
+        this.inventoryStatuses = inventoryStatuses;
+        this.priceBuckets = priceBuckets;
+        this.generation = generation;
+    }
+
+    public List<FacetValue> getCategories() { return categories; }
+    public List<FacetValue> getVendors() { return vendors; }
+    public List<FacetValue> getInventoryStatuses() { return inventoryStatuses; }
+    public List<FacetValue> getPriceBuckets() { return priceBuckets; }
+    public long getGeneration() { return generation; }
+
+    @Override
+    public String toString() {
+        return "FacetCounts{generation=" + generation + ", categories=" + categories + ", vendors=" + vendors +
+               ", inventoryStatuses=" + inventoryStatuses + ", priceBuckets=" + priceBuckets + "}";
+    }
+}
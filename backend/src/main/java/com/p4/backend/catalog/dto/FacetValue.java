@@ -0,0 +1,25 @@
+package com.p4.backend.catalog.dto;
+
+/**
+ * One selectable value of a facet together with the number of matching products
+ */
+public class FacetValue {
+    private final String value;
+    private final String label;
+    private final long count;
+
+    public FacetValue(String value, String label, long count) {
+        this.value = value;
+        this.label = label;
+        this.count = count;
+    }
+
+    public String getValue() { return value; }
+    public String getLabel() { return label; }
+    public long getCount() { return count; }
+
+    @Override
+    public String toString() {
+        return value + "=" + count;
+    }
+}
@@ -0,0 +1,74 @@
+package com.p4.backend.catalog.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a price and inventory feed: how many entries updated a product, the SKUs that matched none
+ * (the first {@link #MAX_NOT_FOUND_SAMPLES} of them) and the entries rejected before reaching the database
+ * (the first {@link #MAX_REJECTED_SAMPLES} of them)
+ */
+public class PriceInventoryFeedResult {
+
+    public static final int MAX_REJECTED_SAMPLES = 100;
+    public static final int MAX_NOT_FOUND_SAMPLES = 100;
+
+    private long received;
+    private long updated;
+    private long notFoundCount;
+    private List<String> notFound = new ArrayList<>();
+    private long rejectedCount;
+    private List<Rejection> rejected = new ArrayList<>();
+
+    public void reject(long entry, String sku, String error) {
+        rejectedCount++;
+        if (rejected.size() < MAX_REJECTED_SAMPLES) {
+            rejected.add(new Rejection(entry, sku, error));
+        }
+    }
+
+    public void notFound(String sku) {
+        notFoundCount++;
+        if (notFound.size() < MAX_NOT_FOUND_SAMPLES) {
+            notFound.add(sku);
+        }
+    }
+
+    // Entries read from the feed, including rejected ones
+    public long getReceived() { return received; }
+    public void setReceived(long received) { this.received = received; }
+
+    public long getUpdated() { return updated; }
+    public void setUpdated(long updated) { this.updated = updated; }
+
+    public long getNotFoundCount() { return notFoundCount; }
+    public void setNotFoundCount(long notFoundCount) { this.notFoundCount = notFoundCount; }
+
+    public List<String> getNotFound() { return notFound; }
+    public void setNotFound(List<String> notFound) { this.notFound = notFound; }
+
+    public long getRejectedCount() { return rejectedCount; }
+    public void setRejectedCount(long rejectedCount) { this.rejectedCount = rejectedCount; }
+
+    public List<Rejection> getRejected() { return rejected; }
+    public void setRejected(List<Rejection> rejected) { this.rejected = rejected; }
+
+    /**
+     * A rejected entry; {@code entry} is its 1-based position in the feed (the data row for CSV)
+     */
+    public static class Rejection {
+        private final long entry;
+        private final String sku;
+        private final String error;
+
+        public Rejection(long entry, String sku, String error) {
+            this.entry = entry;
+            this.sku = sku;
+            this.error = error;
+        }
+
+        public long getEntry() { return entry; }
+        public String getSku() { return sku; }
+        public String getError() { return error; }
+    }
+}
@@ -0,0 +1,26 @@
+package com.p4.backend.catalog.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * One entry of a vendor price and inventory feed, matched to a product by SKU. Fields left null keep their stored value.
+ */
+public class PriceInventoryUpdate {
+    private String sku;
+    private BigDecimal basePrice;
+    private Integer inventoryQty;
+    // Kept as text so an unknown status rejects this entry rather than the whole feed
+    private String inventoryStatus;
+
+    public String getSku() { return sku; }
+    public void setSku(String sku) { this.sku = sku; }
+
+    public BigDecimal getBasePrice() { return basePrice; }
+    public void setBasePrice(BigDecimal basePrice) { this.basePrice = basePrice; }
+
+    public Integer getInventoryQty() { return inventoryQty; }
+    public void setInventoryQty(Integer inventoryQty) { this.inventoryQty = inventoryQty; }
+
+    public String getInventoryStatus() { return inventoryStatus; }
+    public void setInventoryStatus(String inventoryStatus) { this.inventoryStatus = inventoryStatus; }
+}
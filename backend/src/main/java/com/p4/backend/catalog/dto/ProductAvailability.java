@@ -0,0 +1,39 @@
+package com.p4.backend.catalog.dto;
+
+import com.p4.backend.catalog.entity.Product;
+
+/**
+ * Status and stock of one product, as returned by the bulk availability lookup
+ */
+public class ProductAvailability {
+    private final String id;
+    private final String sku;
+    private final Product.ProductStatus status;
+    private final Product.InventoryStatus inventoryStatus;
+    private final Integer inventoryQty;
+
+    public ProductAvailability(String id, String sku, Product.ProductStatus status,
+                               Product.InventoryStatus inventoryStatus, Integer inventoryQty) {
+        this.id = id;
+        this.sku = sku;
+        this.status = status;
+        this.inventoryStatus = inventoryStatus;
+        this.inventoryQty = inventoryQty;
+    }
+
+    public static ProductAvailability of(Product product) {
+        return new ProductAvailability(product.getId(), product.getSku(), product.getStatus(),
+                                       product.getInventoryStatus(), product.getInventoryQty());
+    }
+
+    public String getId() { return id; }
+    public String getSku() { return sku; }
+    public Product.ProductStatus getStatus() { return status; }
+    public Product.InventoryStatus getInventoryStatus() { return inventoryStatus; }
+    public Integer getInventoryQty() { return inventoryQty; }
+
+    // Orderable: published and in stock
+    public boolean isAvailable() {
+        return status == Product.ProductStatus.PUBLISHED && inventoryStatus == Product.InventoryStatus.IN_STOCK;
+    }
+}
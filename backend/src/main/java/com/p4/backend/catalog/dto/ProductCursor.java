@@ -0,0 +1,99 @@
+package com.p4.backend.catalog.dto;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated listing: the sort key of the last row returned plus its ULID as tie-breaker.
+ * Relevance cursors are positions in a rank snapshot instead, keyed {@code score:snapshot:position}; the score
+ * is only used to continue best-effort once the snapshot is gone.
+ * Serialized as URL-safe Base64 of {@code sort|key|id} so clients treat it as opaque.
+ */
+public class ProductCursor {
+
+    private static final char SEPARATOR = '|';
+    private static final String RELEVANCE_SEPARATOR = ":";
+
+    private final ProductSort sort;
+    private final String key;
+    private final String id;
+
+    public ProductCursor(ProductSort sort, String key, String id) {
+        this.sort = sort;
+        this.key = key;
+        this.id = id;
+    }
+
+    public static ProductCursor relevance(double score, long snapshot, int position, String id) {
+        return new ProductCursor(ProductSort.RELEVANCE,
+                score + RELEVANCE_SEPARATOR + snapshot + RELEVANCE_SEPARATOR + position, id);
+    }
+
+    public ProductSort getSort() { return sort; }
+    public String getKey() { return key; }
+    public String getId() { return id; }
+
+    public BigDecimal getPriceKey() {
+        return new BigDecimal(key);
+    }
+
+    public LocalDateTime getTimestampKey() {
+        return LocalDateTime.parse(key);
+    }
+
+    public double getScoreKey() {
+        return Double.parseDouble(relevancePart(0, key));
+    }
+
+    /** Rank snapshot of a relevance cursor; 0 for cursors that carry only a score */
+    public long getSnapshotKey() {
+        return Long.parseLong(relevancePart(1, "0"));
+    }
+
+    public int getPositionKey() {
+        return Integer.parseInt(relevancePart(2, "0"));
+    }
+
+    private String relevancePart(int index, String missing) {
+        String[] parts = key.split(RELEVANCE_SEPARATOR);
+        return index < parts.length ? parts[index] : missing;
+    }
+
+    public String encode() {
+        String raw = sort.name() + SEPARATOR + key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static ProductCursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int last = raw.lastIndexOf(SEPARATOR);
+            if (first < 0 || last <= first) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            ProductSort sort = ProductSort.valueOf(raw.substring(0, first));
+            ProductCursor cursor = new ProductCursor(sort, raw.substring(first + 1, last), raw.substring(last + 1));
+            // Validate the key eagerly so a tampered cursor fails here rather than inside the query
+            switch (sort) {
+                case PRICE -> cursor.getPriceKey();
+                case NEWEST -> cursor.getTimestampKey();
+                case RELEVANCE -> {
+                    cursor.getScoreKey();
+                    cursor.getSnapshotKey();
+                    cursor.getPositionKey();
+                }
+                default -> { }
+            }
+            return cursor;
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + encoded, e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.p4.backend.catalog.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Optional filters shared by the faceted and cursor-paged catalog queries.
+ * Null fields are not applied.
+ */
+public class ProductFilter {
+    private String query;
+    private String vendorId;
+    private String categoryId;
+    private String inventoryStatus;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private List<AttributeFilter> attributes = new ArrayList<>();
+
+    public ProductFilter() {
+    }
+
+    public ProductFilter(String query, String vendorId, String categoryId, String inventoryStatus,
+                         BigDecimal minPrice, BigDecimal maxPrice) {
+        this.query = blankToNull(query);
+        this.vendorId = blankToNull(vendorId);
+        this.categoryId = blankToNull(categoryId);
+        this.inventoryStatus = blankToNull(inventoryStatus);
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    public static ProductFilter ofQuery(String query) {
+        return new ProductFilter(query, null, null, null, null, null);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /**
+     * Lower-cased, whitespace-collapsed query text, or "" when there is none
+     */
+    public static String normalizeQuery(String query) {
+        return query != null ? String.join(" ", query.toLowerCase(Locale.ROOT).trim().split("\\s+")) : "";
+    }
+
+    /**
+     * Key identifying this filter combination for result caches: equal for filters that select the same products
+     */
+    public String cacheKey() {
+        return normalizeQuery(query) + "|" + nullToEmpty(vendorId) + "|" + nullToEmpty(categoryId) +
+               "|" + nullToEmpty(inventoryStatus) +
+               "|" + (minPrice != null ? minPrice.stripTrailingZeros().toPlainString() : "") +
+               "|" + (maxPrice != null ? maxPrice.stripTrailingZeros().toPlainString() : "") +
+               "|" + attributes;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    // Getters and setters
+    public String getQuery() { return query; }
+    public void setQuery(String query) { this.query = query; }
+
+    public String getVendorId() { return vendorId; }
+    public void setVendorId(String vendorId) { this.vendorId = vendorId; }
+
+    public String getCategoryId() { return categoryId; }
+    public void setCategoryId(String categoryId) { this.categoryId = categoryId; }
+
+    public String getInventoryStatus() { return inventoryStatus; }
+    public void setInventoryStatus(String inventoryStatus) { this.inventoryStatus = inventoryStatus; }
+
+    public BigDecimal getMinPrice() { return minPrice; }
+    public void setMinPrice(BigDecimal minPrice) { this.minPrice = minPrice; }
+
+    public BigDecimal getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(BigDecimal maxPrice) { this.maxPrice = maxPrice; }
+
+    public List<AttributeFilter> getAttributes() { return attributes; }
+    public void setAttributes(List<AttributeFilter> attributes) {
+        this.attributes = attributes != null ? attributes : new ArrayList<>();
+    }
+
+    @Override
+    public String toString() {
+        return "ProductFilter{query=" + query + ", vendorId=" + vendorId + ", categoryId=" + categoryId +
+               ", inventoryStatus=" + inventoryStatus + ", minPrice=" + minPrice + ", maxPrice=" + maxPrice +
+               ", attributes=" + attributes + "}";
+    }
+}
@@ -0,0 +1,22 @@
+package com.p4.backend.catalog.dto;
+
+import java.util.Locale;
+
+/**
+ * Sort orders supported by cursor (keyset) pagination.
+ * RELEVANCE is only meaningful for text search and is served by the in-memory search index.
+ */
+public enum ProductSort {
+    NAME, PRICE, NEWEST, RELEVANCE;
+
+    public static ProductSort from(String value, ProductSort defaultSort) {
+        if (value == null || value.isBlank()) {
+            return defaultSort;
+        }
+        try {
+            return ProductSort.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported sort: " + value);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.p4.backend.catalog.dto;
+
+import com.p4.backend.catalog.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Card-level view of a product used by list and search results.
+ * Only these columns are selected, so the description, JSONB and meta columns are never read for a listing;
+ * the full {@link Product} is loaded by the product detail endpoint only.
+ */
+public class ProductSummary {
+    private final String id;
+    private final String name;
+    private final String slug;
+    private final String shortDescription;
+    private final String sku;
+    private final String brand;
+    private final String vendorId;
+    private final String categoryId;
+    private final Product.ProductStatus status;
+    private final BigDecimal basePrice;
+    private final String currency;
+    private final Integer minOrderQty;
+    private final Product.InventoryStatus inventoryStatus;
+    private final LocalDateTime createdAt;
+
+    // Argument order is used by JPQL constructor expressions and ProductSummarySql.COLUMNS
+    public ProductSummary(String id, String name, String slug, String shortDescription, String sku, String brand,
+                          String vendorId, String categoryId, Product.ProductStatus status, BigDecimal basePrice,
+                          String currency, Integer minOrderQty, Product.InventoryStatus inventoryStatus,
+                          LocalDateTime createdAt) {
+        this.id = id;
+        this.name = name;
+        this.slug = slug;
+        this.shortDescription = shortDescription;
+        this.sku = sku;
+        this.brand = brand;
+        this.vendorId = vendorId;
+        this.categoryId = categoryId;
+        this.status = status;
+        this.basePrice = basePrice;
+        this.currency = currency;
+        this.minOrderQty = minOrderQty;
+        this.inventoryStatus = inventoryStatus;
+        this.createdAt = createdAt;
+    }
+
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public String getSlug() { return slug; }
+    public String getShortDescription() { return shortDescription; }
+    public String getSku() { return sku; }
+    public String getBrand() { return brand; }
+    public String getVendorId() { return vendorId; }
+    public String getCategoryId() { return categoryId; }
+    public Product.ProductStatus getStatus() { return status; }
+    public BigDecimal getBasePrice() { return basePrice; }
+    public String getCurrency() { return currency; }
+    public Integer getMinOrderQty() { return minOrderQty; }
+    public Product.InventoryStatus getInventoryStatus() { return inventoryStatus; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,33 @@
+package com.p4.backend.catalog.dto;
+
+import java.util.List;
+
+/**
+ * A page of results addressed by page number whose total is optional.
+ * {@code hasNext} comes from reading one row past the page; {@code total} is null when no count was asked for
+ * and only a lower bound or an estimate when {@code totalExact} is false.
+ */
+public class SlicePage<T> {
+    private final List<T> content;
+    private final int page;
+    private final int size;
+    private final boolean hasNext;
+    private final Long total;
+    private final boolean totalExact;
+
+    public SlicePage(List<T> content, int page, int size, boolean hasNext, Long total, boolean totalExact) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.total = total;
+        this.totalExact = totalExact;
+    }
+
+    public List<T> getContent() { return content; }
+    public int getPage() { return page; }
+    public int getSize() { return size; }
+    public boolean isHasNext() { return hasNext; }
+    public Long getTotal() { return total; }
+    public boolean isTotalExact() { return totalExact; }
+}
@@ -23,6 +23,9 @@ public class MediaAsset extends BaseEntity {
     @Column(name = "file_size")
     private Long fileSize; // File size in bytes
     
+    @Column(name = "content_hash", length = 64)
+    private String contentHash; // Hex SHA-256 of the file; assets with equal hashes share one stored object
+    
     @Column(name = "alt_text")
     private String altText; // Alt text for accessibility
     
@@ -45,6 +48,20 @@ public class MediaAsset extends BaseEntity {
     @Column(name = "is_primary")
     private Boolean isPrimary = false; // Primary image for product
     
+    // Storage keys of the resized image variants, written by MediaVariantService once they are generated
+    @Column(name = "thumbnail_path", length = 1000)
+    private String thumbnailPath;
+    
+    @Column(name = "card_path", length = 1000)
+    private String cardPath;
+    
+    @Column(name = "zoom_path", length = 1000)
+    private String zoomPath;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "variant_status", length = 20)
+    private VariantStatus variantStatus = VariantStatus.NONE;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -86,6 +103,9 @@ public class MediaAsset extends BaseEntity {
     public Long getFileSize() { return fileSize; }
     public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
     
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+    
     public String getAltText() { return altText; }
     public void setAltText(String altText) { this.altText = altText; }
     
@@ -107,6 +127,35 @@ public class MediaAsset extends BaseEntity {
     public Boolean getIsPrimary() { return isPrimary; }
     public void setIsPrimary(Boolean isPrimary) { this.isPrimary = isPrimary; }
     
+    public String getThumbnailPath() { return thumbnailPath; }
+    public void setThumbnailPath(String thumbnailPath) { this.thumbnailPath = thumbnailPath; }
+    
+    public String getCardPath() { return cardPath; }
+    public void setCardPath(String cardPath) { this.cardPath = cardPath; }
+    
+    public String getZoomPath() { return zoomPath; }
+    public void setZoomPath(String zoomPath) { this.zoomPath = zoomPath; }
+    
+    public VariantStatus getVariantStatus() { return variantStatus; }
+    public void setVariantStatus(VariantStatus variantStatus) { this.variantStatus = variantStatus; }
+    
+    // Storage key of the variant, or null while it has not been generated
+    public String getVariantPath(Variant variant) {
+        switch (variant) {
+            case THUMBNAIL: return thumbnailPath;
+            case CARD: return cardPath;
+            default: return zoomPath;
+        }
+    }
+    
+    public void setVariantPath(Variant variant, String path) {
+        switch (variant) {
+            case THUMBNAIL: thumbnailPath = path; break;
+            case CARD: cardPath = path; break;
+            default: zoomPath = path;
+        }
+    }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
@@ -121,4 +170,22 @@ public class MediaAsset extends BaseEntity {
     public enum MediaStatus {
         ACTIVE, INACTIVE, DELETED
     }
+    
+    // Resized copies served to storefront pages instead of the original; maxEdge is the longest side in pixels
+    public enum Variant {
+        THUMBNAIL(160), CARD(480), ZOOM(1600);
+        
+        private final int maxEdge;
+        
+        Variant(int maxEdge) {
+            this.maxEdge = maxEdge;
+        }
+        
+        public int getMaxEdge() { return maxEdge; }
+    }
+    
+    // NONE for media without variants (documents, SVG), PENDING until the variant worker has run
+    public enum VariantStatus {
+        NONE, PENDING, READY, FAILED
+    }
 }
\ No newline at end of file
@@ -87,6 +87,19 @@ public class Product extends BaseEntity {
     
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+    
+    // SHA-256 of the imported column values, set by CSV imports so delta imports can skip unchanged rows
+    @Column(name = "import_hash", length = 64)
+    private String importHash;
+    
+    // Weighted full-text document (name A, SKU and brand B, description C), computed by Postgres on every write.
+    // Mapped only so generated schemas get the column; it is read by native search queries, never by the application.
+    @Column(name = "search_vector", insertable = false, updatable = false, columnDefinition =
+            "tsvector GENERATED ALWAYS AS (" +
+            "setweight(to_tsvector('english', coalesce(name, '')), 'A') || " +
+            "setweight(to_tsvector('english', coalesce(sku, '') || ' ' || coalesce(brand, '')), 'B') || " +
+            "setweight(to_tsvector('english', coalesce(description, '')), 'C')) STORED")
+    private String searchVector;
 
     // Constructors
     public Product() {
@@ -190,6 +203,15 @@ public class Product extends BaseEntity {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     
+    public String getImportHash() { return importHash; }
+    public void setImportHash(String importHash) { this.importHash = importHash; }
+    
+    // An edit made in the application no longer matches the imported row, so the next delta import rewrites it
+    @PreUpdate
+    void clearImportHash() {
+        importHash = null;
+    }
+    
     // Enums
     public enum ProductStatus {
         DRAFT, PUBLISHED, UNPUBLISHED, SUSPENDED
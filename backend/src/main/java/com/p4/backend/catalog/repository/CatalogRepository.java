@@ -1,45 +1,36 @@
 package com.p4.backend.catalog.repository;
 
+import com.p4.backend.catalog.dto.ProductAvailability;
+import com.p4.backend.catalog.dto.ProductSummary;
 import com.p4.backend.catalog.entity.Product;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CatalogRepository extends JpaRepository<Product, String> {
     List<Product> findByVendorId(String vendorId);
     
-    // Updated search method using full-text search
-    @Query("SELECT p FROM Product p WHERE " +
-           "LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(p.sku) LIKE LOWER(CONCAT('%', :query, '%'))")
-    List<Product> findByNameDescriptionOrSkuContaining(@Param("query") String query);
+    // Card-level projections for list endpoints; the full entity is only read for a single product
+    @Query("SELECT " + ProductSummarySql.JPQL_CONSTRUCTOR + " FROM Product p WHERE p.vendorId = :vendorId ORDER BY p.name, p.id")
+    List<ProductSummary> findSummariesByVendorId(@Param("vendorId") String vendorId);
     
-    // PostgreSQL Full-Text Search using to_tsvector and to_tsquery
-    @Query(value = "SELECT * FROM product p WHERE " +
-           "p.status = 'PUBLISHED' AND " +
-           "to_tsvector('english', coalesce(p.name, '') || ' ' || coalesce(p.description, '') || ' ' || coalesce(p.sku, '')) " +
-           "@@ plainto_tsquery('english', :query)",
-           countQuery = "SELECT count(*) FROM product p WHERE " +
-           "p.status = 'PUBLISHED' AND " +
-           "to_tsvector('english', coalesce(p.name, '') || ' ' || coalesce(p.description, '') || ' ' || coalesce(p.sku, '')) " +
-           "@@ plainto_tsquery('english', :query)",
-           nativeQuery = true)
-    Page<Product> findByFullTextSearch(@Param("query") String query, Pageable pageable);
+    @Query("SELECT " + ProductSummarySql.JPQL_CONSTRUCTOR + " FROM Product p " +
+           "WHERE p.vendorId = :vendorId AND p.status = :status ORDER BY p.name, p.id")
+    List<ProductSummary> findSummariesByVendorIdAndStatus(@Param("vendorId") String vendorId,
+                                                          @Param("status") Product.ProductStatus status);
     
-    // Alternative FTS method without pagination
-    @Query(value = "SELECT * FROM product p WHERE " +
-           "p.status = 'PUBLISHED' AND " +
-           "to_tsvector('english', coalesce(p.name, '') || ' ' || coalesce(p.description, '') || ' ' || coalesce(p.sku, '')) " +
-           "@@ plainto_tsquery('english', :query)",
-           nativeQuery = true)
-    List<Product> findByFullTextSearch(@Param("query") String query);
+    @Query("SELECT " + ProductSummarySql.JPQL_CONSTRUCTOR + " FROM Product p WHERE p.id IN :ids")
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<String> ids);
+    
+    // Status and stock of the products matching any of the ids or SKUs, for bulk availability checks
+    @Query("SELECT new com.p4.backend.catalog.dto.ProductAvailability(p.id, p.sku, p.status, p.inventoryStatus, p.inventoryQty) " +
+           "FROM Product p WHERE p.id IN :ids OR p.sku IN :skus")
+    List<ProductAvailability> findAvailability(@Param("ids") Collection<String> ids, @Param("skus") Collection<String> skus);
     
     // Find products by status
     List<Product> findByStatus(Product.ProductStatus status);
@@ -53,39 +44,5 @@ public interface CatalogRepository extends JpaRepository<Product, String> {
     // Find published products only
     List<Product> findByStatusAndInventoryStatus(Product.ProductStatus status, 
                                                  Product.InventoryStatus inventoryStatus);
-    
-    // Find published products for public browsing
-    @Query("SELECT p FROM Product p WHERE p.status = com.p4.backend.catalog.entity.Product$ProductStatus.PUBLISHED")
-    Page<Product> findPublishedProducts(Pageable pageable);
-    
-    // Advanced search with faceted filtering
-    @Query(value = "SELECT * FROM product p WHERE " +
-           "(:query IS NULL OR " +
-           "  to_tsvector('english', coalesce(p.name, '') || ' ' || coalesce(p.description, '') || ' ' || coalesce(p.sku, '')) " +
-           "  @@ plainto_tsquery('english', :query)) AND " +
-           "p.status = 'PUBLISHED' AND " +
-           "(:vendorId IS NULL OR p.vendor_id = :vendorId) AND " +
-           "(:categoryId IS NULL OR p.category_id = :categoryId) AND " +
-           "(:inventoryStatus IS NULL OR p.inventory_status = :inventoryStatus) AND " +
-           "(:minPrice IS NULL OR p.base_price >= :minPrice) AND " +
-           "(:maxPrice IS NULL OR p.base_price <= :maxPrice)",
-           countQuery = "SELECT count(*) FROM product p WHERE " +
-           "(:query IS NULL OR " +
-           "  to_tsvector('english', coalesce(p.name, '') || ' ' || coalesce(p.description, '') || ' ' || coalesce(p.sku, '')) " +
-           "  @@ plainto_tsquery('english', :query)) AND " +
-           "p.status = 'PUBLISHED' AND " +
-           "(:vendorId IS NULL OR p.vendor_id = :vendorId) AND " +
-           "(:categoryId IS NULL OR p.category_id = :categoryId) AND " +
-           "(:inventoryStatus IS NULL OR p.inventory_status = :inventoryStatus) AND " +
-           "(:minPrice IS NULL OR p.base_price >= :minPrice) AND " +
-           "(:maxPrice IS NULL OR p.base_price <= :maxPrice)",
-           nativeQuery = true)
-    Page<Product> findByAdvancedSearch(
-            @Param("query") String query,
-            @Param("vendorId") String vendorId,
-            @Param("categoryId") String categoryId,
-            @Param("inventoryStatus") String inventoryStatus,
-            @Param("minPrice") java.math.BigDecimal minPrice,
-            @Param("maxPrice") java.math.BigDecimal maxPrice,
-            Pageable pageable);
-}
\ No newline at end of file
+
+}
@@ -4,6 +4,17 @@ import com.p4.backend.catalog.entity.MediaAsset;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface MediaAssetRepository extends JpaRepository<MediaAsset, String> {
-}
\ No newline at end of file
+    
+    // Oldest first, so assets left pending the longest are picked up first
+    List<MediaAsset> findTop100ByVariantStatusOrderByUpdatedAtAsc(MediaAsset.VariantStatus variantStatus);
+    
+    // Any asset already holding this content; its stored object and variants can be shared
+    Optional<MediaAsset> findFirstByContentHash(String contentHash);
+    
+    long countByFilePath(String filePath);
+}
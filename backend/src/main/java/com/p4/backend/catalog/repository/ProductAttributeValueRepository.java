@@ -2,8 +2,20 @@ package com.p4.backend.catalog.repository;
 
 import com.p4.backend.catalog.entity.ProductAttributeValue;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ProductAttributeValueRepository extends JpaRepository<ProductAttributeValue, String> {
-}
\ No newline at end of file
+
+    List<ProductAttributeValue> findByProductId(String productId);
+
+    // Bulk delete runs immediately, so new values for the same attributes can be inserted in the same transaction
+    @Modifying
+    @Query("DELETE FROM ProductAttributeValue v WHERE v.productId = :productId")
+    int deleteByProductId(@Param("productId") String productId);
+}
@@ -0,0 +1,48 @@
+package com.p4.backend.catalog.repository;
+
+import com.p4.backend.catalog.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Streams products through a server-side cursor so exports of the whole catalog run in bounded memory.
+ * Rows are fetched {@code fetchSize} at a time (Postgres only honours the fetch size inside a transaction),
+ * loaded read-only and detached once handed to the consumer, so the persistence context never grows.
+ */
+@Repository
+public class ProductExportRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${catalog.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    /**
+     * Passes every product, optionally of one vendor, to the consumer in id order
+     */
+    @Transactional(readOnly = true)
+    public void forEach(String vendorId, Consumer<Product> consumer) {
+        TypedQuery<Product> query = vendorId != null
+                ? entityManager.createQuery("SELECT p FROM Product p WHERE p.vendorId = :vendorId ORDER BY p.id", Product.class)
+                        .setParameter("vendorId", vendorId)
+                : entityManager.createQuery("SELECT p FROM Product p ORDER BY p.id", Product.class);
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+
+        try (Stream<Product> products = query.getResultStream()) {
+            products.forEach(product -> {
+                consumer.accept(product);
+                entityManager.detach(product);
+            });
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.p4.backend.catalog.repository;
+
+import com.p4.backend.catalog.dto.ProductFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Facet aggregation over published products.
+ * Category, vendor, inventory-status and price-bucket counts come back from a single
+ * GROUPING SETS query, i.e. one scan of the filtered rows.
+ */
+@Repository
+public class ProductFacetRepository {
+
+    /**
+     * Upper bounds of the price buckets; bucket i covers [PRICE_BOUNDS[i-1], PRICE_BOUNDS[i])
+     */
+    public static final int[] PRICE_BOUNDS = {10, 50, 100, 500, 1000};
+
+    // GROUPING(category_id, vendor_id, inventory_status, price_bucket) bitmask for each grouping set
+    private static final int CATEGORY_SET = 0b0111;
+    private static final int VENDOR_SET = 0b1011;
+    private static final int INVENTORY_SET = 0b1101;
+    private static final int PRICE_SET = 0b1110;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @SuppressWarnings("unchecked")
+    public FacetRows aggregate(ProductFilter filter) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder inner = new StringBuilder(
+            "SELECT p.category_id, p.vendor_id, p.inventory_status, " +
+            "width_bucket(p.base_price, " + priceBoundsArray() + ") AS price_bucket " +
+            "FROM product p WHERE p.status = 'PUBLISHED'");
+        ProductFilterSql.append(inner, params, filter);
+
+        String sql = "SELECT GROUPING(category_id, vendor_id, inventory_status, price_bucket) AS grp, " +
+                     "category_id, vendor_id, inventory_status, price_bucket, count(*) " +
+                     "FROM (" + inner + ") f " +
+                     "GROUP BY GROUPING SETS ((category_id), (vendor_id), (inventory_status), (price_bucket))";
+
+        Query query = entityManager.createNativeQuery(sql);
+        params.forEach(query::setParameter);
+
+        FacetRows rows = new FacetRows();
+        for (Object[] row : (List<Object[]>) query.getResultList()) {
+            int grouping = ((Number) row[0]).intValue();
+            long count = ((Number) row[5]).longValue();
+            switch (grouping) {
+                case CATEGORY_SET -> rows.categories.put((String) row[1], count);
+                case VENDOR_SET -> rows.vendors.put((String) row[2], count);
+                case INVENTORY_SET -> rows.inventoryStatuses.put((String) row[3], count);
+                case PRICE_SET -> rows.priceBuckets.put(row[4] != null ? ((Number) row[4]).intValue() : null, count);
+                default -> { }
+            }
+        }
+        return rows;
+    }
+
+    private static String priceBoundsArray() {
+        List<String> bounds = new ArrayList<>();
+        for (int bound : PRICE_BOUNDS) {
+            bounds.add(String.valueOf(bound));
+        }
+        return "ARRAY[" + String.join(", ", bounds) + "]::numeric[]";
+    }
+
+    /**
+     * Raw facet counts keyed by column value; a null key counts rows where the column is null
+     */
+    public static class FacetRows {
+        private final Map<String, Long> categories = new LinkedHashMap<>();
+        private final Map<String, Long> vendors = new LinkedHashMap<>();
+        private final Map<String, Long> inventoryStatuses = new LinkedHashMap<>();
+        private final Map<Integer, Long> priceBuckets = new LinkedHashMap<>();
+
+        public Map<String, Long> getCategories() { return categories; }
+        public Map<String, Long> getVendors() { return vendors; }
+        public Map<String, Long> getInventoryStatuses() { return inventoryStatuses; }
+        public Map<Integer, Long> getPriceBuckets() { return priceBuckets; }
+    }
+}
@@ -0,0 +1,121 @@
+package com.p4.backend.catalog.repository;
+
+import com.p4.backend.catalog.dto.AttributeFilter;
+import com.p4.backend.catalog.dto.ProductFilter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Renders a {@link ProductFilter} as native SQL predicates on alias {@code p}.
+ * Only filters that are set are emitted, so Postgres plans each combination on its own
+ * instead of a generic plan full of {@code (:x IS NULL OR ...)} branches.
+ */
+final class ProductFilterSql {
+
+    // Matches against the stored, weighted search_vector column (V12), served by its GIN index
+    static final String FTS_PREDICATE = "p.search_vector @@ plainto_tsquery('english', :query)";
+
+    // One correlated probe per attribute filter, served by the (product_id, attribute_id) unique index. The
+    // string keys are those ProductAttributeIndex compares: trimmed lower-case text, the boolean and the ISO date.
+    private static final String ATTRIBUTE_EXISTS = " AND EXISTS (SELECT 1 FROM product_attribute_value v " +
+        "CROSS JOIN LATERAL (VALUES (lower(trim(v.value_text))), (CAST(v.value_boolean AS text)), " +
+        "(to_char(v.value_date, 'YYYY-MM-DD'))) AS k(key) " +
+        "WHERE v.product_id = p.id AND v.attribute_id = :%1$s AND ";
+
+    private ProductFilterSql() {
+    }
+
+    static void append(StringBuilder sql, Map<String, Object> params, ProductFilter filter) {
+        if (filter == null) {
+            return;
+        }
+        if (filter.getQuery() != null) {
+            sql.append(" AND ").append(FTS_PREDICATE);
+            params.put("query", filter.getQuery());
+        }
+        if (filter.getVendorId() != null) {
+            sql.append(" AND p.vendor_id = :vendorId");
+            params.put("vendorId", filter.getVendorId());
+        }
+        if (filter.getCategoryId() != null) {
+            sql.append(" AND p.category_id = :categoryId");
+            params.put("categoryId", filter.getCategoryId());
+        }
+        if (filter.getInventoryStatus() != null) {
+            sql.append(" AND p.inventory_status = :inventoryStatus");
+            params.put("inventoryStatus", filter.getInventoryStatus());
+        }
+        if (filter.getMinPrice() != null) {
+            sql.append(" AND p.base_price >= :minPrice");
+            params.put("minPrice", filter.getMinPrice());
+        }
+        if (filter.getMaxPrice() != null) {
+            sql.append(" AND p.base_price <= :maxPrice");
+            params.put("maxPrice", filter.getMaxPrice());
+        }
+        appendAttributes(sql, params, filter.getAttributes());
+    }
+
+    // Same matching rules as ProductAttributeIndex.match, so results do not change once the index is ready
+    private static void appendAttributes(StringBuilder sql, Map<String, Object> params, List<AttributeFilter> attributes) {
+        for (int i = 0; i < attributes.size(); i++) {
+            AttributeFilter attribute = attributes.get(i);
+            String name = "attr" + i;
+            sql.append(String.format(ATTRIBUTE_EXISTS, name));
+            params.put(name, attribute.getAttributeId());
+            if (!attribute.isRange()) {
+                sql.append("(k.key = :").append(name).append("Value");
+                params.put(name + "Value", normalize(attribute.getValue()));
+                BigDecimal number = parseNumber(attribute.getValue());
+                if (number != null) {
+                    sql.append(" OR v.value_number = :").append(name).append("Number");
+                    params.put(name + "Number", number);
+                }
+                sql.append("))");
+                continue;
+            }
+            BigDecimal min = parseNumber(attribute.getMin());
+            BigDecimal max = parseNumber(attribute.getMax());
+            boolean numericRange = (attribute.getMin() == null || min != null) && (attribute.getMax() == null || max != null);
+            if (numericRange) {
+                appendBounds(sql, params, "v.value_number", name, min, max);
+            } else {
+                sql.append("k.key <> '' AND ");
+                appendBounds(sql, params, "k.key", name,
+                        attribute.getMin() != null ? normalize(attribute.getMin()) : null,
+                        attribute.getMax() != null ? normalize(attribute.getMax()) : null);
+            }
+            sql.append(")");
+        }
+    }
+
+    private static void appendBounds(StringBuilder sql, Map<String, Object> params, String column, String name,
+                                     Object min, Object max) {
+        if (min != null) {
+            sql.append(column).append(" >= :").append(name).append("Min");
+            params.put(name + "Min", min);
+        }
+        if (max != null) {
+            sql.append(min != null ? " AND " : "").append(column).append(" <= :").append(name).append("Max");
+            params.put(name + "Max", max);
+        }
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static BigDecimal parseNumber(String text) {
+        if (text == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(text.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.p4.backend.catalog.repository;
+
+import com.p4.backend.catalog.dto.ProductSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Typo-tolerant search over published product names and SKUs using pg_trgm.
+ * Names match on word similarity (the query against the closest run of words in the name), SKUs on plain
+ * similarity or as a substring. Every predicate is supported by the V11 GIN trigram indexes, so
+ * no query falls back to a sequential scan. The similarity threshold is applied through the pg_trgm
+ * settings, scoped to the current transaction.
+ */
+@Repository
+public class ProductFuzzySearchRepository {
+
+    private static final String SCORE =
+        "GREATEST(word_similarity(:query, LOWER(p.name)), similarity(LOWER(p.sku), :query))";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public List<ProductSummary> search(String query, double threshold, int offset, int limit) {
+        String normalized = query != null ? query.trim().toLowerCase(Locale.ROOT) : "";
+        if (normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        // set_config(..., true) only lasts until the end of this transaction
+        entityManager.createNativeQuery(
+                "SELECT set_config('pg_trgm.similarity_threshold', :threshold, true), " +
+                "set_config('pg_trgm.word_similarity_threshold', :threshold, true)")
+            .setParameter("threshold", Double.toString(threshold))
+            .getSingleResult();
+
+        List<Object[]> rows = entityManager.createNativeQuery(
+                "SELECT " + ProductSummarySql.COLUMNS + " FROM product p WHERE p.status = 'PUBLISHED' AND (" +
+                ":query <% LOWER(p.name) OR LOWER(p.sku) % :query OR LOWER(p.sku) LIKE :pattern) " +
+                "ORDER BY " + SCORE + " DESC, p.id " +
+                "LIMIT :limit OFFSET :offset")
+            .setParameter("query", normalized)
+            .setParameter("pattern", "%" + escapeLike(normalized) + "%")
+            .setParameter("limit", limit)
+            .setParameter("offset", offset)
+            .getResultList();
+        return ProductSummarySql.map(rows);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,94 @@
+package com.p4.backend.catalog.repository;
+
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.catalog.entity.ProductAttributeValue;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Projection scans that feed the in-memory search indexes on a full rebuild.
+ * Only the indexed columns are read, through a server-side cursor, and handed out as detached objects that
+ * never enter the persistence context; they carry nothing beyond those columns and must not be saved.
+ */
+@Repository
+public class ProductIndexRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${catalog.search.index.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    /**
+     * Passes every published product to the consumer, with id, name, SKU, brand, description, vendor,
+     * category, price and inventory status set
+     */
+    @Transactional(readOnly = true)
+    public void forEachPublished(Consumer<Product> consumer) {
+        Query query = entityManager.createNativeQuery(
+                "SELECT p.id, p.name, p.sku, p.brand, p.description, p.vendor_id, p.category_id, p.base_price, " +
+                "p.inventory_status FROM product p WHERE p.status = 'PUBLISHED'");
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+
+        try (Stream<?> rows = query.getResultStream()) {
+            rows.forEach(result -> {
+                Object[] row = (Object[]) result;
+                Product product = new Product();
+                product.setId((String) row[0]);
+                product.setName((String) row[1]);
+                product.setSku((String) row[2]);
+                product.setBrand((String) row[3]);
+                product.setDescription((String) row[4]);
+                product.setVendorId((String) row[5]);
+                product.setCategoryId((String) row[6]);
+                product.setBasePrice((BigDecimal) row[7]);
+                product.setInventoryStatus(row[8] != null ? Product.InventoryStatus.valueOf((String) row[8]) : null);
+                product.setStatus(Product.ProductStatus.PUBLISHED);
+                consumer.accept(product);
+            });
+        }
+    }
+
+    /**
+     * Passes every stored attribute value to the consumer, with product, attribute and value columns set
+     */
+    @Transactional(readOnly = true)
+    public void forEachAttributeValue(Consumer<ProductAttributeValue> consumer) {
+        Query query = entityManager.createNativeQuery(
+                "SELECT v.product_id, v.attribute_id, v.value_text, v.value_number, v.value_boolean, v.value_date " +
+                "FROM product_attribute_value v");
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+
+        try (Stream<?> rows = query.getResultStream()) {
+            rows.forEach(result -> {
+                Object[] row = (Object[]) result;
+                ProductAttributeValue value = new ProductAttributeValue();
+                value.setProductId((String) row[0]);
+                value.setAttributeId((String) row[1]);
+                value.setValueText((String) row[2]);
+                value.setValueNumber((BigDecimal) row[3]);
+                value.setValueBoolean((Boolean) row[4]);
+                value.setValueDate(toLocalDateTime(row[5]));
+                consumer.accept(value);
+            });
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
@@ -0,0 +1,87 @@
+package com.p4.backend.catalog.repository;
+
+import com.p4.backend.catalog.dto.ProductCursor;
+import com.p4.backend.catalog.dto.ProductFilter;
+import com.p4.backend.catalog.dto.ProductSort;
+import com.p4.backend.catalog.dto.ProductSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset (seek) pagination over published products, read as {@link ProductSummary} rows.
+ * Filters are rendered by {@link ProductFilterSql}; pages are read with a row-value comparison on (sort key, id) backed by the V10 composite indexes.
+ * No count query is issued; callers fetch one extra row to detect the last page.
+ */
+@Repository
+public class ProductKeysetRepository {
+
+    /**
+     * Products without a price sort last; must match the expression of idx_product_published_price_id
+     */
+    public static final String PRICE_SORT_EXPRESSION = "COALESCE(p.base_price, 999999999999999)";
+    private static final BigDecimal MISSING_PRICE_SORT_KEY = new BigDecimal("999999999999999");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @SuppressWarnings("unchecked")
+    public List<ProductSummary> findPublishedPage(ProductFilter filter, ProductSort sort, ProductCursor after, int limit) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT " + ProductSummarySql.COLUMNS + " FROM product p WHERE p.status = 'PUBLISHED'");
+        ProductFilterSql.append(sql, params, filter);
+
+        String sortExpression = sortExpression(sort);
+        boolean descending = sort == ProductSort.NEWEST;
+        if (after != null) {
+            sql.append(" AND (").append(sortExpression).append(", p.id) ")
+               .append(descending ? "<" : ">")
+               .append(" (:afterKey, :afterId)");
+            params.put("afterKey", cursorKey(after));
+            params.put("afterId", after.getId());
+        }
+        String direction = descending ? " DESC" : " ASC";
+        sql.append(" ORDER BY ").append(sortExpression).append(direction).append(", p.id").append(direction);
+        sql.append(" LIMIT :limit");
+        params.put("limit", limit);
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        params.forEach(query::setParameter);
+        return ProductSummarySql.map(query.getResultList());
+    }
+
+    /**
+     * Builds the cursor pointing just past the given product for the given sort
+     */
+    public static ProductCursor cursorFor(ProductSummary product, ProductSort sort) {
+        String key = switch (sort) {
+            case PRICE -> (product.getBasePrice() != null ? product.getBasePrice() : MISSING_PRICE_SORT_KEY).toPlainString();
+            case NEWEST -> product.getCreatedAt().toString();
+            default -> product.getName();
+        };
+        return new ProductCursor(sort, key, product.getId());
+    }
+
+    private static String sortExpression(ProductSort sort) {
+        return switch (sort) {
+            case PRICE -> PRICE_SORT_EXPRESSION;
+            case NEWEST -> "p.created_at";
+            case NAME -> "p.name";
+            default -> throw new IllegalArgumentException("Sort not supported by keyset pagination: " + sort);
+        };
+    }
+
+    private static Object cursorKey(ProductCursor cursor) {
+        return switch (cursor.getSort()) {
+            case PRICE -> cursor.getPriceKey();
+            case NEWEST -> cursor.getTimestampKey();
+            default -> cursor.getKey();
+        };
+    }
+}
@@ -0,0 +1,135 @@
+package com.p4.backend.catalog.repository;
+
+import com.p4.backend.catalog.dto.ProductFilter;
+import com.p4.backend.catalog.dto.ProductSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Offset-paged listings of published products as {@link ProductSummary} rows, ordered by name or by text relevance.
+ * Filters are rendered by {@link ProductFilterSql}, so only the predicates in use reach the planner.
+ */
+@Repository
+public class ProductSummaryRepository {
+
+    // First "rows=" on the top line of a text-format plan: the estimate for the whole statement
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${catalog.search.fts.candidate-limit:1000}")
+    private int candidateLimit = 1000;
+
+    public Page<ProductSummary> findPublished(ProductFilter filter, Pageable pageable) {
+        List<ProductSummary> content = findPublished(filter, pageable.getOffset(), pageable.getPageSize());
+        // A short first page already tells the total
+        if (pageable.getOffset() == 0 && content.size() < pageable.getPageSize()) {
+            return new PageImpl<>(content, pageable, content.size());
+        }
+        return new PageImpl<>(content, pageable, countPublished(filter));
+    }
+
+    /**
+     * Name-ordered rows without a count; callers that only need to know whether another page exists
+     * ask for one row more than they show.
+     */
+    @SuppressWarnings("unchecked")
+    public List<ProductSummary> findPublished(ProductFilter filter, long offset, int limit) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String where = where(filter, params);
+        Query query = entityManager.createNativeQuery(
+                "SELECT " + ProductSummarySql.COLUMNS + where + " ORDER BY p.name, p.id LIMIT :limit OFFSET :offset");
+        params.forEach(query::setParameter);
+        query.setParameter("limit", limit);
+        query.setParameter("offset", offset);
+        return ProductSummarySql.map(query.getResultList());
+    }
+
+    public long countPublished(ProductFilter filter) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        Query count = entityManager.createNativeQuery("SELECT count(*)" + where(filter, params));
+        params.forEach(count::setParameter);
+        return ((Number) count.getSingleResult()).longValue();
+    }
+
+    /**
+     * Row count the planner expects for the filter, read from the top plan node of EXPLAIN. Nothing is executed,
+     * so this costs a planning pass regardless of how many rows match; accuracy follows the table statistics.
+     */
+    public long estimatePublished(ProductFilter filter) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        Query explain = entityManager.createNativeQuery("EXPLAIN SELECT 1" + where(filter, params));
+        params.forEach(explain::setParameter);
+        Matcher rows = PLAN_ROWS.matcher(String.valueOf(explain.getResultList().get(0)));
+        return rows.find() ? Long.parseLong(rows.group(1)) : 0;
+    }
+
+    /**
+     * Full-text search ordered by ts_rank_cd over the weighted search_vector, best first.
+     * Every match is ranked but only the best {@code candidateLimit} are kept (a bounded top-N sort) and joined
+     * back for their columns, which bounds the cost of broad queries; the total is capped at that limit as well.
+     * Without a query this is the name-ordered listing.
+     */
+    public Page<ProductSummary> searchRanked(ProductFilter filter, Pageable pageable) {
+        if (filter == null || filter.getQuery() == null) {
+            return findPublished(filter, pageable);
+        }
+        List<ProductSummary> content = searchRanked(filter, pageable.getOffset(), pageable.getPageSize());
+        if (pageable.getOffset() == 0 && content.size() < pageable.getPageSize()) {
+            return new PageImpl<>(content, pageable, content.size());
+        }
+        return new PageImpl<>(content, pageable, countRanked(filter));
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<ProductSummary> searchRanked(ProductFilter filter, long offset, int limit) {
+        if (filter == null || filter.getQuery() == null) {
+            return findPublished(filter, offset, limit);
+        }
+        Map<String, Object> params = new LinkedHashMap<>();
+        String where = where(filter, params);
+        Query query = entityManager.createNativeQuery(
+                "SELECT " + ProductSummarySql.COLUMNS + " FROM (" +
+                "SELECT p.id, ts_rank_cd(p.search_vector, plainto_tsquery('english', :query)) AS rank" + where +
+                " ORDER BY rank DESC, p.id LIMIT :candidates) c JOIN product p ON p.id = c.id" +
+                " ORDER BY c.rank DESC, p.id LIMIT :limit OFFSET :offset");
+        params.forEach(query::setParameter);
+        query.setParameter("candidates", candidateLimit);
+        query.setParameter("limit", limit);
+        query.setParameter("offset", offset);
+        return ProductSummarySql.map(query.getResultList());
+    }
+
+    // Matches counted up to the candidate limit, the most searchRanked will ever page through
+    public long countRanked(ProductFilter filter) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        Query count = entityManager.createNativeQuery(
+                "SELECT count(*) FROM (SELECT 1" + where(filter, params) + " LIMIT :candidates) c");
+        params.forEach(count::setParameter);
+        count.setParameter("candidates", candidateLimit);
+        return ((Number) count.getSingleResult()).longValue();
+    }
+
+    public int getCandidateLimit() {
+        return candidateLimit;
+    }
+
+    private static String where(ProductFilter filter, Map<String, Object> params) {
+        StringBuilder where = new StringBuilder(" FROM product p WHERE p.status = 'PUBLISHED'");
+        ProductFilterSql.append(where, params, filter);
+        return where.toString();
+    }
+}
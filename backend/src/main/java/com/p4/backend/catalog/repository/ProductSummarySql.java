@@ -0,0 +1,50 @@
+package com.p4.backend.catalog.repository;
+
+import com.p4.backend.catalog.dto.ProductSummary;
+import com.p4.backend.catalog.entity.Product;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Select list and row mapping for reading {@link ProductSummary} rows with native queries on alias {@code p}.
+ * The JPQL counterpart is {@link #JPQL_CONSTRUCTOR}; both follow the constructor's argument order.
+ */
+final class ProductSummarySql {
+
+    static final String COLUMNS =
+        "p.id, p.name, p.slug, p.short_description, p.sku, p.brand, p.vendor_id, p.category_id, p.status, " +
+        "p.base_price, p.currency, p.min_order_qty, p.inventory_status, p.created_at";
+
+    static final String JPQL_CONSTRUCTOR =
+        "new com.p4.backend.catalog.dto.ProductSummary(p.id, p.name, p.slug, p.shortDescription, p.sku, p.brand, " +
+        "p.vendorId, p.categoryId, p.status, p.basePrice, p.currency, p.minOrderQty, p.inventoryStatus, p.createdAt)";
+
+    private ProductSummarySql() {
+    }
+
+    static List<ProductSummary> map(List<Object[]> rows) {
+        List<ProductSummary> summaries = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            summaries.add(new ProductSummary(
+                    (String) row[0], (String) row[1], (String) row[2], (String) row[3], (String) row[4],
+                    (String) row[5], (String) row[6], (String) row[7],
+                    row[8] != null ? Product.ProductStatus.valueOf((String) row[8]) : null,
+                    (BigDecimal) row[9], (String) row[10],
+                    row[11] != null ? ((Number) row[11]).intValue() : null,
+                    row[12] != null ? Product.InventoryStatus.valueOf((String) row[12]) : null,
+                    toLocalDateTime(row[13])));
+        }
+        return summaries;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
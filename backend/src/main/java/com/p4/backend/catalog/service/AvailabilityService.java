@@ -0,0 +1,140 @@
+package com.p4.backend.catalog.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.p4.backend.catalog.dto.AvailabilityResponse;
+import com.p4.backend.catalog.dto.ProductAvailability;
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.catalog.repository.CatalogRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk status and stock lookups by product id or SKU.
+ * Answers come from a small map of {@link ProductAvailability} entries, keyed both as "id:..." and "sku:...";
+ * all keys that miss are resolved together in one query. Local writes replace entries through the catalog
+ * change listeners, a {@link CatalogInvalidatedEvent} drops them all, and a short TTL bounds anything else.
+ */
+@Service
+public class AvailabilityService implements CatalogChangeListener {
+
+    private static final String ID_KEY = "id:";
+    private static final String SKU_KEY = "sku:";
+
+    @Autowired
+    private CatalogRepository catalogRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${catalog.availability.max-entries:200000}")
+    private long maxEntries = 200000;
+
+    @Value("${catalog.availability.ttl-ms:60000}")
+    private long ttlMs = 60000;
+
+    private Cache<String, ProductAvailability> entries;
+
+    @PostConstruct
+    public void init() {
+        entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "productAvailability");
+    }
+
+    /**
+     * Looks up the given product ids and SKUs; keys that do not resolve are reported as not found
+     */
+    public AvailabilityResponse lookup(List<String> ids, List<String> skus) {
+        Set<String> keys = new LinkedHashSet<>();
+        ids.forEach(id -> keys.add(ID_KEY + id));
+        skus.forEach(sku -> keys.add(SKU_KEY + sku));
+        Map<String, ProductAvailability> found = keys.isEmpty() ? Map.of() : entries.getAll(keys, this::load);
+
+        Map<String, ProductAvailability> products = new LinkedHashMap<>();
+        List<String> notFoundIds = new ArrayList<>();
+        List<String> notFoundSkus = new ArrayList<>();
+        for (String key : keys) {
+            ProductAvailability availability = found.get(key);
+            if (availability != null) {
+                products.putIfAbsent(availability.getId(), availability);
+            } else if (key.startsWith(ID_KEY)) {
+                notFoundIds.add(key.substring(ID_KEY.length()));
+            } else {
+                notFoundSkus.add(key.substring(SKU_KEY.length()));
+            }
+        }
+        return new AvailabilityResponse(new ArrayList<>(products.values()), notFoundIds, notFoundSkus);
+    }
+
+    @Override
+    public void onProductsSaved(List<Product> products) {
+        for (Product product : products) {
+            ProductAvailability previous = entries.getIfPresent(ID_KEY + product.getId());
+            if (previous != null && previous.getSku() != null && !previous.getSku().equals(product.getSku())) {
+                entries.invalidate(SKU_KEY + previous.getSku());
+            }
+            put(ProductAvailability.of(product));
+        }
+    }
+
+    @Override
+    public void onProductsDeleted(List<Product> products) {
+        for (Product product : products) {
+            entries.invalidate(ID_KEY + product.getId());
+            if (product.getSku() != null) {
+                entries.invalidate(SKU_KEY + product.getSku());
+            }
+        }
+    }
+
+    @EventListener(CatalogInvalidatedEvent.class)
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    // Resolves every missing key in a single query; rows loaded under their other key are cached as well
+    private Map<String, ProductAvailability> load(Set<? extends String> missing) {
+        List<String> ids = new ArrayList<>();
+        List<String> skus = new ArrayList<>();
+        for (String key : missing) {
+            if (key.startsWith(ID_KEY)) {
+                ids.add(key.substring(ID_KEY.length()));
+            } else {
+                skus.add(key.substring(SKU_KEY.length()));
+            }
+        }
+        Map<String, ProductAvailability> loaded = new HashMap<>();
+        for (ProductAvailability availability : catalogRepository.findAvailability(ids, skus)) {
+            loaded.put(ID_KEY + availability.getId(), availability);
+            if (availability.getSku() != null) {
+                loaded.put(SKU_KEY + availability.getSku(), availability);
+            }
+        }
+        return loaded;
+    }
+
+    private void put(ProductAvailability availability) {
+        entries.put(ID_KEY + availability.getId(), availability);
+        if (availability.getSku() != null) {
+            entries.put(SKU_KEY + availability.getSku(), availability);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.p4.backend.catalog.service;
+
+import com.p4.backend.catalog.entity.MediaAsset;
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.catalog.entity.Vendor;
+import com.p4.backend.catalog.repository.CatalogRepository;
+import com.p4.backend.catalog.repository.MediaAssetRepository;
+import com.p4.backend.catalog.repository.VendorRepository;
+import com.p4.backend.config.CachingConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-through lookups of products, vendors and media assets by id, backed by the local caches in {@link CachingConfig}.
+ * Product entries are evicted through the catalog change listeners, so every write made by CatalogService or
+ * the CSV import drops exactly the products it touched. Writes made on other nodes clear the product cache
+ * through the {@link CatalogInvalidatedEvent} published once CatalogVersionService notices them;
+ * the cache TTL bounds anything else.
+ * Misses are not cached, so a product created on another node is visible on its first lookup here.
+ * Cached entities are shared between callers and must not be modified; CatalogService hands out copies of products.
+ */
+@Service
+public class CatalogCache implements CatalogChangeListener {
+
+    @Autowired
+    private CatalogRepository catalogRepository;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private MediaAssetRepository mediaAssetRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Cacheable(cacheNames = CachingConfig.PRODUCTS, key = "#id", unless = "#result == null")
+    public Optional<Product> findProduct(String id) {
+        return catalogRepository.findById(id);
+    }
+
+    @Cacheable(cacheNames = CachingConfig.VENDORS, key = "#id", unless = "#result == null")
+    public Optional<Vendor> findVendor(String id) {
+        return vendorRepository.findById(id);
+    }
+
+    @Cacheable(cacheNames = CachingConfig.MEDIA_ASSETS, key = "#id", unless = "#result == null")
+    public Optional<MediaAsset> findMediaAsset(String id) {
+        return mediaAssetRepository.findById(id);
+    }
+
+    @Override
+    public void onProductsSaved(List<Product> products) {
+        evictProducts(products);
+    }
+
+    @Override
+    public void onProductsDeleted(List<Product> products) {
+        evictProducts(products);
+    }
+
+    @EventListener(CatalogInvalidatedEvent.class)
+    public void evictAllProducts() {
+        cache(CachingConfig.PRODUCTS).clear();
+    }
+
+    public void evictMediaAsset(String id) {
+        cache(CachingConfig.MEDIA_ASSETS).evict(id);
+    }
+
+    private void evictProducts(List<Product> products) {
+        Cache cache = cache(CachingConfig.PRODUCTS);
+        for (Product product : products) {
+            if (product.getId() != null) {
+                cache.evict(product.getId());
+            }
+        }
+    }
+
+    private Cache cache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            throw new IllegalStateException("Cache not configured: " + name);
+        }
+        return cache;
+    }
+}
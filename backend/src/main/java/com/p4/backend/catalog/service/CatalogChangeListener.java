@@ -0,0 +1,25 @@
+package com.p4.backend.catalog.service;
+
+import com.p4.backend.catalog.entity.Product;
+
+import java.util.List;
+
+/**
+ * Callback for in-memory catalog structures that must follow product writes.
+ * Implementations are picked up as Spring beans and notified by {@link CatalogChangeNotifier}
+ * after products are saved or removed through {@link CatalogService} or the CSV import.
+ */
+public interface CatalogChangeListener {
+
+    /**
+     * Called after products were created or updated
+     * @param products the saved products, in their persisted state
+     */
+    void onProductsSaved(List<Product> products);
+
+    /**
+     * Called after products were deleted
+     * @param products the products as they were before removal
+     */
+    void onProductsDeleted(List<Product> products);
+}
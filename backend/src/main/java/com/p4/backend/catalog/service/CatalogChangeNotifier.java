@@ -0,0 +1,51 @@
+package com.p4.backend.catalog.service;
+
+import com.p4.backend.catalog.entity.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fans product writes out to every registered {@link CatalogChangeListener}.
+ * A failing listener is logged and skipped so a stale in-memory structure never fails the write itself.
+ * Listeners run in {@code @Order}; the search indexes go first, so caches refreshed by later listeners
+ * (facets, versions) are never recomputed from an index that has not seen the write yet.
+ */
+@Component
+public class CatalogChangeNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogChangeNotifier.class);
+
+    @Autowired(required = false)
+    private List<CatalogChangeListener> listeners = new ArrayList<>();
+
+    public void productsSaved(List<Product> products) {
+        if (products == null || products.isEmpty()) {
+            return;
+        }
+        for (CatalogChangeListener listener : listeners) {
+            try {
+                listener.onProductsSaved(products);
+            } catch (Exception e) {
+                logger.error("Catalog listener {} failed on save: {}", listener.getClass().getSimpleName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    public void productsDeleted(List<Product> products) {
+        if (products == null || products.isEmpty()) {
+            return;
+        }
+        for (CatalogChangeListener listener : listeners) {
+            try {
+                listener.onProductsDeleted(products);
+            } catch (Exception e) {
+                logger.error("Catalog listener {} failed on delete: {}", listener.getClass().getSimpleName(), e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.p4.backend.catalog.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.p4.backend.catalog.repository.ProductExportRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes full product exports row by row, as a JSON array or as NDJSON (one product per line).
+ * Nothing but the current row is held in memory, whatever the catalog size.
+ */
+@Service
+public class CatalogExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogExportService.class);
+
+    // Flush periodically so the client sees progress and the response buffer stays small
+    private static final int FLUSH_EVERY = 500;
+
+    public enum Format {
+        JSON, NDJSON
+    }
+
+    @Autowired
+    private ProductExportRepository productExportRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Streams all products, or those of one vendor when {@code vendorId} is set, to the output stream
+     */
+    public void export(String vendorId, Format format, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        AtomicLong count = new AtomicLong();
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // Keeps the generator from closing the servlet stream; the container owns it
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            if (format == Format.JSON) {
+                generator.writeStartArray();
+            }
+            try {
+                productExportRepository.forEach(vendorId, product -> {
+                    try {
+                        writer.writeValue(generator, product);
+                        if (format == Format.NDJSON) {
+                            generator.writeRaw('\n');
+                        }
+                        if (count.incrementAndGet() % FLUSH_EVERY == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (format == Format.JSON) {
+                generator.writeEndArray();
+            }
+        }
+        logger.info("Exported {} products{} as {} in {} ms", count.get(),
+                   vendorId != null ? " of vendor " + vendorId : "", format, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,8 @@
+package com.p4.backend.catalog.service;
+
+/**
+ * Published when products may have changed without going through the catalog change listeners
+ * (writes made on other nodes, bulk updates). Holders of per-product state should drop all of it.
+ */
+public class CatalogInvalidatedEvent {
+}
@@ -1,18 +1,46 @@
 package com.p4.backend.catalog.service;
 
+import com.p4.backend.catalog.dto.AttributeFilter;
+import com.p4.backend.catalog.dto.AvailabilityResponse;
+import com.p4.backend.catalog.dto.CountMode;
+import com.p4.backend.catalog.dto.CursorPage;
+import com.p4.backend.catalog.dto.FacetCounts;
+import com.p4.backend.catalog.dto.FacetValue;
+import com.p4.backend.catalog.dto.ProductAvailability;
+import com.p4.backend.catalog.dto.ProductCursor;
+import com.p4.backend.catalog.dto.ProductFilter;
+import com.p4.backend.catalog.dto.ProductSort;
+import com.p4.backend.catalog.dto.ProductSummary;
+import com.p4.backend.catalog.dto.SlicePage;
 import com.p4.backend.catalog.entity.Product;
 import com.p4.backend.catalog.repository.CatalogRepository;
+import com.p4.backend.catalog.repository.ProductFuzzySearchRepository;
+import com.p4.backend.catalog.repository.ProductKeysetRepository;
+import com.p4.backend.catalog.repository.ProductSummaryRepository;
+import com.p4.backend.search.index.ProductAttributeIndex;
+import com.p4.backend.search.index.ProductFilterIndex;
+import com.p4.backend.search.index.ProductOrdinals;
+import com.p4.backend.search.index.ProductSearchIndex;
+import com.p4.backend.search.index.Suggestion;
+import com.p4.backend.search.index.SuggestionIndex;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class CatalogService {
@@ -20,53 +48,272 @@ public class CatalogService {
     @Autowired
     private CatalogRepository catalogRepository;
     
-    public List<Product> getAllProducts() {
-        return catalogRepository.findAll();
-    }
+    @Autowired
+    private ProductKeysetRepository productKeysetRepository;
+    
+    @Autowired
+    private ProductFuzzySearchRepository productFuzzySearchRepository;
+    
+    @Autowired
+    private ProductSummaryRepository productSummaryRepository;
+    
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+    
+    @Autowired
+    private ProductAttributeIndex productAttributeIndex;
+    
+    @Autowired
+    private ProductOrdinals productOrdinals;
+    
+    @Autowired
+    private ProductFilterIndex productFilterIndex;
+    
+    @Autowired
+    private CatalogChangeNotifier catalogChangeNotifier;
+    
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private AvailabilityService availabilityService;
+    
+    @Autowired
+    private FacetService facetService;
+    
+    @Autowired
+    private SearchResultCache searchResultCache;
+    
+    @Value("${catalog.search.fuzzy.threshold:0.3}")
+    private double fuzzyThreshold = 0.3;
     
     public List<Product> getPublishedProducts() {
         return catalogRepository.findByStatus(Product.ProductStatus.PUBLISHED);
     }
     
+    // Served from the product cache as a detached copy, so callers cannot change the shared cached entity
     public Optional<Product> getProductById(String id) {
-        return catalogRepository.findById(id);
+        return catalogCache.findProduct(id).map(CatalogService::copyOf);
+    }
+    
+    // Product detail view from the storefront; feeds suggestion popularity
+    public void recordProductView(String id) {
+        suggestionIndex.recordView(id);
+    }
+    
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return suggestionIndex.suggest(prefix, Math.min(limit, SuggestionIndex.MAX_SUGGESTIONS));
     }
     
     public Product saveProduct(Product product) {
-        return catalogRepository.save(product);
+        Product saved = catalogRepository.save(product);
+        catalogChangeNotifier.productsSaved(List.of(saved));
+        return saved;
     }
     
     public void deleteProduct(String id) {
+        Optional<Product> existing = catalogCache.findProduct(id);
         catalogRepository.deleteById(id);
+        existing.ifPresent(product -> catalogChangeNotifier.productsDeleted(List.of(product)));
     }
     
-    public List<Product> getProductsByVendor(String vendorId) {
-        return catalogRepository.findByVendorId(vendorId);
+    private static Product copyOf(Product cached) {
+        Product copy = new Product();
+        BeanUtils.copyProperties(cached, copy);
+        return copy;
     }
     
-    public List<Product> getProductsByVendorAndStatus(String vendorId, Product.ProductStatus status) {
-        return catalogRepository.findByVendorIdAndStatus(vendorId, status);
+    public List<ProductSummary> getProductsByVendor(String vendorId) {
+        return catalogRepository.findSummariesByVendorId(vendorId);
     }
     
-    public List<Product> searchProducts(String query) {
-        return catalogRepository.findByNameDescriptionOrSkuContaining(query);
+    public List<ProductSummary> getProductsByVendorAndStatus(String vendorId, Product.ProductStatus status) {
+        return catalogRepository.findSummariesByVendorIdAndStatus(vendorId, status);
     }
     
-    // Full-text search using PostgreSQL FTS
-    public Page<Product> searchProductsFts(String query, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("name"));
-        return catalogRepository.findByFullTextSearch(query, pageable);
+    // Typo-tolerant search on name and SKU, ranked by trigram similarity
+    public List<ProductSummary> searchProducts(String query, int page, int size, Double threshold) {
+        double minSimilarity = threshold != null ? threshold : fuzzyThreshold;
+        if (minSimilarity < 0 || minSimilarity > 1) {
+            throw new IllegalArgumentException("threshold must be between 0 and 1");
+        }
+        return productFuzzySearchRepository.search(query, minSimilarity, page * size, size);
     }
     
-    // Full-text search without pagination (for internal use)
-    public List<Product> searchProductsFts(String query) {
-        return catalogRepository.findByFullTextSearch(query);
+    public Page<ProductSummary> searchProductsFts(String query, int page, int size) {
+        return searchProductsFts(query, List.of(), page, size);
+    }
+    
+    // Full-text search, served from the in-memory BM25 index once it is built (ranked PostgreSQL FTS until then).
+    // Attribute filters are intersected with the text hits in memory.
+    public Page<ProductSummary> searchProductsFts(String query, List<AttributeFilter> attributes, int page, int size) {
+        PageRequest pageable = PageRequest.of(page, size);
+        String key = "fts|" + ProductFilter.normalizeQuery(query) + "|" + attributes + "|" + page + "|" + size;
+        return cachedPage(key, pageable, () -> {
+            if (canSearchInMemory(attributes)) {
+                ProductSearchIndex.SearchResult result =
+                        productSearchIndex.search(query, page * size, size, attributePredicate(attributes));
+                return new SearchResultCache.CachedPage(result.getProductIds(), result.getTotalHits());
+            }
+            return SearchResultCache.CachedPage.of(
+                    productSummaryRepository.searchRanked(textFilter(query, attributes), pageable));
+        });
+    }
+    
+    // Result pages are cached as id lists; the rows themselves are always read fresh by primary key
+    private Page<ProductSummary> cachedPage(String key, PageRequest pageable, Supplier<SearchResultCache.CachedPage> search) {
+        SearchResultCache.CachedPage cached = searchResultCache.get(key, search);
+        return new PageImpl<>(loadInOrder(cached.getProductIds()), pageable, cached.getTotal());
+    }
+    
+    // Offset-paged full-text search that learns hasNext from one extra hit; the total is reported as countMode asks.
+    // The in-memory index knows its exact total for free; the SQL fallback counts or estimates only on request.
+    public SlicePage<ProductSummary> searchProductsFts(String query, List<AttributeFilter> attributes,
+                                                       int page, int size, CountMode countMode) {
+        checkPage(page, size);
+        long offset = (long) page * size;
+        String key = "fts|" + ProductFilter.normalizeQuery(query) + "|" + attributes + "|" + page + "|" + size + "|" + countMode;
+        return cachedSlice(key, page, size, () -> {
+            if (canSearchInMemory(attributes)) {
+                ProductSearchIndex.SearchResult result =
+                        productSearchIndex.search(query, (int) offset, size + 1, attributePredicate(attributes));
+                return slice(result.getProductIds(), size, (long) result.getTotalHits(), true);
+            }
+            ProductFilter filter = textFilter(query, attributes);
+            return sqlSlice(productSummaryRepository.searchRanked(filter, offset, size + 1), offset, size, countMode,
+                    productSummaryRepository.getCandidateLimit(), () -> productSummaryRepository.countRanked(filter),
+                    () -> Math.min(productSummaryRepository.estimatePublished(filter),
+                            productSummaryRepository.getCandidateLimit()));
+        });
+    }
+    
+    private SlicePage<ProductSummary> cachedSlice(String key, int page, int size, Supplier<SearchResultCache.CachedPage> search) {
+        SearchResultCache.CachedPage cached = searchResultCache.get(key, search);
+        return new SlicePage<>(loadInOrder(cached.getProductIds()), page, size,
+                cached.isHasNext(), cached.getTotal(), cached.isTotalExact());
+    }
+    
+    private static void checkPage(int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("page must not be negative and size must be at least 1");
+        }
+    }
+    
+    // Trims the extra lookahead id off a page of up to size + 1 ids
+    private static SearchResultCache.CachedPage slice(List<String> ids, int size, Long total, boolean totalExact) {
+        boolean hasNext = ids.size() > size;
+        return new SearchResultCache.CachedPage(hasNext ? ids.subList(0, size) : ids, total, totalExact, hasNext);
+    }
+    
+    /**
+     * Page of up to size + 1 SQL rows with its total: read off the page when it is the last one, otherwise counted,
+     * estimated (never below what the page already proves) or left out, as countMode asks. A total that reached
+     * countLimit, the most rows the queries read, is reported as not exact.
+     */
+    private static SearchResultCache.CachedPage sqlSlice(List<ProductSummary> rows, long offset, int size, CountMode countMode,
+                                                         long countLimit, LongSupplier count, LongSupplier estimate) {
+        List<String> ids = new ArrayList<>(rows.size());
+        rows.forEach(product -> ids.add(product.getId()));
+        if (ids.size() <= size && (offset == 0 || !ids.isEmpty())) {
+            return slice(ids, size, offset + ids.size(), offset + ids.size() < countLimit);
+        }
+        switch (countMode) {
+            case EXACT:
+                long total = count.getAsLong();
+                return slice(ids, size, total, total < countLimit);
+            case ESTIMATE:
+                return slice(ids, size, Math.max(estimate.getAsLong(), offset + ids.size()), false);
+            default:
+                return slice(ids, size, null, false);
+        }
+    }
+    
+    // Cursor-paged full-text search; relevance order comes from rank snapshots of the in-memory index, other sorts
+    // from keyset queries
+    public CursorPage<ProductSummary> searchProductsFts(String query, List<AttributeFilter> attributes,
+                                                        String cursor, String sort, int size) {
+        ProductCursor after = decodeCursor(cursor);
+        ProductSort productSort = after != null ? after.getSort() : ProductSort.from(sort, ProductSort.RELEVANCE);
+        if (productSort == ProductSort.RELEVANCE) {
+            if (canSearchInMemory(attributes)) {
+                return relevancePage(query, attributes, after, size);
+            }
+            // Indexes not built yet: name order is the best stable order the database can give
+            productSort = ProductSort.NAME;
+            after = null;
+        }
+        return seekPage(textFilter(query, attributes), after, productSort, size);
+    }
+    
+    // SQL filters probe product_attribute_value for the attribute filters themselves, see ProductFilterSql
+    private ProductFilter textFilter(String query, List<AttributeFilter> attributes) {
+        ProductFilter filter = ProductFilter.ofQuery(query);
+        filter.setAttributes(attributes);
+        return filter;
+    }
+    
+    // The text index answers only once the attribute index can resolve the attribute filters as well
+    private boolean canSearchInMemory(List<AttributeFilter> attributes) {
+        return productSearchIndex.isReady() && (attributes.isEmpty() || productAttributeIndex.isReady());
+    }
+    
+    // Membership test against the attribute index matches, or null when there are no attribute filters
+    private Predicate<String> attributePredicate(List<AttributeFilter> attributes) {
+        if (attributes.isEmpty()) {
+            return null;
+        }
+        RoaringBitmap matches = productAttributeIndex.match(attributes);
+        return productId -> {
+            int ordinal = productOrdinals.find(productId);
+            return ordinal >= 0 && matches.contains(ordinal);
+        };
+    }
+    
+    /**
+     * Loads product summaries by primary key and returns them in the order of the given ids.
+     * Ids that no longer resolve (deleted since they were ranked) are skipped.
+     */
+    private List<ProductSummary> loadInOrder(List<String> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<String, ProductSummary> byId = catalogRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductSummary::getId, Function.identity()));
+        List<ProductSummary> ordered = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            ProductSummary product = byId.get(id);
+            if (product != null) {
+                ordered.add(product);
+            }
+        }
+        return ordered;
     }
     
     // Method for public catalog browsing (only published products) with pagination
-    public Page<Product> getBrowsableProducts(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("name"));
-        return catalogRepository.findPublishedProducts(pageable);
+    public Page<ProductSummary> getBrowsableProducts(int page, int size) {
+        return productSummaryRepository.findPublished(null, PageRequest.of(page, size));
+    }
+    
+    // Browsing with hasNext from one extra row and the total only as countMode asks
+    public SlicePage<ProductSummary> getBrowsableProducts(int page, int size, CountMode countMode) {
+        checkPage(page, size);
+        long offset = (long) page * size;
+        List<ProductSummary> rows = productSummaryRepository.findPublished(null, offset, size + 1);
+        SearchResultCache.CachedPage slice = sqlSlice(rows, offset, size, countMode,
+                Long.MAX_VALUE, () -> productSummaryRepository.countPublished(null),
+                () -> productSummaryRepository.estimatePublished(null));
+        return new SlicePage<>(slice.isHasNext() ? rows.subList(0, size) : rows, page, size,
+                slice.isHasNext(), slice.getTotal(), slice.isTotalExact());
+    }
+    
+    // Cursor (keyset) browsing of published products: constant cost per page and no count query
+    public CursorPage<ProductSummary> getBrowsableProducts(String cursor, String sort, int size) {
+        ProductCursor after = decodeCursor(cursor);
+        ProductSort productSort = after != null ? after.getSort() : ProductSort.from(sort, ProductSort.NAME);
+        return seekPage(null, after, productSort, size);
     }
     
     // Method for public catalog browsing (only published products) without pagination
@@ -74,40 +321,112 @@ public class CatalogService {
         return catalogRepository.findByStatus(Product.ProductStatus.PUBLISHED);
     }
     
-    // Advanced search with faceted filtering
-    public Page<Product> searchWithFacets(String query, 
-                                         String vendorId, 
-                                         String categoryId, 
-                                         String inventoryStatus,
-                                         BigDecimal minPrice, 
-                                         BigDecimal maxPrice,
-                                         int page, 
-                                         int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("name"));
-        return catalogRepository.findByAdvancedSearch(query, vendorId, categoryId, inventoryStatus, minPrice, maxPrice, pageable);
+    // Advanced search with faceted filtering: bitmap intersections in memory, then a primary-key lookup of the page
+    public Page<ProductSummary> searchWithFacets(ProductFilter filter, int page, int size) {
+        PageRequest pageable = PageRequest.of(page, size);
+        ProductFilter effective = filter != null ? filter : new ProductFilter();
+        String key = "faceted|" + effective.cacheKey() + "|" + page + "|" + size;
+        return cachedPage(key, pageable, () -> {
+            if (productFilterIndex.canServe(effective)) {
+                ProductFilterIndex.Hits hits = productFilterIndex.search(effective, pageable.getOffset(), size);
+                return new SearchResultCache.CachedPage(hits.getProductIds(), hits.getTotal());
+            }
+            return SearchResultCache.CachedPage.of(
+                    productSummaryRepository.findPublished(effective, pageable));
+        });
+    }
+    
+    // Faceted search with hasNext from one extra hit; bitmap totals are exact for free, SQL totals follow countMode
+    public SlicePage<ProductSummary> searchWithFacets(ProductFilter filter, int page, int size, CountMode countMode) {
+        checkPage(page, size);
+        long offset = (long) page * size;
+        ProductFilter effective = filter != null ? filter : new ProductFilter();
+        String key = "faceted|" + effective.cacheKey() + "|" + page + "|" + size + "|" + countMode;
+        return cachedSlice(key, page, size, () -> {
+            if (productFilterIndex.canServe(effective)) {
+                ProductFilterIndex.Hits hits = productFilterIndex.search(effective, offset, size + 1);
+                return slice(hits.getProductIds(), size, hits.getTotal(), true);
+            }
+            return sqlSlice(productSummaryRepository.findPublished(effective, offset, size + 1), offset, size, countMode,
+                    Long.MAX_VALUE, () -> productSummaryRepository.countPublished(effective),
+                    () -> productSummaryRepository.estimatePublished(effective));
+        });
+    }
+    
+    // Cursor-paged faceted search
+    public CursorPage<ProductSummary> searchWithFacets(ProductFilter filter, String cursor, String sort, int size) {
+        ProductCursor after = decodeCursor(cursor);
+        ProductSort productSort = after != null ? after.getSort() : ProductSort.from(sort, ProductSort.NAME);
+        if (productSort == ProductSort.RELEVANCE) {
+            throw new IllegalArgumentException("Relevance sort is only supported by full-text search");
+        }
+        return seekPage(filter, after, productSort, size);
+    }
+    
+    private ProductCursor decodeCursor(String cursor) {
+        return cursor == null || cursor.isBlank() ? null : ProductCursor.decode(cursor);
+    }
+    
+    private CursorPage<ProductSummary> seekPage(ProductFilter filter, ProductCursor after, ProductSort sort, int size) {
+        int pageSize = Math.max(1, size);
+        // Read one row past the page to learn whether another page exists
+        List<ProductSummary> rows = productKeysetRepository.findPublishedPage(filter, sort, after, pageSize + 1);
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+            nextCursor = ProductKeysetRepository.cursorFor(rows.get(pageSize - 1), sort).encode();
+        }
+        return new CursorPage<>(rows, nextCursor, pageSize, sort);
+    }
+    
+    // Relevance pages are read from the rank snapshot the first page pinned, see ProductSearchIndex.searchPinned;
+    // the attribute filters, written back as expressions, key the snapshot together with the query
+    private CursorPage<ProductSummary> relevancePage(String query, List<AttributeFilter> attributes, ProductCursor after,
+                                                     int size) {
+        int pageSize = Math.max(1, size);
+        Predicate<String> filter = attributePredicate(attributes);
+        String filterKey = attributes.toString();
+        ProductSearchIndex.SearchResult result = after == null
+                ? productSearchIndex.searchPinned(query, 0, 0, Double.NaN, null, pageSize + 1, filter, filterKey)
+                : productSearchIndex.searchPinned(query, after.getSnapshotKey(), after.getPositionKey(),
+                        after.getScoreKey(), after.getId(), pageSize + 1, filter, filterKey);
+        List<String> ids = result.getProductIds();
+        String nextCursor = null;
+        if (ids.size() > pageSize) {
+            ids = ids.subList(0, pageSize);
+            nextCursor = ProductCursor.relevance(result.getScores().get(pageSize - 1), result.getSnapshot(),
+                    result.getPosition() + pageSize, ids.get(pageSize - 1)).encode();
+        }
+        return new CursorPage<>(loadInOrder(ids), nextCursor, pageSize, ProductSort.RELEVANCE);
+    }
+    
+    // Facet counts (category, vendor, inventory status, price bucket) for the given filters
+    public FacetCounts getFacets(ProductFilter filter) {
+        return facetService.getFacets(filter);
     }
     
     // Method to get available categories for faceted search
     public List<String> getAvailableCategories() {
-        // This would typically come from a category service, but for now returning a sample list
-        // In a real implementation, you would query the database for distinct categories
-        return Arrays.asList("Electronics", "Automotive", "Home & Garden", "Industrial", "Health & Beauty", "Sports");
+        return facetService.getFacets(null).getCategories().stream()
+                .map(FacetValue::getValue)
+                .collect(Collectors.toList());
     }
     
     // Method to get available vendors for faceted search
     public List<String> getAvailableVendors() {
-        // In a real implementation, you would query the database for distinct vendors
-        return Arrays.asList("Vendor A", "Vendor B", "Vendor C", "Vendor D");
+        return facetService.getFacets(null).getVendors().stream()
+                .map(FacetValue::getLabel)
+                .collect(Collectors.toList());
+    }
+    
+    // Bulk status and stock lookup by product ids and/or SKUs
+    public AvailabilityResponse checkAvailability(List<String> ids, List<String> skus) {
+        return availabilityService.lookup(ids, skus);
     }
     
     // Method to check product availability
     public boolean isProductAvailable(String productId) {
-        Optional<Product> productOpt = catalogRepository.findById(productId);
-        if (productOpt.isPresent()) {
-            Product product = productOpt.get();
-            return product.getStatus() == Product.ProductStatus.PUBLISHED && 
-                   product.getInventoryStatus() == Product.InventoryStatus.IN_STOCK;
-        }
-        return false;
+        return availabilityService.lookup(List.of(productId), List.of()).getProducts().stream()
+                .anyMatch(ProductAvailability::isAvailable);
     }
 }
\ No newline at end of file
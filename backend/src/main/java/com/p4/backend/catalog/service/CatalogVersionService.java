@@ -0,0 +1,184 @@
+package com.p4.backend.catalog.service;
+
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.search.index.CatalogIndexRebuilder;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks a catalog generation so caches and conditional GETs can be answered from memory.
+ * Every product mutation bumps the local generation and appends a row tagged with this node to the
+ * {@code catalog_change} log. Nodes poll the log for rows written by other nodes and, when they find any, rebuild
+ * their in-memory indexes and then invalidate their caches, so no ETag is handed out for a catalog the indexes
+ * have not seen yet; their own rows are skipped. Catalog ETags are the latest log id a node has seen and
+ * product ETags come from the product's stored {@code updated_at}, so nodes behind a load balancer agree.
+ */
+@Service
+public class CatalogVersionService implements CatalogChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogVersionService.class);
+
+    private static final String RECORD_SQL = "INSERT INTO catalog_change (node_id) VALUES (?) RETURNING id";
+
+    private static final String POLL_SQL = "SELECT max(id) AS head, max(id) FILTER (WHERE node_id <> ?) AS external_head " +
+        "FROM catalog_change WHERE id > ?";
+
+    // Keeps the latest row, so the head id survives pruning
+    private static final String PRUNE_SQL = "DELETE FROM catalog_change WHERE changed_at < ? " +
+        "AND id < (SELECT max(id) FROM catalog_change)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CatalogIndexRebuilder catalogIndexRebuilder;
+
+    @Value("${catalog.version.retention-ms:3600000}")
+    private long retentionMs = 3600000;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong generation = new AtomicLong();
+    // Latest catalog_change id this node has written or seen
+    private final AtomicLong head = new AtomicLong();
+    // Latest id the poll has read up to; local writes do not move it, so a row of another node that commits
+    // after a newer local row is still found
+    private volatile long polledUpTo;
+    // Set when a local write could not be logged: other nodes cannot know it, so the catalog ETag becomes
+    // node-specific until the next write is logged
+    private volatile long unloggedGeneration;
+
+    private volatile boolean polled;
+
+    // Writes are notified after their transaction committed; the log row gets a transaction of its own
+    private TransactionTemplate logTransaction;
+
+    @PostConstruct
+    public void init() {
+        logTransaction = new TransactionTemplate(transactionManager);
+        logTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * ETag for any representation derived from the catalog as a whole (lists, searches, facets)
+     */
+    public String catalogETag() {
+        long unlogged = unloggedGeneration;
+        return unlogged == 0
+                ? "\"c-" + head.get() + "\""
+                : "\"c-" + head.get() + "-" + nodeId + "-" + unlogged + "\"";
+    }
+
+    /**
+     * ETag for a single product's representation, from its stored last modification time
+     */
+    public String productETag(Product product) {
+        LocalDateTime updatedAt = product.getUpdatedAt();
+        long micros = updatedAt != null
+                ? updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + updatedAt.getNano() / 1000 : 0;
+        return "\"p-" + product.getId() + "-" + Long.toString(micros, 36) + "\"";
+    }
+
+    @Override
+    public void onProductsSaved(List<Product> products) {
+        generation.incrementAndGet();
+        record();
+    }
+
+    @Override
+    public void onProductsDeleted(List<Product> products) {
+        generation.incrementAndGet();
+        record();
+    }
+
+    /**
+     * Invalidates every catalog ETag and publishes a {@link CatalogInvalidatedEvent}, for bulk changes that do
+     * not go through the listeners; the change is logged so other nodes invalidate as well
+     */
+    public void markAllChanged() {
+        invalidate();
+        record();
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.version.poll-ms:15000}")
+    public void pollExternalWrites() {
+        Map<String, Object> row;
+        try {
+            row = jdbcTemplate.queryForMap(POLL_SQL, nodeId, polledUpTo);
+        } catch (Exception e) {
+            // Writes of other nodes stay unseen until the next poll; the cache TTLs bound the staleness
+            logger.warn("Could not read the catalog change log: {}", e.getMessage());
+            return;
+        }
+        Number latest = (Number) row.get("head");
+        Number external = (Number) row.get("external_head");
+        // Rows written before this node started describe writes its caches were built after
+        if (external != null && polled) {
+            // Other nodes' writes reach the indexes only through a rebuild; swap it in before the ETag moves
+            catalogIndexRebuilder.rebuild();
+            invalidate();
+        }
+        if (latest != null) {
+            polledUpTo = latest.longValue();
+            head.accumulateAndGet(latest.longValue(), Math::max);
+        }
+        polled = true;
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.version.retention-ms:3600000}",
+               initialDelayString = "${catalog.version.retention-ms:3600000}")
+    public void pruneChangeLog() {
+        try {
+            int pruned = jdbcTemplate.update(PRUNE_SQL,
+                    Timestamp.valueOf(LocalDateTime.now().minusNanos(retentionMs * 1_000_000)));
+            logger.debug("Pruned {} catalog change log rows", pruned);
+        } catch (Exception e) {
+            logger.warn("Could not prune the catalog change log: {}", e.getMessage());
+        }
+    }
+
+    private void invalidate() {
+        eventPublisher.publishEvent(new CatalogInvalidatedEvent());
+        generation.incrementAndGet();
+    }
+
+    private void record() {
+        try {
+            Long id = logTransaction.execute(status -> jdbcTemplate.queryForObject(RECORD_SQL, Long.class, nodeId));
+            if (id != null) {
+                head.accumulateAndGet(id, Math::max);
+            }
+            unloggedGeneration = 0;
+        } catch (Exception e) {
+            unloggedGeneration = generation.get();
+            logger.warn("Could not log a catalog change for other nodes: {}", e.getMessage());
+        }
+    }
+}
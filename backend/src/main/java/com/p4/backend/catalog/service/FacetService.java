@@ -0,0 +1,278 @@
+package com.p4.backend.catalog.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.p4.backend.catalog.dto.FacetCounts;
+import com.p4.backend.catalog.dto.FacetValue;
+import com.p4.backend.catalog.dto.ProductFilter;
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.catalog.entity.Vendor;
+import com.p4.backend.catalog.repository.ProductFacetRepository;
+import com.p4.backend.catalog.repository.VendorRepository;
+import com.p4.backend.search.index.ProductFilterIndex;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Computes facet counts for a query and filter combination and caches them.
+ * Every cache entry belongs to a scope (its vendor filter, else its category filter, else the whole catalog)
+ * and is stamped with that scope's generation. A product write bumps only the generations of the scopes the
+ * product is in (before and after the write), so e.g. cached facets of other vendors stay valid.
+ * A TTL bounds staleness for writes this node does not see, and for moves of a product whose earlier scopes
+ * were evicted from the bounded record of last-seen scopes.
+ */
+@Service
+public class FacetService implements CatalogChangeListener {
+
+    private static final String GLOBAL_SCOPE = "all";
+
+    @Autowired
+    private ProductFacetRepository productFacetRepository;
+
+    @Autowired
+    private VendorRepository vendorRepository;
+
+    @Autowired
+    private ProductFilterIndex productFilterIndex;
+
+    @Value("${catalog.facets.cache.max-entries:1000}")
+    private int maxEntries = 1000;
+
+    @Value("${catalog.facets.cache.ttl-ms:600000}")
+    private long ttlMs = 600000;
+
+    @Value("${catalog.facets.last-seen.max-entries:100000}")
+    private long lastSeenMaxEntries = 100000;
+
+    private final Map<String, CachedFacets> cache = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    // Scopes each product was last seen in, so an update also invalidates the scopes it moved out of.
+    // Bounded: a product evicted from here only bumps its current scopes on its next write
+    private Cache<String, ProductScopes> lastSeen;
+
+    @PostConstruct
+    public void init() {
+        lastSeen = Caffeine.newBuilder()
+                .maximumSize(lastSeenMaxEntries)
+                .build();
+    }
+
+    public FacetCounts getFacets(ProductFilter filter) {
+        ProductFilter effective = filter != null ? filter : new ProductFilter();
+        String key = effective.cacheKey();
+        String scope = scopeOf(effective);
+        long generation = generation(scope);
+
+        CachedFacets cached = cache.get(key);
+        if (cached != null && cached.generation == generation
+                && System.currentTimeMillis() - cached.computedAt < ttlMs) {
+            return cached.facets;
+        }
+
+        // The generation was read before querying, so a write racing with the query leaves this entry stale
+        FacetCounts facets = compute(effective, generation);
+        if (cache.size() >= maxEntries) {
+            evictOldest();
+        }
+        cache.put(key, new CachedFacets(facets, generation, System.currentTimeMillis()));
+        return facets;
+    }
+
+    @Override
+    public void onProductsSaved(List<Product> products) {
+        Set<String> scopes = new LinkedHashSet<>();
+        for (Product product : products) {
+            ProductScopes current = ProductScopes.of(product);
+            ProductScopes previous = lastSeen.asMap().put(product.getId(), current);
+            collectAffectedScopes(scopes, previous, current);
+        }
+        bump(scopes);
+    }
+
+    @Override
+    public void onProductsDeleted(List<Product> products) {
+        Set<String> scopes = new LinkedHashSet<>();
+        for (Product product : products) {
+            ProductScopes previous = lastSeen.asMap().remove(product.getId());
+            collectAffectedScopes(scopes, previous != null ? previous : ProductScopes.of(product), null);
+        }
+        bump(scopes);
+    }
+
+    /**
+     * Drops every cached entry, e.g. after a bulk change that bypassed the change listeners
+     */
+    @EventListener(CatalogInvalidatedEvent.class)
+    public void invalidateAll() {
+        generations.values().forEach(AtomicLong::incrementAndGet);
+        cache.clear();
+    }
+
+    private void collectAffectedScopes(Set<String> scopes, ProductScopes previous, ProductScopes current) {
+        // Draft edits of a product that was never published do not change any count
+        if (previous != null && !previous.published && current != null && !current.published) {
+            return;
+        }
+        scopes.add(GLOBAL_SCOPE);
+        if (previous != null) {
+            previous.addTo(scopes);
+        }
+        if (current != null) {
+            current.addTo(scopes);
+        }
+    }
+
+    private void bump(Set<String> scopes) {
+        for (String scope : scopes) {
+            generations.computeIfAbsent(scope, s -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    private long generation(String scope) {
+        return generations.computeIfAbsent(scope, s -> new AtomicLong()).get();
+    }
+
+    private FacetCounts compute(ProductFilter filter, long generation) {
+        // Bitmap counts once the filter index is built, one GROUPING SETS scan until then
+        ProductFacetRepository.FacetRows rows = productFilterIndex.canServe(filter)
+                ? productFilterIndex.aggregate(filter)
+                : productFacetRepository.aggregate(filter);
+
+        List<FacetValue> categories = new ArrayList<>();
+        rows.getCategories().forEach((category, count) -> {
+            if (category != null) {
+                categories.add(new FacetValue(category, category, count));
+            }
+        });
+
+        Map<String, String> vendorNames = new HashMap<>();
+        List<String> vendorIds = new ArrayList<>(rows.getVendors().keySet());
+        vendorIds.remove(null);
+        for (Vendor vendor : vendorRepository.findAllById(vendorIds)) {
+            vendorNames.put(vendor.getId(), vendor.getName());
+        }
+        List<FacetValue> vendors = new ArrayList<>();
+        rows.getVendors().forEach((vendorId, count) -> {
+            if (vendorId != null) {
+                vendors.add(new FacetValue(vendorId, vendorNames.getOrDefault(vendorId, vendorId), count));
+            }
+        });
+
+        List<FacetValue> inventoryStatuses = new ArrayList<>();
+        rows.getInventoryStatuses().forEach((status, count) -> {
+            if (status != null) {
+                inventoryStatuses.add(new FacetValue(status, status, count));
+            }
+        });
+
+        List<FacetValue> priceBuckets = new ArrayList<>();
+        rows.getPriceBuckets().forEach((bucket, count) -> {
+            if (bucket != null) {
+                priceBuckets.add(priceBucket(bucket, count));
+            }
+        });
+        priceBuckets.sort(Comparator.comparingInt(v -> bucketIndex(v.getValue())));
+
+        Comparator<FacetValue> byCount = Comparator.comparingLong(FacetValue::getCount).reversed();
+        categories.sort(byCount);
+        vendors.sort(byCount);
+        inventoryStatuses.sort(byCount);
+        return new FacetCounts(categories, vendors, inventoryStatuses, priceBuckets, generation);
+    }
+
+    private static FacetValue priceBucket(int bucket, long count) {
+        int[] bounds = ProductFacetRepository.PRICE_BOUNDS;
+        int min = bucket == 0 ? 0 : bounds[bucket - 1];
+        if (bucket >= bounds.length) {
+            return new FacetValue(min + "-", min + "+", count);
+        }
+        return new FacetValue(min + "-" + bounds[bucket], min + " - " + bounds[bucket], count);
+    }
+
+    private static int bucketIndex(String value) {
+        int min = Integer.parseInt(value.substring(0, value.indexOf('-')));
+        int[] bounds = ProductFacetRepository.PRICE_BOUNDS;
+        for (int i = 0; i < bounds.length; i++) {
+            if (min < bounds[i]) {
+                return i;
+            }
+        }
+        return bounds.length;
+    }
+
+    private static String scopeOf(ProductFilter filter) {
+        if (filter.getVendorId() != null) {
+            return "vendor:" + filter.getVendorId();
+        }
+        if (filter.getCategoryId() != null) {
+            return "category:" + filter.getCategoryId();
+        }
+        return GLOBAL_SCOPE;
+    }
+
+    private void evictOldest() {
+        String oldestKey = null;
+        long oldest = Long.MAX_VALUE;
+        for (Map.Entry<String, CachedFacets> entry : cache.entrySet()) {
+            if (entry.getValue().computedAt < oldest) {
+                oldest = entry.getValue().computedAt;
+                oldestKey = entry.getKey();
+            }
+        }
+        if (oldestKey != null) {
+            cache.remove(oldestKey);
+        }
+    }
+
+    private static final class CachedFacets {
+        private final FacetCounts facets;
+        private final long generation;
+        private final long computedAt;
+
+        private CachedFacets(FacetCounts facets, long generation, long computedAt) {
+            this.facets = facets;
+            this.generation = generation;
+            this.computedAt = computedAt;
+        }
+    }
+
+    private static final class ProductScopes {
+        private final String vendorId;
+        private final String categoryId;
+        private final boolean published;
+
+        private ProductScopes(String vendorId, String categoryId, boolean published) {
+            this.vendorId = vendorId;
+            this.categoryId = categoryId;
+            this.published = published;
+        }
+
+        private static ProductScopes of(Product product) {
+            return new ProductScopes(product.getVendorId(), product.getCategoryId(),
+                                     product.getStatus() == Product.ProductStatus.PUBLISHED);
+        }
+
+        private void addTo(Set<String> scopes) {
+            if (vendorId != null) {
+                scopes.add("vendor:" + vendorId);
+            }
+            if (categoryId != null) {
+                scopes.add("category:" + categoryId);
+            }
+        }
+    }
+}
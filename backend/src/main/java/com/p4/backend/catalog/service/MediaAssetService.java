@@ -1,11 +1,19 @@
 package com.p4.backend.catalog.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.p4.backend.catalog.entity.MediaAsset;
 import com.p4.backend.catalog.repository.MediaAssetRepository;  // We'll create this repository next
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
@@ -18,11 +26,29 @@ import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.time.Duration;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class MediaAssetService {
@@ -46,11 +72,25 @@ public class MediaAssetService {
         "text/plain", "application/zip"
     );
     
+    // Raster formats the JDK can decode; WebP and SVG originals are served as uploaded
+    private static final List<String> VARIANT_SOURCE_TYPES = Arrays.asList(
+        "image/jpeg", "image/jpg", "image/png", "image/gif"
+    );
+    
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
     
     @Autowired
     private MediaAssetRepository mediaAssetRepository;
     
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
     @Value("${b2.account.id}")
     private String accessKeyId;
     
@@ -66,13 +106,73 @@ public class MediaAssetService {
     @Value("${b2.endpoint.url}")
     private String endpoint;
     
+    @Value("${catalog.media.upload.part-size:5242880}")
+    private int uploadPartSize = 5 * 1024 * 1024;
+    
+    @Value("${catalog.media.upload.parallelism:4}")
+    private int uploadParallelism = 4;
+    
+    @Value("${catalog.media.upload.threads:8}")
+    private int uploadThreads = 8;
+    
+    @Value("${catalog.media.presign.max-entries:50000}")
+    private long presignMaxEntries = 50000;
+    
+    @Value("${catalog.media.presign.min-remaining-ms:600000}")
+    private long presignMinRemainingMs = 600000;
+    
     private S3Client s3Client;
     private S3Presigner s3Presigner;
     
+    // Signed URLs keyed by asset id, variant and lifetime in seconds
+    private Cache<String, String> presignedUrls;
+    
+    // Sends multipart upload parts; each upload limits its own parts in flight to uploadParallelism
+    private ExecutorService uploadExecutor;
+    
     public MediaAssetService() {
         // Initialize S3 client with Backblaze B2-specific configuration
     }
     
+    @PostConstruct
+    public void init() {
+        // Each URL is reused until it has presignMinRemainingMs of validity left; the lifetime is in the key
+        presignedUrls = Caffeine.newBuilder()
+                .maximumSize(presignMaxEntries)
+                .expireAfter(new Expiry<String, String>() {
+                    @Override
+                    public long expireAfterCreate(String key, String url, long currentTime) {
+                        long lifetimeMs = Long.parseLong(key.substring(key.lastIndexOf('|') + 1)) * 1000;
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, lifetimeMs - presignMinRemainingMs));
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String key, String url, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, url, currentTime);
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String key, String url, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, presignedUrls, "presignedUrls");
+        
+        AtomicInteger counter = new AtomicInteger();
+        uploadExecutor = Executors.newFixedThreadPool(uploadThreads, runnable -> {
+            Thread thread = new Thread(runnable, "media-upload-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
+    }
+    
     private void initializeS3Clients() {
         if (s3Client == null) {
             AwsBasicCredentials awsCredentials = AwsBasicCredentials.create(accessKeyId, secretAccessKey);
@@ -92,7 +192,9 @@ public class MediaAssetService {
     }
     
     /**
-     * Uploads a media file to Backblaze B2 storage
+     * Uploads a media file to Backblaze B2 storage.
+     * The file is hashed (SHA-256) and streamed to storage without being buffered in heap. Content already
+     * stored under the same hash is not uploaded again: the new asset points at the existing object and variants.
      */
     public MediaAsset uploadMedia(MultipartFile file) throws IOException {
         // Validate file
@@ -101,36 +203,47 @@ public class MediaAssetService {
         // Initialize S3 clients if not already done
         initializeS3Clients();
         
-        // Generate unique file name
+        // Content-addressed key: identical files map to one object, whoever uploads them
         String originalFileName = file.getOriginalFilename();
-        String fileExtension = originalFileName.substring(originalFileName.lastIndexOf("."));
-        String uniqueFileName = UUID.randomUUID().toString() + fileExtension;
-        String filePath = "media/" + uniqueFileName;  // Organize by media prefix
+        String fileExtension = originalFileName != null && originalFileName.contains(".")
+                ? originalFileName.substring(originalFileName.lastIndexOf(".")).toLowerCase()
+                : "";
+        String contentHash = sha256(file);
+        Optional<MediaAsset> duplicate = mediaAssetRepository.findFirstByContentHash(contentHash);
+        String filePath = duplicate.map(MediaAsset::getFilePath).orElse("media/" + contentHash + fileExtension);
         
         try {
-            // Upload to Backblaze B2
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(filePath)
-                    .contentType(file.getContentType())
-                    .contentLength(file.getSize())
-                    .build();
-            
-            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(file.getBytes()));
+            if (duplicate.isEmpty()) {
+                // Upload to Backblaze B2
+                storeStreaming(file, filePath);
+            }
             
             // Create media asset entity
             MediaAsset mediaAsset = new MediaAsset(
                     originalFileName != null ? originalFileName : "unnamed_file",
-                    originalFileName,
+                    originalFileName != null ? originalFileName : "unnamed_file",
                     filePath,
                     determineMediaType(file.getContentType())
             );
             
             mediaAsset.setFileSize(file.getSize());
             mediaAsset.setMimeType(file.getContentType());
+            mediaAsset.setContentHash(contentHash);
+            if (duplicate.isPresent() && duplicate.get().getVariantStatus() == MediaAsset.VariantStatus.READY) {
+                for (MediaAsset.Variant variant : MediaAsset.Variant.values()) {
+                    mediaAsset.setVariantPath(variant, duplicate.get().getVariantPath(variant));
+                }
+                mediaAsset.setVariantStatus(MediaAsset.VariantStatus.READY);
+            } else if (hasVariants(file.getContentType())) {
+                mediaAsset.setVariantStatus(MediaAsset.VariantStatus.PENDING);
+            }
             
-            // Save to database
-            return mediaAssetRepository.save(mediaAsset);
+            // Save to database; resized variants are generated in the background afterwards
+            MediaAsset saved = mediaAssetRepository.save(mediaAsset);
+            if (saved.getVariantStatus() == MediaAsset.VariantStatus.PENDING) {
+                eventPublisher.publishEvent(new MediaAssetUploadedEvent(saved.getId()));
+            }
+            return saved;
             
         } catch (S3Exception e) {
             logger.error("Error uploading file to Backblaze B2: {}", e.getMessage());
@@ -138,26 +251,219 @@ public class MediaAssetService {
         }
     }
     
+    /**
+     * Hex SHA-256 of the file, read as a stream
+     */
+    private static String sha256(MultipartFile file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    /**
+     * Streams the file to storage: a single PUT up to one part, otherwise a multipart upload whose parts
+     * are sent in parallel. At most uploadParallelism parts of one upload are held in memory at a time.
+     */
+    private void storeStreaming(MultipartFile file, String key) throws IOException {
+        if (file.getSize() <= uploadPartSize) {
+            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .contentType(file.getContentType())
+                    .contentLength(file.getSize())
+                    .build();
+            
+            try (InputStream in = file.getInputStream()) {
+                s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(in, file.getSize()));
+            }
+            return;
+        }
+        
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(file.getContentType())
+                .build()).uploadId();
+        try (InputStream in = file.getInputStream()) {
+            Semaphore permits = new Semaphore(uploadParallelism);
+            List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+            byte[] chunk;
+            while ((chunk = in.readNBytes(uploadPartSize)).length > 0) {
+                permits.acquire();
+                int partNumber = parts.size() + 1;
+                byte[] body = chunk;
+                parts.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        UploadPartRequest uploadPartRequest = UploadPartRequest.builder()
+                                .bucket(bucketName)
+                                .key(key)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength((long) body.length)
+                                .build();
+                        String eTag = s3Client.uploadPart(uploadPartRequest, RequestBody.fromBytes(body)).eTag();
+                        return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+                    } finally {
+                        permits.release();
+                    }
+                }, uploadExecutor));
+            }
+            
+            List<CompletedPart> completed = new ArrayList<>(parts.size());
+            for (CompletableFuture<CompletedPart> part : parts) {
+                completed.add(part.join());
+            }
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completed).build())
+                    .build());
+        } catch (InterruptedException e) {
+            abortMultipartUpload(key, uploadId);
+            Thread.currentThread().interrupt();
+            throw new IOException("Upload interrupted", e);
+        } catch (IOException | RuntimeException e) {
+            abortMultipartUpload(key, uploadId);
+            if (e instanceof CompletionException && e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    private void abortMultipartUpload(String key, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (S3Exception e) {
+            logger.warn("Error aborting multipart upload of {}: {}", key, e.getMessage());
+        }
+    }
+    
     /**
      * Generates a presigned URL for downloading a media file
      */
     public String generatePresignedUrl(String mediaAssetId, Duration duration) {
-        MediaAsset mediaAsset = mediaAssetRepository.findById(mediaAssetId)
-                .orElseThrow(() -> new RuntimeException("Media asset not found: " + mediaAssetId));
+        return generatePresignedUrl(mediaAssetId, null, duration);
+    }
+    
+    /**
+     * Generates a presigned URL for a resized variant of an image, falling back to the original
+     * while the variant has not been generated (or when no variant is asked for).
+     * Signed URLs are reused from the cache while they stay valid for at least presignMinRemainingMs.
+     */
+    public String generatePresignedUrl(String mediaAssetId, MediaAsset.Variant variant, Duration duration) {
+        long seconds = presignSeconds(duration);
+        String cached = presignedUrls.getIfPresent(presignKey(mediaAssetId, variant, seconds));
+        if (cached != null) {
+            return cached;
+        }
+        return presign(getMediaAsset(mediaAssetId), variant, seconds);
+    }
+    
+    /**
+     * Presigned URLs for many assets at once, in request order; ids that do not resolve are left out.
+     * Assets not served from the URL cache are loaded together in one query.
+     */
+    public Map<String, String> generatePresignedUrls(List<String> mediaAssetIds, MediaAsset.Variant variant, Duration duration) {
+        long seconds = presignSeconds(duration);
+        Map<String, String> urls = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(mediaAssetIds)) {
+            String cached = presignedUrls.getIfPresent(presignKey(id, variant, seconds));
+            urls.put(id, cached);
+            if (cached == null) {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (MediaAsset mediaAsset : mediaAssetRepository.findAllById(misses)) {
+                urls.put(mediaAsset.getId(), presign(mediaAsset, variant, seconds));
+            }
+        }
+        urls.values().removeIf(Objects::isNull);
+        return urls;
+    }
+    
+    private String presign(MediaAsset mediaAsset, MediaAsset.Variant variant, long seconds) {
+        boolean fallback = variant != null && mediaAsset.getVariantPath(variant) == null;
+        String key = fallback || variant == null ? mediaAsset.getFilePath() : mediaAsset.getVariantPath(variant);
         
         initializeS3Clients();
         
         GetObjectRequest getObjectRequest = GetObjectRequest.builder()
                 .bucket(bucketName)
-                .key(mediaAsset.getFilePath())
+                .key(key)
                 .build();
         
         GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                .signatureDuration(duration)
+                .signatureDuration(Duration.ofSeconds(seconds))
                 .getObjectRequest(getObjectRequest)
                 .build();
         
-        return s3Presigner.presignGetObject(presignRequest).url().toString();
+        String url = s3Presigner.presignGetObject(presignRequest).url().toString();
+        // A fallback to the original is not cached, so the variant is handed out as soon as it exists
+        if (!fallback) {
+            presignedUrls.put(presignKey(mediaAsset.getId(), variant, seconds), url);
+        }
+        return url;
+    }
+    
+    // Durations are bucketed to whole minutes, so callers asking for nearly the same lifetime share entries
+    private static long presignSeconds(Duration duration) {
+        return Math.max(1, (duration.getSeconds() + 59) / 60) * 60;
+    }
+    
+    private static String presignKey(String mediaAssetId, MediaAsset.Variant variant, long seconds) {
+        return mediaAssetId + "|" + (variant != null ? variant.name() : "ORIGINAL") + "|" + seconds;
+    }
+    
+    /**
+     * Reads a stored object in full
+     */
+    public byte[] readObject(String key) {
+        initializeS3Clients();
+        
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build();
+        
+        return s3Client.getObjectAsBytes(getObjectRequest).asByteArray();
+    }
+    
+    /**
+     * Stores generated content (such as an image variant) under the given key
+     */
+    public void putObject(String key, byte[] content, String contentType) {
+        initializeS3Clients();
+        
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .contentLength((long) content.length)
+                .build();
+        
+        s3Client.putObject(putObjectRequest, RequestBody.fromBytes(content));
+    }
+    
+    /**
+     * Whether resized variants are generated for this MIME type: raster images ImageIO can decode
+     */
+    public static boolean hasVariants(String mimeType) {
+        return mimeType != null && VARIANT_SOURCE_TYPES.contains(mimeType.toLowerCase());
     }
     
     /**
@@ -197,7 +503,7 @@ public class MediaAssetService {
      * Gets a media asset by ID
      */
     public MediaAsset getMediaAsset(String id) {
-        return mediaAssetRepository.findById(id)
+        return catalogCache.findMediaAsset(id)
                 .orElseThrow(() -> new RuntimeException("Media asset not found: " + id));
     }
     
@@ -211,16 +517,26 @@ public class MediaAssetService {
         initializeS3Clients();
         
         try {
-            // Delete from Backblaze B2 storage
-            DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(mediaAsset.getFilePath())
-                    .build();
-            
-            s3Client.deleteObject(deleteObjectRequest);
+            // Delete from Backblaze B2 storage, unless other assets share the same (deduplicated) content
+            if (mediaAssetRepository.countByFilePath(mediaAsset.getFilePath()) <= 1) {
+                DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(mediaAsset.getFilePath())
+                        .build();
+                
+                s3Client.deleteObject(deleteObjectRequest);
+                for (MediaAsset.Variant variant : MediaAsset.Variant.values()) {
+                    String variantPath = mediaAsset.getVariantPath(variant);
+                    if (variantPath != null) {
+                        s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucketName).key(variantPath).build());
+                    }
+                }
+            }
             
             // Delete from database
             mediaAssetRepository.deleteById(id);
+            catalogCache.evictMediaAsset(id);
+            presignedUrls.asMap().keySet().removeIf(key -> key.startsWith(id + "|"));
             
         } catch (S3Exception e) {
             logger.error("Error deleting file from Backblaze B2: {}", e.getMessage());
@@ -0,0 +1,14 @@
+package com.p4.backend.catalog.service;
+
+/**
+ * Published after an uploaded file has been stored and its {@code MediaAsset} saved.
+ */
+public class MediaAssetUploadedEvent {
+    private final String mediaAssetId;
+
+    public MediaAssetUploadedEvent(String mediaAssetId) {
+        this.mediaAssetId = mediaAssetId;
+    }
+
+    public String getMediaAssetId() { return mediaAssetId; }
+}
@@ -0,0 +1,152 @@
+package com.p4.backend.catalog.service;
+
+import com.p4.backend.catalog.entity.MediaAsset;
+import com.p4.backend.catalog.repository.MediaAssetRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the resized variants ({@link MediaAsset.Variant}) of uploaded images off the request thread.
+ * Work runs on a fixed pool with a bounded queue, so bursts of uploads cannot pile up decoded images in memory;
+ * an upload that finds the queue full stays PENDING and is picked up by the periodic sweep, which also covers
+ * restarts mid-run and storage errors. Variants are stored as JPEG next to the original and their keys recorded
+ * on the asset.
+ */
+@Service
+public class MediaVariantService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MediaVariantService.class);
+    
+    private static final float JPEG_QUALITY = 0.82f;
+    
+    @Autowired
+    private MediaAssetService mediaAssetService;
+    
+    @Autowired
+    private MediaAssetRepository mediaAssetRepository;
+    
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Value("${catalog.media.variants.threads:2}")
+    private int threads = 2;
+    
+    @Value("${catalog.media.variants.queue-capacity:100}")
+    private int queueCapacity = 100;
+    
+    private ThreadPoolExecutor executor;
+    
+    // Assets queued or being processed, so the sweep does not queue them twice
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "media-variants-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+    
+    @EventListener
+    public void onMediaAssetUploaded(MediaAssetUploadedEvent event) {
+        submit(event.getMediaAssetId());
+    }
+    
+    @Scheduled(fixedDelayString = "${catalog.media.variants.sweep-ms:300000}",
+            initialDelayString = "${catalog.media.variants.sweep-ms:300000}")
+    public void sweepPending() {
+        for (MediaAsset asset : mediaAssetRepository.findTop100ByVariantStatusOrderByUpdatedAtAsc(MediaAsset.VariantStatus.PENDING)) {
+            if (!submit(asset.getId())) {
+                break;
+            }
+        }
+    }
+    
+    // Queues the asset unless it is already queued; false when the queue is full
+    private boolean submit(String mediaAssetId) {
+        if (!inFlight.add(mediaAssetId)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generateVariants(mediaAssetId);
+                } finally {
+                    inFlight.remove(mediaAssetId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(mediaAssetId);
+            logger.warn("Variant queue full, media asset {} left pending for the next sweep", mediaAssetId);
+            return false;
+        }
+    }
+    
+    private void generateVariants(String mediaAssetId) {
+        MediaAsset asset = mediaAssetRepository.findById(mediaAssetId).orElse(null);
+        if (asset == null || asset.getVariantStatus() != MediaAsset.VariantStatus.PENDING) {
+            return;
+        }
+        try {
+            BufferedImage original = ImageIO.read(new ByteArrayInputStream(mediaAssetService.readObject(asset.getFilePath())));
+            if (original == null) {
+                throw new IOException("No image reader for " + asset.getMimeType());
+            }
+            for (MediaAsset.Variant variant : MediaAsset.Variant.values()) {
+                String key = variantKey(asset.getFilePath(), variant);
+                byte[] jpeg = ImageResizer.encodeJpeg(ImageResizer.fit(original, variant.getMaxEdge()), JPEG_QUALITY);
+                mediaAssetService.putObject(key, jpeg, "image/jpeg");
+                asset.setVariantPath(variant, key);
+            }
+            asset.setVariantStatus(MediaAsset.VariantStatus.READY);
+        } catch (IOException e) {
+            // The original cannot be decoded, so retrying will not help
+            logger.error("Error generating variants for media asset {}: {}", mediaAssetId, e.getMessage());
+            asset.setVariantStatus(MediaAsset.VariantStatus.FAILED);
+        } catch (RuntimeException e) {
+            // Storage errors leave the asset pending; the sweep retries it
+            logger.error("Error storing variants for media asset {}: {}", mediaAssetId, e.getMessage());
+            return;
+        }
+        asset.setUpdatedAt(LocalDateTime.now());
+        mediaAssetRepository.save(asset);
+        catalogCache.evictMediaAsset(mediaAssetId);
+    }
+    
+    // media/<uuid>.png -> media/<uuid>_thumbnail.jpg
+    static String variantKey(String originalPath, MediaAsset.Variant variant) {
+        int dot = originalPath.lastIndexOf('.');
+        String base = dot > originalPath.lastIndexOf('/') ? originalPath.substring(0, dot) : originalPath;
+        return base + "_" + variant.name().toLowerCase() + ".jpg";
+    }
+}
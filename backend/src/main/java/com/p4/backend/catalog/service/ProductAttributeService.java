@@ -0,0 +1,87 @@
+package com.p4.backend.catalog.service;
+
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.catalog.entity.ProductAttribute;
+import com.p4.backend.catalog.entity.ProductAttributeValue;
+import com.p4.backend.catalog.repository.CatalogRepository;
+import com.p4.backend.catalog.repository.ProductAttributeRepository;
+import com.p4.backend.catalog.repository.ProductAttributeValueRepository;
+import com.p4.backend.search.index.ProductAttributeIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads and writes product attribute values (specs such as voltage, material or size).
+ * Every write goes through here so the attribute index follows it once the transaction has committed.
+ * Attribute values are part of what a product matches, so a write is also announced as a save of its product;
+ * that moves catalog ETags and facet generations along with it.
+ */
+@Service
+public class ProductAttributeService {
+
+    @Autowired
+    private CatalogRepository catalogRepository;
+
+    @Autowired
+    private ProductAttributeRepository productAttributeRepository;
+
+    @Autowired
+    private ProductAttributeValueRepository productAttributeValueRepository;
+
+    @Autowired
+    private ProductAttributeIndex productAttributeIndex;
+
+    @Autowired
+    private CatalogChangeNotifier catalogChangeNotifier;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public List<ProductAttribute> getAttributes() {
+        return productAttributeRepository.findAll();
+    }
+
+    public List<ProductAttributeValue> getValues(String productId) {
+        return productAttributeValueRepository.findByProductId(productId);
+    }
+
+    /**
+     * Replaces all attribute values of a product, at most one value per attribute
+     */
+    public List<ProductAttributeValue> replaceValues(String productId, List<ProductAttributeValue> values) {
+        Product product = catalogRepository.findById(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found: " + productId));
+        Set<String> attributeIds = new HashSet<>();
+        for (ProductAttributeValue value : values) {
+            if (value.getAttributeId() == null || !attributeIds.add(value.getAttributeId())) {
+                throw new IllegalArgumentException("Every value needs a distinct attributeId");
+            }
+        }
+        Set<String> known = productAttributeRepository.findAllById(attributeIds).stream()
+                .map(ProductAttribute::getId)
+                .collect(Collectors.toSet());
+        attributeIds.removeAll(known);
+        if (!attributeIds.isEmpty()) {
+            throw new IllegalArgumentException("Unknown attributes: " + attributeIds);
+        }
+
+        List<ProductAttributeValue> saved = transactionTemplate.execute(status -> {
+            productAttributeValueRepository.deleteByProductId(productId);
+            for (ProductAttributeValue value : values) {
+                // Old rows are gone; always insert, never merge into a row named by the client
+                value.setId(null);
+                value.setProductId(productId);
+            }
+            return productAttributeValueRepository.saveAll(values);
+        });
+        productAttributeIndex.index(productId, saved);
+        catalogChangeNotifier.productsSaved(List.of(product));
+        return saved;
+    }
+}
@@ -0,0 +1,282 @@
+package com.p4.backend.catalog.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import com.p4.backend.catalog.dto.PriceInventoryFeedResult;
+import com.p4.backend.catalog.dto.PriceInventoryUpdate;
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.catalog.repository.CatalogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Applies vendor price and inventory feeds by SKU without loading entities: the feed is read as a stream and
+ * every {@code catalog.feed.chunk-size} entries become one {@code UPDATE ... FROM (VALUES ...)} statement.
+ * The products a chunk updated are then reloaded with one query and handed to the change listeners together,
+ * so caches, indexes and ETags follow each chunk in one pass instead of one save at a time.
+ */
+@Service
+public class ProductFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductFeedService.class);
+
+    // Postgres allows 65535 bind parameters per statement, four per entry
+    private static final int MAX_CHUNK_SIZE = 16000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CatalogRepository catalogRepository;
+
+    @Autowired
+    private CatalogChangeNotifier catalogChangeNotifier;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${catalog.feed.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    /**
+     * Applies a CSV feed with a header row naming its sku, base_price, inventory_qty and inventory_status columns
+     * @throws IllegalArgumentException when the feed cannot be read; chunks before the broken line stay applied
+     */
+    public PriceInventoryFeedResult applyCsv(InputStream in) throws IOException {
+        Feed feed = new Feed();
+        try (CSVReader reader = new CSVReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String[] header = reader.readNext();
+            if (header == null) {
+                return feed.result;
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                columns.put(header[i].replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("sku")) {
+                throw new IllegalArgumentException("The feed has no sku column");
+            }
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                feed.accept(column(row, columns, "sku"), column(row, columns, "base_price"),
+                        column(row, columns, "inventory_qty"), column(row, columns, "inventory_status"),
+                        "base_price and inventory_qty must be numbers");
+            }
+        } catch (CsvValidationException e) {
+            throw feed.malformed(e.getMessage(), e);
+        }
+        feed.flush();
+        return feed.result;
+    }
+
+    /**
+     * Applies a JSON feed of objects with sku, basePrice, inventoryQty and inventoryStatus, given as an array
+     * or as one object per line. Fields are converted from their text like CSV columns, so an entry with a value of
+     * the wrong type is rejected on its own
+     * @throws IllegalArgumentException when the feed cannot be parsed; chunks before the broken entry stay applied
+     */
+    public PriceInventoryFeedResult applyJson(InputStream in) throws IOException {
+        Feed feed = new Feed();
+        // Decimals stay exact on their way through the tree
+        ObjectReader entryReader = objectMapper.reader().with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw feed.malformed("expected an object but found " + token, null);
+                }
+                JsonNode entry = entryReader.readTree(parser);
+                feed.accept(field(entry, "sku"), field(entry, "basePrice"), field(entry, "inventoryQty"),
+                        field(entry, "inventoryStatus"), "basePrice and inventoryQty must be numbers");
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            throw feed.malformed(e.getOriginalMessage(), e);
+        }
+        feed.flush();
+        return feed.result;
+    }
+
+    private static String column(String[] row, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= row.length) {
+            return null;
+        }
+        String value = row[index].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Scalars as their text, anything else as its JSON so that it fails conversion instead of passing as empty
+    private static String field(JsonNode entry, String name) {
+        JsonNode value = entry.get(name);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        String text = value.isValueNode() ? value.asText().trim() : value.toString();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static String validate(PriceInventoryUpdate update) {
+        if (update.getSku() == null || update.getSku().isBlank()) {
+            return "sku is required";
+        }
+        if (update.getBasePrice() == null && update.getInventoryQty() == null && update.getInventoryStatus() == null) {
+            return "Nothing to update";
+        }
+        if (update.getBasePrice() != null && update.getBasePrice().signum() < 0) {
+            return "basePrice must not be negative";
+        }
+        if (update.getInventoryQty() != null && update.getInventoryQty() < 0) {
+            return "inventoryQty must not be negative";
+        }
+        if (update.getInventoryStatus() != null) {
+            try {
+                update.setInventoryStatus(Product.InventoryStatus.valueOf(
+                        update.getInventoryStatus().trim().toUpperCase(Locale.ROOT)).name());
+            } catch (IllegalArgumentException e) {
+                return "Unknown inventoryStatus: " + update.getInventoryStatus();
+            }
+        }
+        return null;
+    }
+
+    // COALESCE keeps the stored value for fields the entry leaves out. Clearing import_hash makes the next
+    // delta CSV import rewrite the row, as any other edit made in the application does
+    private static String updateSql(int entries) {
+        StringBuilder sql = new StringBuilder("UPDATE product AS p SET ")
+                .append("base_price = COALESCE(v.base_price, p.base_price), ")
+                .append("inventory_qty = COALESCE(v.inventory_qty, p.inventory_qty), ")
+                .append("inventory_status = COALESCE(v.inventory_status, p.inventory_status), ")
+                .append("updated_at = ?, import_hash = NULL FROM (VALUES ");
+        for (int i = 0; i < entries; i++) {
+            sql.append(i > 0 ? ", " : "")
+                    .append("(?, CAST(? AS numeric), CAST(? AS integer), CAST(? AS varchar))");
+        }
+        return sql.append(") AS v (sku, base_price, inventory_qty, inventory_status) ")
+                .append("WHERE p.sku = v.sku RETURNING p.id, p.sku")
+                .toString();
+    }
+
+    /**
+     * State of one feed being applied: the result so far and the entries of the chunk not yet written
+     */
+    private class Feed {
+        private final PriceInventoryFeedResult result = new PriceInventoryFeedResult();
+        // Keyed by SKU: a later entry for the same SKU overrides the fields it sets
+        private final Map<String, PriceInventoryUpdate> chunk = new LinkedHashMap<>();
+        private final int limit = Math.max(1, Math.min(chunkSize, MAX_CHUNK_SIZE));
+
+        // Converts an entry given as text, rejecting it with numbersError when a number does not parse
+        void accept(String sku, String basePrice, String inventoryQty, String inventoryStatus, String numbersError) {
+            PriceInventoryUpdate update = new PriceInventoryUpdate();
+            update.setSku(sku);
+            try {
+                update.setBasePrice(basePrice != null ? new BigDecimal(basePrice) : null);
+                update.setInventoryQty(inventoryQty != null ? Integer.valueOf(inventoryQty) : null);
+            } catch (NumberFormatException e) {
+                reject(update, numbersError);
+                return;
+            }
+            update.setInventoryStatus(inventoryStatus);
+            accept(update);
+        }
+
+        void accept(PriceInventoryUpdate update) {
+            String error = validate(update);
+            if (error != null) {
+                reject(update, error);
+                return;
+            }
+            result.setReceived(result.getReceived() + 1);
+            update.setSku(update.getSku().trim());
+            chunk.merge(update.getSku(), update, (earlier, later) -> {
+                if (later.getBasePrice() != null) {
+                    earlier.setBasePrice(later.getBasePrice());
+                }
+                if (later.getInventoryQty() != null) {
+                    earlier.setInventoryQty(later.getInventoryQty());
+                }
+                if (later.getInventoryStatus() != null) {
+                    earlier.setInventoryStatus(later.getInventoryStatus());
+                }
+                return earlier;
+            });
+            if (chunk.size() >= limit) {
+                flush();
+            }
+        }
+
+        void reject(PriceInventoryUpdate update, String error) {
+            result.setReceived(result.getReceived() + 1);
+            result.reject(result.getReceived(), update.getSku(), error);
+        }
+
+        IllegalArgumentException malformed(String message, Exception cause) {
+            return new IllegalArgumentException("Malformed feed after entry " + result.getReceived() + ": " + message
+                    + " (" + result.getUpdated() + " products were updated before it)", cause);
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<PriceInventoryUpdate> updates = new ArrayList<>(chunk.values());
+            chunk.clear();
+
+            Map<String, String> updatedIds = new HashMap<>();
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.query(updateSql(updates.size()), ps -> {
+                int index = 1;
+                ps.setTimestamp(index++, now);
+                for (PriceInventoryUpdate update : updates) {
+                    ps.setString(index++, update.getSku());
+                    ps.setBigDecimal(index++, update.getBasePrice());
+                    ps.setObject(index++, update.getInventoryQty(), Types.INTEGER);
+                    ps.setString(index++, update.getInventoryStatus());
+                }
+            }, rs -> {
+                updatedIds.put(rs.getString("sku"), rs.getString("id"));
+            });
+
+            for (PriceInventoryUpdate update : updates) {
+                if (!updatedIds.containsKey(update.getSku())) {
+                    result.notFound(update.getSku());
+                }
+            }
+            result.setUpdated(result.getUpdated() + updatedIds.size());
+            logger.debug("Feed chunk: {} entries, {} products updated", updates.size(), updatedIds.size());
+            if (!updatedIds.isEmpty()) {
+                catalogChangeNotifier.productsSaved(catalogRepository.findAllById(updatedIds.values()));
+            }
+        }
+    }
+}
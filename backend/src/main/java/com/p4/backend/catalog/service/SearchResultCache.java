@@ -0,0 +1,118 @@
+package com.p4.backend.catalog.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.p4.backend.catalog.dto.ProductSummary;
+import com.p4.backend.search.index.CatalogIndexRebuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Caches search result pages as ordered product id lists plus their total, keyed by a normalized search key.
+ * Keys carry the catalog generation from {@link CatalogVersionService}, so any product write (or a write
+ * noticed on another node) retires every cached page at once. They also carry the version of the in-memory
+ * indexes, so pages ranked from an index retire when a rebuild swaps it; the TTL only bounds memory held by
+ * retired keys.
+ * Concurrent misses on one key are coalesced: the first caller runs the search, the others wait for its result.
+ */
+@Service
+public class SearchResultCache {
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private CatalogIndexRebuilder catalogIndexRebuilder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${catalog.search.cache.max-entries:10000}")
+    private long maxEntries = 10000;
+
+    @Value("${catalog.search.cache.ttl-ms:600000}")
+    private long ttlMs = 600000;
+
+    private AsyncCache<String, CachedPage> pages;
+
+    @PostConstruct
+    public void init() {
+        pages = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages.synchronous(), "searchResults");
+    }
+
+    /**
+     * Returns the cached page for the key at the current catalog generation and index version, running
+     * {@code search} on a miss. Both are read before searching, so a write or a rebuild that races with the
+     * search leaves the entry under a key that is already retired.
+     */
+    public CachedPage get(String key, Supplier<CachedPage> search) {
+        String generationKey = catalogVersionService.currentGeneration() + "|" + catalogIndexRebuilder.currentVersion()
+                + "|" + key;
+        CompletableFuture<CachedPage> created = new CompletableFuture<>();
+        CompletableFuture<CachedPage> cached = pages.get(generationKey, (k, executor) -> created);
+        if (cached == created) {
+            try {
+                created.complete(search.get());
+            } catch (RuntimeException e) {
+                // Failed futures are dropped by the cache, so the next caller searches again
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return cached.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * One result page as product ids. {@code total} is null when it was neither asked for nor known for free,
+     * and an estimate when {@code totalExact} is false.
+     */
+    public static class CachedPage {
+        private final List<String> productIds;
+        private final Long total;
+        private final boolean totalExact;
+        private final boolean hasNext;
+
+        public CachedPage(List<String> productIds, long total) {
+            this(productIds, total, true, false);
+        }
+
+        public CachedPage(List<String> productIds, Long total, boolean totalExact, boolean hasNext) {
+            this.productIds = productIds;
+            this.total = total;
+            this.totalExact = totalExact;
+            this.hasNext = hasNext;
+        }
+
+        public static CachedPage of(Page<ProductSummary> page) {
+            List<String> ids = new ArrayList<>(page.getNumberOfElements());
+            page.forEach(product -> ids.add(product.getId()));
+            return new CachedPage(ids, page.getTotalElements(), true, page.hasNext());
+        }
+
+        public List<String> getProductIds() { return productIds; }
+        public Long getTotal() { return total; }
+        public boolean isTotalExact() { return totalExact; }
+        public boolean isHasNext() { return hasNext; }
+    }
+}
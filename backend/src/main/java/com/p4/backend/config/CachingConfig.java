@@ -0,0 +1,17 @@
+package com.p4.backend.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Local Caffeine caches; size, TTL and stats are set by spring.cache.caffeine.spec.
+ * Every cache name must also be listed in spring.cache.cache-names.
+ */
+@Configuration
+@EnableCaching
+public class CachingConfig {
+
+    public static final String PRODUCTS = "products";
+    public static final String VENDORS = "vendors";
+    public static final String MEDIA_ASSETS = "mediaAssets";
+}
@@ -2,6 +2,7 @@ package com.p4.backend.rfq.service;
 
 import com.p4.backend.catalog.entity.Vendor;
 import com.p4.backend.catalog.repository.VendorRepository;
+import com.p4.backend.catalog.service.CatalogCache;
 import com.p4.backend.rfq.entity.Rfq;
 import com.p4.backend.rfq.repository.RfqRepository;
 import com.p4.backend.shared.exception.BusinessException;
@@ -20,6 +21,9 @@ public class VendorService {
     @Autowired
     private RfqRepository rfqRepository;
 
+    @Autowired
+    private CatalogCache catalogCache;
+
     public List<Vendor> getVendorsForRfq(String rfqId) throws BusinessException {
         // First validate that the RFQ exists
         if (rfqRepository.findById(rfqId).isEmpty()) {
@@ -40,7 +44,7 @@ public class VendorService {
 
         // Validate that all vendors exist and are active
         for (String vendorId : vendorIds) {
-            Optional<Vendor> vendorOpt = vendorRepository.findById(vendorId);
+            Optional<Vendor> vendorOpt = catalogCache.findVendor(vendorId);
             if (vendorOpt.isEmpty()) {
                 throw new BusinessException("Vendor not found: " + vendorId);
             }
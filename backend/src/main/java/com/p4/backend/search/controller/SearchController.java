@@ -1,6 +1,6 @@
 package com.p4.backend.search.controller;
 
-import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.catalog.dto.ProductSummary;
 import com.p4.backend.search.service.SearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -17,12 +17,12 @@ public class SearchController {
     private SearchService searchService;
     
     @GetMapping("/products")
-    public ResponseEntity<Page<Product>> searchProducts(
+    public ResponseEntity<Page<ProductSummary>> searchProducts(
             @RequestParam String q,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         
-        Page<Product> results = searchService.searchProducts(q, page, size);
+        Page<ProductSummary> results = searchService.searchProducts(q, page, size);
         
         return ResponseEntity.ok(results);
     }
@@ -33,7 +33,7 @@ public class SearchController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         
-        Page<Product> results = searchService.searchProducts(q, page, size);
+        Page<ProductSummary> results = searchService.searchProducts(q, page, size);
         
         return ResponseEntity.ok(Map.of(
             "query", q,
@@ -0,0 +1,93 @@
+package com.p4.backend.search.index;
+
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.catalog.entity.ProductAttributeValue;
+import com.p4.backend.catalog.repository.ProductIndexRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds the in-memory catalog indexes on startup and rebuilds them on a fixed delay and whenever
+ * {@link com.p4.backend.catalog.service.CatalogVersionService} finds writes made by other nodes. The published
+ * products are scanned once, as a projection of the indexed columns, and fed to the search, suggestion and
+ * filter indexes together; attribute values take a second scan.
+ */
+@Component
+public class CatalogIndexRebuilder {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogIndexRebuilder.class);
+
+    @Autowired
+    private ProductIndexRepository productIndexRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
+    @Autowired
+    private ProductFilterIndex productFilterIndex;
+
+    @Autowired
+    private ProductAttributeIndex productAttributeIndex;
+
+    // Moves on every swap, so results cached from the indexes can be keyed by the contents they were read from
+    private final AtomicLong version = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.search.index.refresh-ms:600000}",
+               initialDelayString = "${catalog.search.index.refresh-ms:600000}")
+    public void scheduledRebuild() {
+        suggestionIndex.decayViews();
+        rebuild();
+    }
+
+    public long currentVersion() {
+        return version.get();
+    }
+
+    /**
+     * Rebuilds every index from the database and swaps each in atomically; an index whose scan fails keeps
+     * its current contents
+     */
+    public synchronized void rebuild() {
+        List<IndexRebuild<Product>> productRebuilds = new ArrayList<>(3);
+        IndexRebuild<Product> search = productSearchIndex.startRebuild();
+        if (search != null) {
+            productRebuilds.add(search);
+        }
+        productRebuilds.add(suggestionIndex.startRebuild());
+        productRebuilds.add(productFilterIndex.startRebuild());
+        run("product", productRebuilds, () ->
+                productIndexRepository.forEachPublished(product -> productRebuilds.forEach(r -> r.add(product))));
+
+        IndexRebuild<ProductAttributeValue> attributes = productAttributeIndex.startRebuild();
+        run("attribute", List.of(attributes), () -> productIndexRepository.forEachAttributeValue(attributes::add));
+    }
+
+    private <T> void run(String name, List<IndexRebuild<T>> rebuilds, Runnable scan) {
+        try {
+            scan.run();
+        } catch (Exception e) {
+            logger.error("Failed to rebuild {} indexes", name, e);
+            rebuilds.forEach(IndexRebuild::abort);
+            return;
+        }
+        rebuilds.forEach(IndexRebuild::finish);
+        version.incrementAndGet();
+    }
+}
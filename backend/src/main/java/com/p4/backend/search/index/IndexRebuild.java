@@ -0,0 +1,18 @@
+package com.p4.backend.search.index;
+
+/**
+ * One full rebuild of an in-memory index, fed by {@link CatalogIndexRebuilder} from a shared database scan.
+ * The index records the changes it is notified of from the moment the rebuild is started and replays them
+ * onto the new structures when it swaps them in, so writes that land while the scan runs are not lost.
+ */
+interface IndexRebuild<T> {
+
+    /** Adds one scanned row to the structures being built. */
+    void add(T row);
+
+    /** Replays the changes recorded since the rebuild started and swaps the new structures in. */
+    void finish();
+
+    /** Drops the structures being built and stops recording; the current contents stay in place. */
+    void abort();
+}
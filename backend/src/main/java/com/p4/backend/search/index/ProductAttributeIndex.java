@@ -0,0 +1,348 @@
+package com.p4.backend.search.index;
+
+import com.p4.backend.catalog.dto.AttributeFilter;
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.catalog.entity.ProductAttributeValue;
+import com.p4.backend.catalog.service.CatalogChangeListener;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over product attribute values: (attribute id, value) -> compressed set of product ordinals.
+ * Text, select, boolean and date values are keyed by their normalized string form, numbers by value in a
+ * sorted map, so an exact match is one lookup and a range is the union of a sub-map; several attribute
+ * filters are answered by intersecting their bitmaps, smallest first.
+ * Built from the database on startup, updated per product by {@link #index} when attribute values are
+ * written and fully rebuilt by {@link CatalogIndexRebuilder} on a fixed delay so writes made by other nodes are
+ * picked up as well.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ProductAttributeIndex implements CatalogChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductAttributeIndex.class);
+
+    @Autowired
+    private ProductOrdinals productOrdinals;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<String, AttributePostings> attributes = new HashMap<>();
+    // product ordinal -> the postings it was added to, so a product can be re-indexed in place
+    private Map<Integer, List<IndexedValue>> products = new HashMap<>();
+    // Latest values of every product changed since a rebuild started (null once removed), replayed at the swap
+    private Map<String, Collection<ProductAttributeValue>> changedDuringRebuild;
+
+    private volatile boolean ready;
+
+    /**
+     * Starts a full rebuild from the attribute values scanned by {@link CatalogIndexRebuilder}
+     */
+    IndexRebuild<ProductAttributeValue> startRebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return new Rebuild();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Replaces everything indexed for a product with the given attribute values
+     */
+    public void index(String productId, Collection<ProductAttributeValue> values) {
+        int ordinal = productOrdinals.ordinalOf(productId);
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(productId, values);
+            }
+            removeInternal(ordinal);
+            for (ProductAttributeValue value : values) {
+                addPostings(attributes, products, ordinal, value);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String productId) {
+        lock.writeLock().lock();
+        try {
+            // Recorded even for a product never indexed here: the running scan may still pick it up
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(productId, null);
+            }
+            int ordinal = productOrdinals.find(productId);
+            if (ordinal < 0) {
+                return;
+            }
+            removeInternal(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductsSaved(List<Product> products) {
+        // Attribute values are written separately, see index()
+    }
+
+    @Override
+    public void onProductsDeleted(List<Product> products) {
+        // Attribute values are removed with their product (ON DELETE CASCADE)
+        for (Product product : products) {
+            remove(product.getId());
+        }
+    }
+
+    /**
+     * Returns the ordinals of the products matching every filter.
+     * The result is a fresh bitmap the caller may modify; an unknown attribute or value matches nothing.
+     */
+    public RoaringBitmap match(List<AttributeFilter> filters) {
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> matches = new ArrayList<>(filters.size());
+            for (AttributeFilter filter : filters) {
+                AttributePostings postings = attributes.get(filter.getAttributeId());
+                RoaringBitmap match = postings != null ? postings.match(filter) : null;
+                if (match == null || match.isEmpty()) {
+                    return new RoaringBitmap();
+                }
+                matches.add(match);
+            }
+            if (matches.isEmpty()) {
+                return new RoaringBitmap();
+            }
+            // Intersect from the most selective filter, so the running result only shrinks
+            matches.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+            RoaringBitmap result = matches.get(0);
+            for (int i = 1; i < matches.size() && !result.isEmpty(); i++) {
+                result.and(matches.get(i));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(int ordinal) {
+        List<IndexedValue> existing = products.remove(ordinal);
+        if (existing == null) {
+            return;
+        }
+        for (IndexedValue value : existing) {
+            AttributePostings postings = attributes.get(value.attributeId);
+            if (postings != null) {
+                postings.remove(value, ordinal);
+                if (postings.isEmpty()) {
+                    attributes.remove(value.attributeId);
+                }
+            }
+        }
+    }
+
+    private static void addPostings(Map<String, AttributePostings> attributes, Map<Integer, List<IndexedValue>> products,
+                                    int ordinal, ProductAttributeValue value) {
+        List<IndexedValue> keys = keysOf(value);
+        if (keys.isEmpty()) {
+            return;
+        }
+        AttributePostings postings = attributes.computeIfAbsent(value.getAttributeId(), k -> new AttributePostings());
+        for (IndexedValue key : keys) {
+            postings.add(key, ordinal);
+        }
+        products.computeIfAbsent(ordinal, k -> new ArrayList<>()).addAll(keys);
+    }
+
+    private static List<IndexedValue> keysOf(ProductAttributeValue value) {
+        List<IndexedValue> keys = new ArrayList<>(1);
+        if (value.getValueText() != null && !value.getValueText().isBlank()) {
+            keys.add(new IndexedValue(value.getAttributeId(), normalize(value.getValueText()), null));
+        }
+        if (value.getValueNumber() != null) {
+            keys.add(new IndexedValue(value.getAttributeId(), null, value.getValueNumber()));
+        }
+        if (value.getValueBoolean() != null) {
+            keys.add(new IndexedValue(value.getAttributeId(), value.getValueBoolean().toString(), null));
+        }
+        if (value.getValueDate() != null) {
+            keys.add(new IndexedValue(value.getAttributeId(), value.getValueDate().toLocalDate().toString(), null));
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static BigDecimal parseNumber(String text) {
+        if (text == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(text.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private final class Rebuild implements IndexRebuild<ProductAttributeValue> {
+        private final long start = System.currentTimeMillis();
+        private final Map<String, AttributePostings> newAttributes = new HashMap<>();
+        private final Map<Integer, List<IndexedValue>> newProducts = new HashMap<>();
+        private int values;
+
+        @Override
+        public void add(ProductAttributeValue value) {
+            addPostings(newAttributes, newProducts, productOrdinals.ordinalOf(value.getProductId()), value);
+            values++;
+        }
+
+        @Override
+        public void finish() {
+            newAttributes.values().forEach(AttributePostings::optimize);
+            lock.writeLock().lock();
+            try {
+                attributes = newAttributes;
+                products = newProducts;
+                ready = true;
+                Map<String, Collection<ProductAttributeValue>> changed = changedDuringRebuild;
+                changedDuringRebuild = null;
+                changed.forEach((productId, productValues) -> {
+                    if (productValues != null) {
+                        index(productId, productValues);
+                    } else {
+                        remove(productId);
+                    }
+                });
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Product attribute index rebuilt: {} values of {} products over {} attributes in {} ms",
+                       values, newProducts.size(), newAttributes.size(), System.currentTimeMillis() - start);
+        }
+
+        @Override
+        public void abort() {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Postings of one attribute. Both maps use natural key order, so BigDecimal keys that differ only in
+     * scale (220 and 220.0000) share one entry.
+     */
+    private static final class AttributePostings {
+        private final NavigableMap<String, RoaringBitmap> values = new TreeMap<>();
+        private final NavigableMap<BigDecimal, RoaringBitmap> numbers = new TreeMap<>();
+
+        private void add(IndexedValue key, int ordinal) {
+            if (key.number != null) {
+                numbers.computeIfAbsent(key.number, k -> new RoaringBitmap()).add(ordinal);
+            } else {
+                values.computeIfAbsent(key.text, k -> new RoaringBitmap()).add(ordinal);
+            }
+        }
+
+        private void remove(IndexedValue key, int ordinal) {
+            if (key.number != null) {
+                removeFrom(numbers, key.number, ordinal);
+            } else {
+                removeFrom(values, key.text, ordinal);
+            }
+        }
+
+        private static <K> void removeFrom(Map<K, RoaringBitmap> postings, K key, int ordinal) {
+            RoaringBitmap bitmap = postings.get(key);
+            if (bitmap != null) {
+                bitmap.remove(ordinal);
+                if (bitmap.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        }
+
+        private boolean isEmpty() {
+            return values.isEmpty() && numbers.isEmpty();
+        }
+
+        private void optimize() {
+            values.values().forEach(RoaringBitmap::runOptimize);
+            numbers.values().forEach(RoaringBitmap::runOptimize);
+        }
+
+        // Returns a new bitmap, or null when nothing matches
+        private RoaringBitmap match(AttributeFilter filter) {
+            if (!filter.isRange()) {
+                RoaringBitmap text = values.get(normalize(filter.getValue()));
+                BigDecimal number = parseNumber(filter.getValue());
+                RoaringBitmap numeric = number != null ? numbers.get(number) : null;
+                if (text == null || numeric == null) {
+                    return text != null ? text.clone() : numeric != null ? numeric.clone() : null;
+                }
+                return RoaringBitmap.or(text, numeric);
+            }
+            BigDecimal min = parseNumber(filter.getMin());
+            BigDecimal max = parseNumber(filter.getMax());
+            boolean numericRange = (filter.getMin() == null || min != null) && (filter.getMax() == null || max != null);
+            Collection<RoaringBitmap> matches = numericRange
+                    ? range(numbers, min, max).values()
+                    : range(values, filter.getMin() != null ? normalize(filter.getMin()) : null,
+                            filter.getMax() != null ? normalize(filter.getMax()) : null).values();
+            return matches.isEmpty() ? null : FastAggregation.or(matches.iterator());
+        }
+
+        private static <K extends Comparable<K>> NavigableMap<K, RoaringBitmap> range(NavigableMap<K, RoaringBitmap> postings,
+                                                                                   K min, K max) {
+            if (min != null && max != null) {
+                // An inverted range matches nothing rather than failing the search
+                return min.compareTo(max) <= 0 ? postings.subMap(min, true, max, true) : new TreeMap<>();
+            }
+            return min != null ? postings.tailMap(min, true) : postings.headMap(max, true);
+        }
+    }
+
+    private static final class IndexedValue {
+        private final String attributeId;
+        private final String text;
+        private final BigDecimal number;
+
+        private IndexedValue(String attributeId, String text, BigDecimal number) {
+            this.attributeId = attributeId;
+            this.text = text;
+            this.number = number;
+        }
+    }
+}
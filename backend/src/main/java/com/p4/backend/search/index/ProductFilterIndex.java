@@ -0,0 +1,441 @@
+package com.p4.backend.search.index;
+
+import com.p4.backend.catalog.dto.ProductFilter;
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.catalog.repository.ProductFacetRepository;
+import com.p4.backend.catalog.service.CatalogChangeListener;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap filter engine for faceted search over published products.
+ * Keeps a compressed bitmap of product ordinals for every vendor, category, inventory status and price band
+ * (the {@link ProductFacetRepository#PRICE_BOUNDS} buckets), so a filter combination is a handful of bitmap
+ * ANDs whatever fields it uses, and each facet count is the cardinality of one more AND.
+ * Text queries and attribute filters are resolved by {@link ProductSearchIndex} and {@link ProductAttributeIndex}
+ * and intersected in. Pages are ordered by name then id, like the database listing, with names compared
+ * case-insensitively as an approximation of the database collation.
+ * Built on startup, kept current through {@link CatalogChangeListener} callbacks and rebuilt on a fixed delay
+ * by {@link CatalogIndexRebuilder}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ProductFilterIndex implements CatalogChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductFilterIndex.class);
+
+    private static final int[] PRICE_BOUNDS = ProductFacetRepository.PRICE_BOUNDS;
+
+    // Listing order; the top-k queue uses its reverse so the queue head is the entry to evict
+    private static final Comparator<IndexedProduct> PAGE_ORDER = Comparator
+            .comparing((IndexedProduct p) -> p.sortName)
+            .thenComparing(p -> p.name)
+            .thenComparing(p -> p.id);
+
+    @Autowired
+    private ProductOrdinals productOrdinals;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductAttributeIndex productAttributeIndex;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Bitmaps bitmaps = new Bitmaps();
+    private Map<Integer, IndexedProduct> products = new HashMap<>();
+    // Latest state of every product changed since a rebuild started (null once removed), replayed at the swap
+    private Map<String, Product> changedDuringRebuild;
+
+    private volatile boolean ready;
+
+    /**
+     * Starts a full rebuild from the published products scanned by {@link CatalogIndexRebuilder}
+     */
+    IndexRebuild<Product> startRebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return new Rebuild();
+    }
+
+    /**
+     * Whether this filter can be answered from memory; false until every index it needs has been built
+     */
+    public boolean canServe(ProductFilter filter) {
+        ProductFilter effective = filter != null ? filter : new ProductFilter();
+        return ready
+                && (effective.getQuery() == null || productSearchIndex.isReady())
+                && (effective.getAttributes().isEmpty() || productAttributeIndex.isReady());
+    }
+
+    /**
+     * Adds or replaces a product. Products that are not published are removed instead.
+     */
+    public void index(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        if (product.getStatus() != Product.ProductStatus.PUBLISHED) {
+            remove(product.getId());
+            return;
+        }
+        IndexedProduct indexed = new IndexedProduct(productOrdinals.ordinalOf(product.getId()), product);
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(product.getId(), product);
+            }
+            IndexedProduct previous = products.put(indexed.ordinal, indexed);
+            if (previous != null) {
+                bitmaps.remove(previous);
+            }
+            bitmaps.add(indexed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String productId) {
+        lock.writeLock().lock();
+        try {
+            // Recorded even for a product never indexed here: the running scan may still pick it up
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(productId, null);
+            }
+            int ordinal = productOrdinals.find(productId);
+            if (ordinal < 0) {
+                return;
+            }
+            IndexedProduct previous = products.remove(ordinal);
+            if (previous != null) {
+                bitmaps.remove(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductsSaved(List<Product> products) {
+        for (Product product : products) {
+            index(product);
+        }
+    }
+
+    @Override
+    public void onProductsDeleted(List<Product> products) {
+        for (Product product : products) {
+            remove(product.getId());
+        }
+    }
+
+    /**
+     * Returns one page of the products matching the filter, in name order, plus the total match count
+     */
+    public Hits search(ProductFilter filter, long offset, int limit) {
+        RoaringBitmap restriction = restriction(filter);
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matches = match(filter, restriction);
+            int keep = (int) Math.min(Integer.MAX_VALUE, offset + limit);
+            PriorityQueue<IndexedProduct> top = new PriorityQueue<>(Math.max(1, Math.min(keep, 1024)), PAGE_ORDER.reversed());
+            matches.forEach((int ordinal) -> {
+                IndexedProduct product = products.get(ordinal);
+                if (top.size() < keep) {
+                    top.add(product);
+                } else if (PAGE_ORDER.compare(product, top.peek()) < 0) {
+                    top.poll();
+                    top.add(product);
+                }
+            });
+            List<IndexedProduct> ordered = new ArrayList<>(top);
+            ordered.sort(PAGE_ORDER);
+            List<String> ids = new ArrayList<>(limit);
+            for (int i = (int) Math.min(offset, ordered.size()); i < ordered.size(); i++) {
+                ids.add(ordered.get(i).id);
+            }
+            return new Hits(ids, matches.getCardinality());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Facet counts over the products matching the filter, in the shape of the SQL aggregation
+     */
+    public ProductFacetRepository.FacetRows aggregate(ProductFilter filter) {
+        RoaringBitmap restriction = restriction(filter);
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matches = match(filter, restriction);
+            ProductFacetRepository.FacetRows rows = new ProductFacetRepository.FacetRows();
+            countInto(rows.getCategories(), bitmaps.categories, matches);
+            countInto(rows.getVendors(), bitmaps.vendors, matches);
+            countInto(rows.getInventoryStatuses(), bitmaps.inventoryStatuses, matches);
+            for (int band = 0; band < bitmaps.priceBands.length; band++) {
+                long count = RoaringBitmap.andCardinality(bitmaps.priceBands[band], matches);
+                if (count > 0) {
+                    rows.getPriceBuckets().put(band, count);
+                }
+            }
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Text and attribute matches come from their own indexes, resolved before taking this index's lock
+    private RoaringBitmap restriction(ProductFilter filter) {
+        if (filter == null) {
+            return null;
+        }
+        RoaringBitmap restriction = null;
+        if (filter.getQuery() != null) {
+            restriction = productOrdinals.bitmapOf(productSearchIndex.matchAll(filter.getQuery()));
+        }
+        if (!filter.getAttributes().isEmpty()) {
+            RoaringBitmap attributes = productAttributeIndex.match(filter.getAttributes());
+            restriction = restriction != null ? RoaringBitmap.and(restriction, attributes) : attributes;
+        }
+        return restriction;
+    }
+
+    // Caller holds the read lock
+    private RoaringBitmap match(ProductFilter filter, RoaringBitmap restriction) {
+        List<RoaringBitmap> parts = new ArrayList<>();
+        parts.add(bitmaps.published);
+        if (restriction != null) {
+            parts.add(restriction);
+        }
+        if (filter != null) {
+            if (filter.getVendorId() != null) {
+                parts.add(bitmaps.vendors.getOrDefault(filter.getVendorId(), new RoaringBitmap()));
+            }
+            if (filter.getCategoryId() != null) {
+                parts.add(bitmaps.categories.getOrDefault(filter.getCategoryId(), new RoaringBitmap()));
+            }
+            if (filter.getInventoryStatus() != null) {
+                parts.add(bitmaps.inventoryStatuses.getOrDefault(filter.getInventoryStatus(), new RoaringBitmap()));
+            }
+        }
+        // Most selective first, so every further AND works on a shrinking set
+        parts.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+        RoaringBitmap result = parts.get(0).clone();
+        for (int i = 1; i < parts.size() && !result.isEmpty(); i++) {
+            result.and(parts.get(i));
+        }
+        if (filter != null && (filter.getMinPrice() != null || filter.getMaxPrice() != null) && !result.isEmpty()) {
+            result.and(priceRange(filter.getMinPrice(), filter.getMaxPrice()));
+        }
+        return result;
+    }
+
+    // Bands entirely inside [min, max] are taken whole; only the products of the edge bands are checked one by one
+    private RoaringBitmap priceRange(BigDecimal min, BigDecimal max) {
+        RoaringBitmap range = new RoaringBitmap();
+        for (int band = 0; band < bitmaps.priceBands.length; band++) {
+            BigDecimal lower = band == 0 ? null : BigDecimal.valueOf(PRICE_BOUNDS[band - 1]);
+            BigDecimal upper = band == PRICE_BOUNDS.length ? null : BigDecimal.valueOf(PRICE_BOUNDS[band]);
+            if ((max != null && lower != null && lower.compareTo(max) > 0)
+                    || (min != null && upper != null && upper.compareTo(min) <= 0)) {
+                continue;
+            }
+            boolean aboveMin = min == null || (lower != null && lower.compareTo(min) >= 0);
+            boolean belowMax = max == null || (upper != null && upper.compareTo(max) <= 0);
+            if (aboveMin && belowMax) {
+                range.or(bitmaps.priceBands[band]);
+                continue;
+            }
+            bitmaps.priceBands[band].forEach((int ordinal) -> {
+                BigDecimal price = products.get(ordinal).price;
+                if ((min == null || price.compareTo(min) >= 0) && (max == null || price.compareTo(max) <= 0)) {
+                    range.add(ordinal);
+                }
+            });
+        }
+        return range;
+    }
+
+    private static void countInto(Map<String, Long> counts, Map<String, RoaringBitmap> bitmaps, RoaringBitmap matches) {
+        for (Map.Entry<String, RoaringBitmap> entry : bitmaps.entrySet()) {
+            long count = RoaringBitmap.andCardinality(entry.getValue(), matches);
+            if (count > 0) {
+                counts.put(entry.getKey(), count);
+            }
+        }
+    }
+
+    // Same bucketing as width_bucket(price, PRICE_BOUNDS): the number of bounds at or below the price
+    private static int priceBand(BigDecimal price) {
+        int band = 0;
+        while (band < PRICE_BOUNDS.length && price.compareTo(BigDecimal.valueOf(PRICE_BOUNDS[band])) >= 0) {
+            band++;
+        }
+        return band;
+    }
+
+    private static final class Bitmaps {
+        private final RoaringBitmap published = new RoaringBitmap();
+        private final Map<String, RoaringBitmap> vendors = new HashMap<>();
+        private final Map<String, RoaringBitmap> categories = new HashMap<>();
+        private final Map<String, RoaringBitmap> inventoryStatuses = new HashMap<>();
+        private final RoaringBitmap[] priceBands = new RoaringBitmap[PRICE_BOUNDS.length + 1];
+
+        private Bitmaps() {
+            for (int band = 0; band < priceBands.length; band++) {
+                priceBands[band] = new RoaringBitmap();
+            }
+        }
+
+        private void add(IndexedProduct product) {
+            published.add(product.ordinal);
+            addTo(vendors, product.vendorId, product.ordinal);
+            addTo(categories, product.categoryId, product.ordinal);
+            addTo(inventoryStatuses, product.inventoryStatus, product.ordinal);
+            if (product.price != null) {
+                priceBands[priceBand(product.price)].add(product.ordinal);
+            }
+        }
+
+        private void remove(IndexedProduct product) {
+            published.remove(product.ordinal);
+            removeFrom(vendors, product.vendorId, product.ordinal);
+            removeFrom(categories, product.categoryId, product.ordinal);
+            removeFrom(inventoryStatuses, product.inventoryStatus, product.ordinal);
+            if (product.price != null) {
+                priceBands[priceBand(product.price)].remove(product.ordinal);
+            }
+        }
+
+        private void optimize() {
+            published.runOptimize();
+            vendors.values().forEach(RoaringBitmap::runOptimize);
+            categories.values().forEach(RoaringBitmap::runOptimize);
+            inventoryStatuses.values().forEach(RoaringBitmap::runOptimize);
+            for (RoaringBitmap band : priceBands) {
+                band.runOptimize();
+            }
+        }
+
+        private static void addTo(Map<String, RoaringBitmap> bitmaps, String key, int ordinal) {
+            if (key != null) {
+                bitmaps.computeIfAbsent(key, k -> new RoaringBitmap()).add(ordinal);
+            }
+        }
+
+        private static void removeFrom(Map<String, RoaringBitmap> bitmaps, String key, int ordinal) {
+            RoaringBitmap bitmap = key != null ? bitmaps.get(key) : null;
+            if (bitmap != null) {
+                bitmap.remove(ordinal);
+                if (bitmap.isEmpty()) {
+                    bitmaps.remove(key);
+                }
+            }
+        }
+    }
+
+    private final class Rebuild implements IndexRebuild<Product> {
+        private final long start = System.currentTimeMillis();
+        private final Bitmaps newBitmaps = new Bitmaps();
+        private final Map<Integer, IndexedProduct> newProducts = new HashMap<>();
+
+        @Override
+        public void add(Product product) {
+            IndexedProduct indexed = new IndexedProduct(productOrdinals.ordinalOf(product.getId()), product);
+            newBitmaps.add(indexed);
+            newProducts.put(indexed.ordinal, indexed);
+        }
+
+        @Override
+        public void finish() {
+            newBitmaps.optimize();
+            lock.writeLock().lock();
+            try {
+                bitmaps = newBitmaps;
+                products = newProducts;
+                ready = true;
+                Map<String, Product> changed = changedDuringRebuild;
+                changedDuringRebuild = null;
+                changed.forEach((productId, product) -> {
+                    if (product != null) {
+                        index(product);
+                    } else {
+                        remove(productId);
+                    }
+                });
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Product filter index rebuilt: {} products, {} vendors, {} categories in {} ms",
+                       newProducts.size(), newBitmaps.vendors.size(), newBitmaps.categories.size(),
+                       System.currentTimeMillis() - start);
+        }
+
+        @Override
+        public void abort() {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static final class IndexedProduct {
+        private final int ordinal;
+        private final String id;
+        private final String name;
+        private final String sortName;
+        private final String vendorId;
+        private final String categoryId;
+        private final String inventoryStatus;
+        private final BigDecimal price;
+
+        private IndexedProduct(int ordinal, Product product) {
+            this.ordinal = ordinal;
+            this.id = product.getId();
+            this.name = product.getName() != null ? product.getName() : "";
+            this.sortName = name.toLowerCase(Locale.ROOT);
+            this.vendorId = product.getVendorId();
+            this.categoryId = product.getCategoryId();
+            this.inventoryStatus = product.getInventoryStatus() != null ? product.getInventoryStatus().name() : null;
+            this.price = product.getBasePrice();
+        }
+    }
+
+    public static class Hits {
+        private final List<String> productIds;
+        private final long total;
+
+        public Hits(List<String> productIds, long total) {
+            this.productIds = productIds;
+            this.total = total;
+        }
+
+        public List<String> getProductIds() { return productIds; }
+        public long getTotal() { return total; }
+    }
+}
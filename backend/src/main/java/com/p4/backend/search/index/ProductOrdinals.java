@@ -0,0 +1,70 @@
+package com.p4.backend.search.index;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dense int ordinals for product ids, shared by the bitmap indexes so their sets can be intersected directly.
+ * Ordinals are handed out in first-seen order and never reassigned; a deleted product simply drops out of
+ * every bitmap, so its ordinal stays unused until the process restarts.
+ */
+@Component
+public class ProductOrdinals {
+
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private final List<String> ids = new ArrayList<>();
+
+    /**
+     * Returns the ordinal of a product id, assigning the next free one on first sight
+     */
+    public int ordinalOf(String productId) {
+        Integer ordinal = ordinals.get(productId);
+        return ordinal != null ? ordinal : assign(productId);
+    }
+
+    /**
+     * Returns the ordinal of a product id, or -1 if the id has never been indexed
+     */
+    public int find(String productId) {
+        Integer ordinal = ordinals.get(productId);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    public synchronized String idOf(int ordinal) {
+        return ids.get(ordinal);
+    }
+
+    public synchronized List<String> idsOf(RoaringBitmap bitmap) {
+        List<String> result = new ArrayList<>(bitmap.getCardinality());
+        bitmap.forEach((int ordinal) -> result.add(ids.get(ordinal)));
+        return result;
+    }
+
+    public RoaringBitmap bitmapOf(Collection<String> productIds) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (String productId : productIds) {
+            int ordinal = find(productId);
+            if (ordinal >= 0) {
+                bitmap.add(ordinal);
+            }
+        }
+        return bitmap;
+    }
+
+    private synchronized int assign(String productId) {
+        Integer existing = ordinals.get(productId);
+        if (existing != null) {
+            return existing;
+        }
+        int ordinal = ids.size();
+        ids.add(productId);
+        ordinals.put(productId, ordinal);
+        return ordinal;
+    }
+}
@@ -0,0 +1,518 @@
+package com.p4.backend.search.index;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.catalog.service.CatalogChangeListener;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * In-memory inverted index (term -> product id postings) over published products, ranked with BM25.
+ * Built from the database on startup, kept current through {@link CatalogChangeListener} callbacks and
+ * fully rebuilt by {@link CatalogIndexRebuilder} on a fixed delay so writes made by other nodes are picked up as well.
+ * Query semantics follow plainto_tsquery: every query term must match.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ProductSearchIndex implements CatalogChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Field weights, applied as repeated term frequency
+    private static final int NAME_WEIGHT = 3;
+    private static final int SKU_WEIGHT = 2;
+    private static final int BRAND_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // Natural order is "worse first": higher score wins, ties go to the lower product id
+    private static final Comparator<ScoredDocument> RANKING = Comparator
+            .comparingDouble((ScoredDocument d) -> d.score)
+            .thenComparing((ScoredDocument d) -> d.productId, Comparator.reverseOrder());
+
+    @Value("${catalog.search.index.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${catalog.search.index.snapshot.depth:1000}")
+    private int snapshotDepth = 1000;
+
+    @Value("${catalog.search.index.snapshot.max-entries:1000}")
+    private long snapshotMaxEntries = 1000;
+
+    @Value("${catalog.search.index.snapshot.ttl-ms:600000}")
+    private long snapshotTtlMs = 600000;
+
+    // Snapshot ids are random, so they cannot be guessed and ids of different nodes do not collide
+    private final SecureRandom snapshotIds = new SecureRandom();
+    private Cache<Long, RankSnapshot> snapshots;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (product id -> weighted term frequency)
+    private Map<String, Map<String, Integer>> postings = new HashMap<>();
+    private Map<String, IndexedDocument> documents = new HashMap<>();
+    private long totalLength;
+    // Latest state of every product changed since a rebuild started (null once removed), replayed at the swap
+    private Map<String, Product> changedDuringRebuild;
+
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void init() {
+        snapshots = Caffeine.newBuilder()
+                .maximumSize(snapshotMaxEntries)
+                .expireAfterAccess(Duration.ofMillis(snapshotTtlMs))
+                .build();
+    }
+
+    /**
+     * Starts a full rebuild from the published products scanned by {@link CatalogIndexRebuilder}, or returns null
+     * when the index is disabled
+     */
+    IndexRebuild<Product> startRebuild() {
+        if (!enabled) {
+            return null;
+        }
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return new Rebuild();
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces a product in the index. Products that are not published are removed instead.
+     */
+    public void index(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        if (product.getStatus() != Product.ProductStatus.PUBLISHED) {
+            remove(product.getId());
+            return;
+        }
+        IndexedDocument document = analyze(product);
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(product.getId(), product);
+            }
+            removeInternal(product.getId());
+            documents.put(product.getId(), document);
+            addPostings(postings, product.getId(), document);
+            totalLength += document.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String productId) {
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(productId, null);
+            }
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductsSaved(List<Product> products) {
+        for (Product product : products) {
+            index(product);
+        }
+    }
+
+    @Override
+    public void onProductsDeleted(List<Product> products) {
+        for (Product product : products) {
+            remove(product.getId());
+        }
+    }
+
+    /**
+     * Runs a ranked search
+     * @param query free-text query; all terms must match
+     * @param offset number of ranked hits to skip
+     * @param limit maximum number of ids to return
+     * @return the requested slice of product ids in relevance order plus the total hit count
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        return rank(query, offset, limit, Double.NaN, null, null);
+    }
+
+    /**
+     * Variant of {@link #search} that only considers products accepted by {@code filter}
+     */
+    public SearchResult search(String query, int offset, int limit, Predicate<String> filter) {
+        return rank(query, offset, limit, Double.NaN, null, filter);
+    }
+
+    /**
+     * Keyset variant of {@link #search}: returns the hits ranked strictly after (afterScore, afterId),
+     * ordering by score descending and product id ascending. Scores move with every write to the index, so
+     * this is a best-effort continuation; {@link #searchPinned} keeps pages stable.
+     */
+    public SearchResult searchAfter(String query, double afterScore, String afterId, int limit) {
+        return rank(query, 0, limit, afterScore, afterId, null);
+    }
+
+    public SearchResult searchAfter(String query, double afterScore, String afterId, int limit, Predicate<String> filter) {
+        return rank(query, 0, limit, afterScore, afterId, filter);
+    }
+
+    /**
+     * Relevance paging pinned to a rank snapshot. The first page (snapshot 0) ranks the top
+     * {@code catalog.search.index.snapshot.depth} hits once and keeps them under a new snapshot id; later pages
+     * are read from that snapshot by position, so writes between pages neither reorder nor repeat hits and a
+     * page costs no rescan. Past the snapshot's depth, or once it has expired, paging continues after
+     * (afterScore, afterId) like {@link #searchAfter}. A snapshot only serves the query and filter it was ranked
+     * for: {@code filterKey} identifies the filter, and a cursor replayed with another one is ranked afresh.
+     * @return the page, with its snapshot id (0 when it was not served from one) and the position of its first hit
+     */
+    public SearchResult searchPinned(String query, long snapshot, int position, double afterScore, String afterId,
+                                     int limit, Predicate<String> filter, String filterKey) {
+        if (afterId == null) {
+            SearchResult ranked = rank(query, 0, Math.max(limit, snapshotDepth), Double.NaN, null, filter);
+            long id = newSnapshotId();
+            snapshots.put(id, new RankSnapshot(query, filterKey, ranked));
+            return ranked.slice(0, limit, id);
+        }
+        RankSnapshot pinned = snapshot > 0 ? snapshots.getIfPresent(snapshot) : null;
+        if (pinned != null && pinned.matches(query, filterKey) && position >= 0 && pinned.covers(position + limit)) {
+            return pinned.ranked.slice(position, limit, snapshot);
+        }
+        SearchResult after = rank(query, 0, limit, afterScore, afterId, filter);
+        return new SearchResult(after.productIds, after.scores, after.totalHits, 0, position);
+    }
+
+    // Positive, as 0 stands for no snapshot in cursors
+    private long newSnapshotId() {
+        long id;
+        do {
+            id = snapshotIds.nextLong() & Long.MAX_VALUE;
+        } while (id == 0);
+        return id;
+    }
+
+    /**
+     * Returns the ids of every product matching all query terms, unranked
+     */
+    public List<String> matchAll(String query) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(SearchTokenizer.tokenize(query)));
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            List<Map<String, Integer>> termPostings = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<String, Integer> docs = postings.get(term);
+                if (docs == null) {
+                    return Collections.emptyList();
+                }
+                termPostings.add(docs);
+            }
+            termPostings.sort(Comparator.comparingInt(Map::size));
+            List<String> matches = new ArrayList<>();
+            outer:
+            for (String productId : termPostings.get(0).keySet()) {
+                for (int i = 1; i < termPostings.size(); i++) {
+                    if (!termPostings.get(i).containsKey(productId)) {
+                        continue outer;
+                    }
+                }
+                matches.add(productId);
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private SearchResult rank(String query, int offset, int limit, double afterScore, String afterId,
+                              Predicate<String> filter) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(SearchTokenizer.tokenize(query)));
+        if (terms.isEmpty()) {
+            return SearchResult.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Map<String, Integer>> termPostings = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<String, Integer> docs = postings.get(term);
+                if (docs == null) {
+                    return SearchResult.empty();
+                }
+                termPostings.add(docs);
+            }
+            // Drive the intersection from the rarest term
+            termPostings.sort(Comparator.comparingInt(Map::size));
+
+            int n = documents.size();
+            double avgLength = n == 0 ? 1.0 : (double) totalLength / n;
+            int keep = (int) Math.min(Integer.MAX_VALUE, (long) offset + limit);
+            PriorityQueue<ScoredDocument> top = new PriorityQueue<>(Math.max(1, Math.min(keep, 1024)), RANKING);
+            ScoredDocument after = afterId != null ? new ScoredDocument(afterId, afterScore) : null;
+            int totalHits = 0;
+
+            outer:
+            for (String productId : termPostings.get(0).keySet()) {
+                for (int i = 1; i < termPostings.size(); i++) {
+                    if (!termPostings.get(i).containsKey(productId)) {
+                        continue outer;
+                    }
+                }
+                if (filter != null && !filter.test(productId)) {
+                    continue;
+                }
+                totalHits++;
+                if (keep <= 0) {
+                    continue;
+                }
+                IndexedDocument document = documents.get(productId);
+                double score = 0;
+                for (Map<String, Integer> docs : termPostings) {
+                    int tf = docs.get(productId);
+                    double idf = Math.log(1 + (n - docs.size() + 0.5) / (docs.size() + 0.5));
+                    score += idf * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * document.length / avgLength));
+                }
+                ScoredDocument scored = new ScoredDocument(productId, score);
+                if (after != null && RANKING.compare(scored, after) >= 0) {
+                    continue;
+                }
+                if (top.size() < keep) {
+                    top.add(scored);
+                } else if (RANKING.compare(scored, top.peek()) > 0) {
+                    top.poll();
+                    top.add(scored);
+                }
+            }
+
+            List<ScoredDocument> ranked = new ArrayList<>(top);
+            ranked.sort(RANKING.reversed());
+            int count = Math.max(0, ranked.size() - offset);
+            List<String> ids = new ArrayList<>(count);
+            List<Double> scores = new ArrayList<>(count);
+            for (int i = offset; i < ranked.size(); i++) {
+                ids.add(ranked.get(i).productId);
+                scores.add(ranked.get(i).score);
+            }
+            return new SearchResult(ids, scores, totalHits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(String productId) {
+        IndexedDocument existing = documents.remove(productId);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.termFrequencies.keySet()) {
+            Map<String, Integer> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(productId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= existing.length;
+    }
+
+    private static void addPostings(Map<String, Map<String, Integer>> target, String productId, IndexedDocument document) {
+        for (Map.Entry<String, Integer> entry : document.termFrequencies.entrySet()) {
+            target.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(productId, entry.getValue());
+        }
+    }
+
+    private static IndexedDocument analyze(Product product) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        length += addField(frequencies, product.getName(), NAME_WEIGHT);
+        length += addField(frequencies, product.getSku(), SKU_WEIGHT);
+        length += addField(frequencies, product.getBrand(), BRAND_WEIGHT);
+        length += addField(frequencies, product.getDescription(), DESCRIPTION_WEIGHT);
+        return new IndexedDocument(frequencies, length);
+    }
+
+    private static int addField(Map<String, Integer> frequencies, String text, int weight) {
+        List<String> tokens = SearchTokenizer.tokenize(text);
+        for (String token : tokens) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    private final class Rebuild implements IndexRebuild<Product> {
+        private final long start = System.currentTimeMillis();
+        private final Map<String, Map<String, Integer>> newPostings = new HashMap<>();
+        private final Map<String, IndexedDocument> newDocuments = new HashMap<>();
+        private long newTotalLength;
+
+        @Override
+        public void add(Product product) {
+            IndexedDocument document = analyze(product);
+            newDocuments.put(product.getId(), document);
+            addPostings(newPostings, product.getId(), document);
+            newTotalLength += document.length;
+        }
+
+        @Override
+        public void finish() {
+            lock.writeLock().lock();
+            try {
+                postings = newPostings;
+                documents = newDocuments;
+                totalLength = newTotalLength;
+                ready = true;
+                Map<String, Product> changed = changedDuringRebuild;
+                changedDuringRebuild = null;
+                changed.forEach((productId, product) -> {
+                    if (product != null) {
+                        index(product);
+                    } else {
+                        remove(productId);
+                    }
+                });
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Product search index rebuilt: {} products, {} terms in {} ms",
+                       newDocuments.size(), newPostings.size(), System.currentTimeMillis() - start);
+        }
+
+        @Override
+        public void abort() {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static final class IndexedDocument {
+        private final Map<String, Integer> termFrequencies;
+        private final int length;
+
+        private IndexedDocument(Map<String, Integer> termFrequencies, int length) {
+            this.termFrequencies = termFrequencies;
+            this.length = length;
+        }
+    }
+
+    private static final class ScoredDocument {
+        private final String productId;
+        private final double score;
+
+        private ScoredDocument(String productId, double score) {
+            this.productId = productId;
+            this.score = score;
+        }
+    }
+
+    // The top hits of one query and filter as first ranked, shared by every page read from them
+    private static final class RankSnapshot {
+        private final String query;
+        private final String filterKey;
+        private final SearchResult ranked;
+
+        private RankSnapshot(String query, String filterKey, SearchResult ranked) {
+            this.query = query;
+            this.filterKey = filterKey;
+            this.ranked = ranked;
+        }
+
+        private boolean matches(String query, String filterKey) {
+            return this.query.equals(query) && Objects.equals(this.filterKey, filterKey);
+        }
+
+        private boolean covers(int end) {
+            return end <= ranked.productIds.size() || ranked.productIds.size() == ranked.totalHits;
+        }
+    }
+
+    public static class SearchResult {
+        private final List<String> productIds;
+        private final List<Double> scores;
+        private final int totalHits;
+        private final long snapshot;
+        private final int position;
+
+        public SearchResult(List<String> productIds, List<Double> scores, int totalHits) {
+            this(productIds, scores, totalHits, 0, 0);
+        }
+
+        public SearchResult(List<String> productIds, List<Double> scores, int totalHits, long snapshot, int position) {
+            this.productIds = productIds;
+            this.scores = scores;
+            this.totalHits = totalHits;
+            this.snapshot = snapshot;
+            this.position = position;
+        }
+
+        static SearchResult empty() {
+            return new SearchResult(Collections.emptyList(), Collections.emptyList(), 0);
+        }
+
+        private SearchResult slice(int from, int limit, long snapshot) {
+            int start = Math.min(from, productIds.size());
+            int end = (int) Math.min(productIds.size(), (long) start + limit);
+            return new SearchResult(productIds.subList(start, end), scores.subList(start, end), totalHits, snapshot, from);
+        }
+
+        public List<String> getProductIds() { return productIds; }
+        public List<Double> getScores() { return scores; }
+        public int getTotalHits() { return totalHits; }
+        /** Id of the rank snapshot the page was read from, or 0 */
+        public long getSnapshot() { return snapshot; }
+        /** Position of the first hit of the page in the full ranking */
+        public int getPosition() { return position; }
+    }
+}
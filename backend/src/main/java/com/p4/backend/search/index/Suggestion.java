@@ -0,0 +1,28 @@
+package com.p4.backend.search.index;
+
+/**
+ * A typeahead completion. {@code productId} is set when the completion identifies a single product.
+ */
+public class Suggestion {
+
+    public enum Type {
+        NAME, SKU, BRAND
+    }
+
+    private final String text;
+    private final Type type;
+    private final String productId;
+    private final long weight;
+
+    public Suggestion(String text, Type type, String productId, long weight) {
+        this.text = text;
+        this.type = type;
+        this.productId = productId;
+        this.weight = weight;
+    }
+
+    public String getText() { return text; }
+    public Type getType() { return type; }
+    public String getProductId() { return productId; }
+    public long getWeight() { return weight; }
+}
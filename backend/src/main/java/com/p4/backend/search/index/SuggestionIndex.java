@@ -0,0 +1,325 @@
+package com.p4.backend.search.index;
+
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.catalog.service.CatalogChangeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix trie over published product names, SKUs and brands for typeahead.
+ * Every branch point of the {@link SuggestionTrie} caches the top-K completions of its subtree, so a lookup is
+ * a walk down the typed prefix followed by a copy of at most K entries. Names and brands are reachable from the start of every word.
+ * Completions are weighted by how many published products share them plus recent detail-page views
+ * (decayed by half on every scheduled rebuild by {@link CatalogIndexRebuilder}).
+ */
+@Component
+public class SuggestionIndex implements CatalogChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionIndex.class);
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    // Only the first few words of a name are entry points; later words rarely start a query
+    private static final int MAX_WORD_ENTRY_POINTS = 6;
+
+    private static final Comparator<Completion> BY_WEIGHT = Comparator
+            .comparingLong((Completion c) -> c.weight).reversed()
+            .thenComparing(c -> c.key);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, AtomicLong> views = new ConcurrentHashMap<>();
+
+    private SuggestionTrie<Completion> trie = new SuggestionTrie<>(BY_WEIGHT, MAX_SUGGESTIONS);
+    private Map<String, Completion> completions = new HashMap<>();
+    // product id -> keys of the completions it contributes to
+    private Map<String, List<String>> contributions = new HashMap<>();
+    // Latest state of every product changed since a rebuild started (null once removed), replayed at the swap
+    private Map<String, Product> changedDuringRebuild;
+
+    /**
+     * Halves the recorded views, so popularity follows recent interest; called before every scheduled rebuild
+     */
+    void decayViews() {
+        views.values().forEach(count -> count.updateAndGet(v -> v / 2));
+        views.values().removeIf(count -> count.get() == 0);
+    }
+
+    /**
+     * Starts a full rebuild from the published products scanned by {@link CatalogIndexRebuilder}
+     */
+    IndexRebuild<Product> startRebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return new Rebuild();
+    }
+
+    /**
+     * Returns up to {@code limit} completions for the typed prefix, most popular first
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            List<Completion> top = trie.top(normalized);
+            int count = Math.min(Math.max(limit, 0), top.size());
+            List<Suggestion> suggestions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Completion completion = top.get(i);
+                String productId = completion.productWeights.size() == 1
+                        ? completion.productWeights.keySet().iterator().next() : null;
+                suggestions.add(new Suggestion(completion.text, completion.type, productId, completion.weight));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records a product detail view; picked up as popularity on the next rebuild
+     */
+    public void recordView(String productId) {
+        views.computeIfAbsent(productId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    @Override
+    public void onProductsSaved(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            for (Product product : products) {
+                if (changedDuringRebuild != null) {
+                    changedDuringRebuild.put(product.getId(), product);
+                }
+                removeInternal(product.getId());
+                if (product.getStatus() == Product.ProductStatus.PUBLISHED) {
+                    addInternal(product);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductsDeleted(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            for (Product product : products) {
+                if (changedDuringRebuild != null) {
+                    changedDuringRebuild.put(product.getId(), null);
+                }
+                removeInternal(product.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addInternal(Product product) {
+        List<String> keys = new ArrayList<>();
+        for (Entry entry : entriesFor(product)) {
+            Completion completion = completions.get(entry.key);
+            if (completion == null) {
+                completion = new Completion(entry.key, entry.text, entry.type);
+                completions.put(entry.key, completion);
+                for (String path : entry.paths) {
+                    trie.add(path, completion);
+                }
+            }
+            completion.add(product.getId(), entry.weight);
+            keys.add(entry.key);
+            entry.paths.forEach(trie::refresh);
+        }
+        contributions.put(product.getId(), keys);
+    }
+
+    private void removeInternal(String productId) {
+        List<String> keys = contributions.remove(productId);
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            Completion completion = completions.get(key);
+            if (completion == null) {
+                continue;
+            }
+            completion.remove(productId);
+            List<String> paths = pathsFor(completion.type, completion.text);
+            if (completion.productWeights.isEmpty()) {
+                completions.remove(key);
+                for (String path : paths) {
+                    trie.remove(path, completion);
+                }
+            }
+            paths.forEach(trie::refresh);
+        }
+    }
+
+    private List<Entry> entriesFor(Product product) {
+        long popularity = 1;
+        AtomicLong viewCount = views.get(product.getId());
+        if (viewCount != null) {
+            popularity += viewCount.get();
+        }
+        List<Entry> entries = new ArrayList<>(3);
+        addEntry(entries, Suggestion.Type.NAME, product.getName(), popularity);
+        addEntry(entries, Suggestion.Type.SKU, product.getSku(), popularity);
+        // Brands are weighted by how many published products carry them
+        addEntry(entries, Suggestion.Type.BRAND, product.getBrand(), 1);
+        return entries;
+    }
+
+    private static void addEntry(List<Entry> entries, Suggestion.Type type, String text, long weight) {
+        if (text == null || normalize(text).isEmpty()) {
+            return;
+        }
+        String display = text.trim();
+        entries.add(new Entry(type + ":" + normalize(display), display, type, weight, pathsFor(type, display)));
+    }
+
+    private static List<String> pathsFor(Suggestion.Type type, String text) {
+        String normalized = normalize(text);
+        if (type == Suggestion.Type.SKU) {
+            return List.of(normalized);
+        }
+        Set<String> paths = new LinkedHashSet<>();
+        paths.add(normalized);
+        int words = 1;
+        for (int i = 0; i < normalized.length() && words < MAX_WORD_ENTRY_POINTS; i++) {
+            if (normalized.charAt(i) == ' ' && i + 1 < normalized.length()) {
+                paths.add(normalized.substring(i + 1));
+                words++;
+            }
+        }
+        return new ArrayList<>(paths);
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    private final class Rebuild implements IndexRebuild<Product> {
+        private final long start = System.currentTimeMillis();
+        private final SuggestionTrie<Completion> newTrie = new SuggestionTrie<>(BY_WEIGHT, MAX_SUGGESTIONS);
+        private final Map<String, Completion> newCompletions = new HashMap<>();
+        private final Map<String, List<String>> newContributions = new HashMap<>();
+
+        @Override
+        public void add(Product product) {
+            List<String> keys = new ArrayList<>();
+            for (Entry entry : entriesFor(product)) {
+                Completion completion = newCompletions.computeIfAbsent(entry.key, k -> {
+                    Completion created = new Completion(entry.key, entry.text, entry.type);
+                    for (String path : entry.paths) {
+                        newTrie.add(path, created);
+                    }
+                    return created;
+                });
+                completion.add(product.getId(), entry.weight);
+                keys.add(entry.key);
+            }
+            newContributions.put(product.getId(), keys);
+        }
+
+        @Override
+        public void finish() {
+            newTrie.computeAll();
+            lock.writeLock().lock();
+            try {
+                trie = newTrie;
+                completions = newCompletions;
+                contributions = newContributions;
+                Map<String, Product> changed = changedDuringRebuild;
+                changedDuringRebuild = null;
+                changed.forEach((productId, product) -> {
+                    removeInternal(productId);
+                    if (product != null && product.getStatus() == Product.ProductStatus.PUBLISHED) {
+                        addInternal(product);
+                    }
+                });
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Suggestion index rebuilt: {} completions in {} ms",
+                       newCompletions.size(), System.currentTimeMillis() - start);
+        }
+
+        @Override
+        public void abort() {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static final class Completion {
+        private final String key;
+        private final String text;
+        private final Suggestion.Type type;
+        private final Map<String, Long> productWeights = new HashMap<>(2);
+        private long weight;
+
+        private Completion(String key, String text, Suggestion.Type type) {
+            this.key = key;
+            this.text = text;
+            this.type = type;
+        }
+
+        private void add(String productId, long productWeight) {
+            Long previous = productWeights.put(productId, productWeight);
+            weight += productWeight - (previous != null ? previous : 0);
+        }
+
+        private void remove(String productId) {
+            Long previous = productWeights.remove(productId);
+            if (previous != null) {
+                weight -= previous;
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final String text;
+        private final Suggestion.Type type;
+        private final long weight;
+        private final List<String> paths;
+
+        private Entry(String key, String text, Suggestion.Type type, long weight, List<String> paths) {
+            this.key = key;
+            this.text = text;
+            this.type = type;
+            this.weight = weight;
+            this.paths = paths;
+        }
+    }
+}
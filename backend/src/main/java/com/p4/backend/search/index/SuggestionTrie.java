@@ -0,0 +1,302 @@
+package com.p4.backend.search.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Radix trie from normalized paths to the completions reachable from them, for {@link SuggestionIndex}.
+ * Edges carry whole runs of characters and each node keeps its children in a char array sorted for binary
+ * search, so a path costs one node per branch point instead of one map-backed node per character. Only nodes
+ * with children cache the top-K completions of their subtree; a leaf ranks its few terminals when asked.
+ * Not thread-safe: {@link SuggestionIndex} guards it with its lock.
+ */
+final class SuggestionTrie<T> {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node<?>[] NO_CHILDREN = new Node<?>[0];
+    private static final Object[] NO_COMPLETIONS = new Object[0];
+
+    private final Comparator<T> order;
+    private final int k;
+    private final Node<T> root = new Node<>("");
+
+    SuggestionTrie(Comparator<T> order, int k) {
+        this.order = order;
+        this.k = k;
+    }
+
+    /**
+     * Makes the completion reachable from the path; call {@link #refresh} (or {@link #computeAll}) afterwards
+     */
+    void add(String path, T completion) {
+        Node<T> node = insert(path);
+        for (Object terminal : node.terminals) {
+            if (terminal == completion) {
+                return;
+            }
+        }
+        node.terminals = append(node.terminals, completion);
+    }
+
+    /**
+     * Drops the completion from the path, pruning nodes left empty; call {@link #refresh} afterwards
+     */
+    void remove(String path, T completion) {
+        List<Node<T>> nodes = exactPath(path);
+        if (nodes == null) {
+            return;
+        }
+        Node<T> node = nodes.get(nodes.size() - 1);
+        node.terminals = without(node.terminals, completion);
+        for (int i = nodes.size() - 1; i > 0; i--) {
+            Node<T> current = nodes.get(i);
+            Node<T> parent = nodes.get(i - 1);
+            if (current.terminals.length == 0 && current.keys.length == 0) {
+                parent.removeChild(current.label.charAt(0));
+            } else if (current.terminals.length == 0 && current.keys.length == 1) {
+                current.absorbOnlyChild();
+            }
+        }
+    }
+
+    /**
+     * Recomputes the cached top-K of every node on the path, deepest node first
+     */
+    void refresh(String path) {
+        List<Node<T>> nodes = new ArrayList<>();
+        Node<T> node = root;
+        nodes.add(node);
+        int i = 0;
+        while (i < path.length()) {
+            Node<T> child = node.child(path.charAt(i));
+            if (child == null) {
+                break;
+            }
+            nodes.add(child);
+            int common = commonPrefix(child.label, path, i);
+            if (common < child.label.length()) {
+                break;
+            }
+            node = child;
+            i += common;
+        }
+        for (int j = nodes.size() - 1; j >= 0; j--) {
+            recompute(nodes.get(j));
+        }
+    }
+
+    /**
+     * Computes the top-K of every node, after a bulk load
+     */
+    void computeAll() {
+        computeAll(root);
+    }
+
+    /**
+     * Returns the best completions of every path starting with the prefix, best first, at most K
+     */
+    List<T> top(String prefix) {
+        Node<T> node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node<T> child = node.child(prefix.charAt(i));
+            if (child == null) {
+                return Collections.emptyList();
+            }
+            int common = commonPrefix(child.label, prefix, i);
+            if (i + common == prefix.length()) {
+                return top(child);
+            }
+            if (common < child.label.length()) {
+                return Collections.emptyList();
+            }
+            node = child;
+            i += common;
+        }
+        return top(node);
+    }
+
+    private Node<T> insert(String path) {
+        Node<T> node = root;
+        int i = 0;
+        while (i < path.length()) {
+            Node<T> child = node.child(path.charAt(i));
+            if (child == null) {
+                child = new Node<>(path.substring(i));
+                node.addChild(child);
+                return child;
+            }
+            int common = commonPrefix(child.label, path, i);
+            if (common < child.label.length()) {
+                child = node.split(child, common);
+            }
+            node = child;
+            i += common;
+        }
+        return node;
+    }
+
+    // Nodes from the root to the one the path ends at, or null when it ends inside an edge or is missing
+    private List<Node<T>> exactPath(String path) {
+        List<Node<T>> nodes = new ArrayList<>();
+        Node<T> node = root;
+        nodes.add(node);
+        int i = 0;
+        while (i < path.length()) {
+            Node<T> child = node.child(path.charAt(i));
+            if (child == null) {
+                return null;
+            }
+            int common = commonPrefix(child.label, path, i);
+            if (common < child.label.length()) {
+                return null;
+            }
+            nodes.add(child);
+            node = child;
+            i += common;
+        }
+        return nodes;
+    }
+
+    private void computeAll(Node<T> node) {
+        for (Node<T> child : node.children) {
+            computeAll(child);
+        }
+        recompute(node);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void recompute(Node<T> node) {
+        if (node.keys.length == 0) {
+            node.top = NO_COMPLETIONS;
+            return;
+        }
+        // A completion reachable from several word starts can come up through more than one child
+        Set<T> candidates = new LinkedHashSet<>();
+        for (Object terminal : node.terminals) {
+            candidates.add((T) terminal);
+        }
+        for (Node<T> child : node.children) {
+            candidates.addAll(top(child));
+        }
+        List<T> ranked = new ArrayList<>(candidates);
+        ranked.sort(order);
+        node.top = ranked.subList(0, Math.min(k, ranked.size())).toArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> top(Node<T> node) {
+        if (node.keys.length > 0) {
+            return (List<T>) Arrays.asList(node.top);
+        }
+        List<T> ranked = new ArrayList<>(node.terminals.length);
+        for (Object terminal : node.terminals) {
+            ranked.add((T) terminal);
+        }
+        ranked.sort(order);
+        return ranked.size() > k ? ranked.subList(0, k) : ranked;
+    }
+
+    private static int commonPrefix(String label, String path, int offset) {
+        int max = Math.min(label.length(), path.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == path.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static Object[] append(Object[] values, Object value) {
+        Object[] result = Arrays.copyOf(values, values.length + 1);
+        result[values.length] = value;
+        return result;
+    }
+
+    private static Object[] without(Object[] values, Object value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                Object[] result = new Object[values.length - 1];
+                System.arraycopy(values, 0, result, 0, i);
+                System.arraycopy(values, i + 1, result, i, values.length - i - 1);
+                return result.length == 0 ? NO_COMPLETIONS : result;
+            }
+        }
+        return values;
+    }
+
+    private static final class Node<T> {
+        // Characters on the edge from the parent; empty for the root only
+        private String label;
+        // First character of each child's label, sorted; children[i] belongs to keys[i]
+        private char[] keys = NO_KEYS;
+        @SuppressWarnings("unchecked")
+        private Node<T>[] children = (Node<T>[]) NO_CHILDREN;
+        private Object[] terminals = NO_COMPLETIONS;
+        // Top-K of the subtree, kept only while the node has children
+        private Object[] top = NO_COMPLETIONS;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private Node<T> child(char c) {
+            int slot = Arrays.binarySearch(keys, c);
+            return slot >= 0 ? children[slot] : null;
+        }
+
+        private void addChild(Node<T> child) {
+            int slot = -Arrays.binarySearch(keys, child.label.charAt(0)) - 1;
+            char[] newKeys = new char[keys.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, slot);
+            System.arraycopy(keys, slot, newKeys, slot + 1, keys.length - slot);
+            newKeys[slot] = child.label.charAt(0);
+            Node<T>[] newChildren = Arrays.copyOf(children, children.length + 1);
+            System.arraycopy(children, slot, newChildren, slot + 1, children.length - slot);
+            newChildren[slot] = child;
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        private void removeChild(char c) {
+            int slot = Arrays.binarySearch(keys, c);
+            if (slot < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, slot);
+            System.arraycopy(keys, slot + 1, newKeys, slot, keys.length - slot - 1);
+            Node<T>[] newChildren = Arrays.copyOf(children, children.length - 1);
+            System.arraycopy(children, slot + 1, newChildren, slot, children.length - slot - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        // Inserts a node holding the first `length` characters of the child's label between this node and it;
+        // its top-K is filled in by the refresh that follows every add
+        private Node<T> split(Node<T> child, int length) {
+            Node<T> middle = new Node<>(child.label.substring(0, length));
+            child.label = child.label.substring(length);
+            middle.keys = new char[] {child.label.charAt(0)};
+            @SuppressWarnings("unchecked")
+            Node<T>[] middleChildren = (Node<T>[]) new Node<?>[] {child};
+            middle.children = middleChildren;
+            children[Arrays.binarySearch(keys, middle.label.charAt(0))] = middle;
+            return middle;
+        }
+
+        // Merges the single child into this node, which has no terminals of its own
+        private void absorbOnlyChild() {
+            Node<T> child = children[0];
+            label = label + child.label;
+            keys = child.keys;
+            children = child.children;
+            terminals = child.terminals;
+            top = child.top;
+        }
+    }
+}
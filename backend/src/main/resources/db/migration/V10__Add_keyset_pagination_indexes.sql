@@ -0,0 +1,15 @@
+-- Composite indexes backing keyset (cursor) pagination of published products.
+-- Each index matches one ORDER BY used by ProductKeysetRepository so a page is an index range scan
+-- starting at the cursor position, regardless of how deep into the catalog it is.
+
+-- Sort by name
+CREATE INDEX IF NOT EXISTS idx_product_published_name_id ON product (name, id) WHERE status = 'PUBLISHED';
+
+-- Sort by price; products without a price sort last (expression must match ProductKeysetRepository.PRICE_SORT_EXPRESSION)
+CREATE INDEX IF NOT EXISTS idx_product_published_price_id ON product ((COALESCE(base_price, 999999999999999)), id) WHERE status = 'PUBLISHED';
+
+-- Sort by newest first
+CREATE INDEX IF NOT EXISTS idx_product_published_created_id ON product (created_at DESC, id DESC) WHERE status = 'PUBLISHED';
+
+-- Vendor storefronts sorted by name
+CREATE INDEX IF NOT EXISTS idx_product_published_vendor_name_id ON product (vendor_id, name, id) WHERE status = 'PUBLISHED';
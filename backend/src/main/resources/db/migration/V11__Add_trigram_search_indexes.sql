@@ -0,0 +1,9 @@
+-- Trigram indexes backing fuzzy product search (ProductFuzzySearchRepository).
+-- gin_trgm_ops serves similarity (%), word similarity (<%) and LIKE '%...%' lookups,
+-- so mistyped names and part numbers are matched without a sequential scan.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_product_published_name_trgm ON product USING GIN (LOWER(name) gin_trgm_ops) WHERE status = 'PUBLISHED';
+
+CREATE INDEX IF NOT EXISTS idx_product_published_sku_trgm ON product USING GIN (LOWER(sku) gin_trgm_ops) WHERE status = 'PUBLISHED';
@@ -0,0 +1,14 @@
+-- Stored, weighted full-text document for product search (ProductFilterSql, ProductSummaryRepository.searchRanked).
+-- Name weighs most (A), then SKU and brand (B), then description (C), so ts_rank_cd ranks title hits first.
+-- A generated column is kept current by Postgres on every insert and update, so rows are never re-parsed
+-- at query time; the GIN index on it replaces the expression index from V6.
+
+ALTER TABLE product ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(sku, '') || ' ' || coalesce(brand, '')), 'B') ||
+    setweight(to_tsvector('english', coalesce(description, '')), 'C')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_product_search_vector ON product USING GIN (search_vector);
+
+DROP INDEX IF EXISTS idx_product_fts_gin;
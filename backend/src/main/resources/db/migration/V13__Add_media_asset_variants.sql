@@ -0,0 +1,12 @@
+-- Storage keys of the resized image variants generated after upload
+ALTER TABLE media_asset ADD COLUMN IF NOT EXISTS thumbnail_path VARCHAR(1000);
+ALTER TABLE media_asset ADD COLUMN IF NOT EXISTS card_path VARCHAR(1000);
+ALTER TABLE media_asset ADD COLUMN IF NOT EXISTS zoom_path VARCHAR(1000);
+ALTER TABLE media_asset ADD COLUMN IF NOT EXISTS variant_status VARCHAR(20) DEFAULT 'NONE'
+    CHECK (variant_status IN ('NONE', 'PENDING', 'READY', 'FAILED'));
+
+-- Existing images get their variants from the pending sweep
+UPDATE media_asset SET variant_status = 'PENDING'
+WHERE media_type = 'IMAGE' AND mime_type <> 'image/svg+xml' AND variant_status = 'NONE';
+
+CREATE INDEX IF NOT EXISTS idx_media_asset_variant_pending ON media_asset(updated_at) WHERE variant_status = 'PENDING';
@@ -0,0 +1,5 @@
+-- SHA-256 of uploaded files; uploads of content already stored reuse the existing object
+ALTER TABLE media_asset ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+
+CREATE INDEX IF NOT EXISTS idx_media_asset_content_hash ON media_asset(content_hash);
+CREATE INDEX IF NOT EXISTS idx_media_asset_file_path ON media_asset(file_path);
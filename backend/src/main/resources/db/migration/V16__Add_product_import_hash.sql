@@ -0,0 +1,2 @@
+-- SHA-256 of the imported CSV values; upsert imports skip rows whose hash matches the stored one
+ALTER TABLE product ADD COLUMN IF NOT EXISTS import_hash VARCHAR(64);
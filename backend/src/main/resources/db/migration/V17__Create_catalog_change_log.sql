@@ -0,0 +1,8 @@
+-- One row per catalog write made through the application, tagged with the node that made it.
+-- Nodes poll for rows written by other nodes to invalidate their caches; catalog ETags are the latest id,
+-- so every node that has seen the same writes hands out the same tag. Old rows are pruned by the nodes.
+CREATE TABLE IF NOT EXISTS catalog_change (
+    id BIGSERIAL PRIMARY KEY,
+    node_id VARCHAR(64) NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
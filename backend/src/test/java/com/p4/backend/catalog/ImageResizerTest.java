@@ -0,0 +1,38 @@
+package com.p4.backend.catalog;
+
+import com.p4.backend.catalog.service.ImageResizer;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageResizerTest {
+
+    @Test
+    public void testFitKeepsAspectRatioAndNeverUpscales() {
+        BufferedImage wide = ImageResizer.fit(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_ARGB), 160);
+        assertEquals(160, wide.getWidth());
+        assertEquals(80, wide.getHeight());
+
+        BufferedImage tall = ImageResizer.fit(new BufferedImage(300, 1200, BufferedImage.TYPE_INT_RGB), 480);
+        assertEquals(120, tall.getWidth());
+        assertEquals(480, tall.getHeight());
+
+        BufferedImage small = ImageResizer.fit(new BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB), 1600);
+        assertEquals(100, small.getWidth());
+        assertEquals(50, small.getHeight());
+    }
+
+    @Test
+    public void testTransparentImagesAreFlattenedOntoWhiteJpeg() throws Exception {
+        BufferedImage transparent = new BufferedImage(400, 400, BufferedImage.TYPE_INT_ARGB);
+        byte[] jpeg = ImageResizer.encodeJpeg(ImageResizer.fit(transparent, 160), 0.82f);
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(jpeg));
+        assertEquals(160, decoded.getWidth());
+        assertTrue((decoded.getRGB(80, 80) & 0xFFFFFF) > 0xF0F0F0);
+    }
+}
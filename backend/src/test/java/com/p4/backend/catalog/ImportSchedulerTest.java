@@ -0,0 +1,109 @@
+package com.p4.backend.catalog;
+
+import com.p4.backend.catalog.csv.ImportScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImportSchedulerTest {
+
+    private ImportScheduler scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        scheduler = new ImportScheduler();
+        ReflectionTestUtils.setField(scheduler, "threads", 1);
+        ReflectionTestUtils.setField(scheduler, "queueCapacity", 3);
+        // 3 connections * 0.3 leaves a single chunk permit
+        ReflectionTestUtils.setField(scheduler, "poolSize", 3);
+        scheduler.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testWaitingImportsStartInTurnsBetweenVendors() throws InterruptedException {
+        List<String> started = new CopyOnWriteArrayList<>();
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(4);
+
+        submit("A", "a1", started, done, blocker);
+        submit("A", "a2", started, done, null);
+        submit("A", "a3", started, done, null);
+        scheduler.checkCapacity();
+        submit("B", "b1", started, done, null);
+        assertThrows(TaskRejectedException.class, scheduler::checkCapacity);
+        assertTrue(scheduler.isQueued("a2"));
+        assertFalse(scheduler.isQueued("a1"));
+        assertThrows(TaskRejectedException.class, () -> submit("C", "c1", started, done, null));
+
+        blocker.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("a1", "b1", "a2", "a3"), started);
+        assertFalse(scheduler.isQueued("a2"));
+    }
+
+    @Test
+    public void testChunkPermitGoesToTheVendorWaitingLongest() throws InterruptedException {
+        scheduler.acquireChunk("A");
+
+        List<String> granted = new CopyOnWriteArrayList<>();
+        Thread a = chunkThread("A", granted);
+        a.start();
+        awaitWaiting(a);
+        Thread b = chunkThread("B", granted);
+        b.start();
+        awaitWaiting(b);
+
+        scheduler.releaseChunk("A");
+        a.join(5000);
+        b.join(5000);
+        // A was served last, so B goes first even though A asked first
+        assertEquals(List.of("B", "A"), granted);
+    }
+
+    private void submit(String vendor, String key, List<String> started, CountDownLatch done, CountDownLatch blocker) {
+        scheduler.executorFor(vendor, key).execute(() -> {
+            started.add(key);
+            try {
+                if (blocker != null) {
+                    blocker.await(5, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.countDown();
+        });
+    }
+
+    private Thread chunkThread(String vendor, List<String> granted) {
+        return new Thread(() -> {
+            try {
+                scheduler.acquireChunk(vendor);
+                granted.add(vendor);
+                scheduler.releaseChunk(vendor);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        for (int i = 0; i < 500 && thread.getState() != Thread.State.WAITING; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(Thread.State.WAITING, thread.getState());
+    }
+}
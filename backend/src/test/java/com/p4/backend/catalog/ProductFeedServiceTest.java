@@ -0,0 +1,242 @@
+package com.p4.backend.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p4.backend.catalog.dto.PriceInventoryFeedResult;
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.catalog.repository.CatalogRepository;
+import com.p4.backend.catalog.service.CatalogChangeNotifier;
+import com.p4.backend.catalog.service.ProductFeedService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductFeedServiceTest {
+
+    private static final String VALUES_ROW = "(?, CAST(? AS numeric), CAST(? AS integer), CAST(? AS varchar))";
+
+    private ProductFeedService service;
+    // Stored products by SKU, and every UPDATE the service ran with its bind parameters
+    private final Map<String, String> stored = new HashMap<>();
+    private final List<String> statements = new ArrayList<>();
+    private final List<List<Object>> parameters = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        stored.put("SKU-1", "P1");
+        stored.put("SKU-2", "P2");
+        service = new ProductFeedService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", new JdbcTemplate() {
+            @Override
+            public void query(String sql, PreparedStatementSetter pss, RowCallbackHandler rch) {
+                statements.add(sql);
+                Map<Integer, Object> bound = new HashMap<>();
+                try {
+                    pss.setValues(proxy(PreparedStatement.class, (method, args) -> {
+                        if (method.startsWith("set")) {
+                            bound.put((Integer) args[0], args[1]);
+                        }
+                        return null;
+                    }));
+                    List<Object> values = new ArrayList<>();
+                    for (int i = 1; i <= bound.size(); i++) {
+                        values.add(bound.get(i));
+                    }
+                    parameters.add(values);
+                    for (int i = 1; i < values.size(); i += 4) {
+                        String sku = (String) values.get(i);
+                        if (stored.containsKey(sku)) {
+                            rch.processRow(proxy(ResultSet.class, (method, args) ->
+                                    "sku".equals(args[0]) ? sku : stored.get(sku)));
+                        }
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        ReflectionTestUtils.setField(service, "catalogRepository", proxy(CatalogRepository.class, (method, args) -> {
+            List<Product> products = new ArrayList<>();
+            for (Object id : (Iterable<?>) args[0]) {
+                Product product = new Product();
+                product.setId((String) id);
+                products.add(product);
+            }
+            return products;
+        }));
+        ReflectionTestUtils.setField(service, "catalogChangeNotifier", new CatalogChangeNotifier());
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+    }
+
+    @Test
+    public void testEveryChunkIsOneUpdateWithOneValuesRowPerEntry() throws IOException {
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+
+        PriceInventoryFeedResult result = service.applyJson(feed(
+                "[{\"sku\": \"SKU-1\", \"basePrice\": 10}, {\"sku\": \"SKU-2\", \"inventoryQty\": 3}," +
+                " {\"sku\": \"SKU-3\", \"inventoryStatus\": \"BACKORDER\"}]"));
+
+        assertEquals(2, statements.size());
+        assertEquals(2, occurrences(statements.get(0), VALUES_ROW));
+        assertEquals(1, occurrences(statements.get(1), VALUES_ROW));
+        assertTrue(statements.get(0).startsWith("UPDATE product AS p SET base_price = COALESCE(v.base_price, p.base_price)"));
+        assertTrue(statements.get(0).endsWith(") AS v (sku, base_price, inventory_qty, inventory_status) " +
+                "WHERE p.sku = v.sku RETURNING p.id, p.sku"));
+        // updated_at, then sku, price, quantity and status per entry
+        assertEquals(1 + 2 * 4, parameters.get(0).size());
+        assertEquals(List.of("SKU-1", new BigDecimal("10"), "SKU-2", 3),
+                List.of(parameters.get(0).get(1), parameters.get(0).get(2), parameters.get(0).get(5), parameters.get(0).get(7)));
+        assertEquals(3, result.getReceived());
+        assertEquals(2, result.getUpdated());
+        assertEquals(List.of("SKU-3"), result.getNotFound());
+    }
+
+    @Test
+    public void testLaterEntriesForASkuOverrideOnlyTheFieldsTheySet() throws IOException {
+        PriceInventoryFeedResult result = service.applyJson(feed(
+                "{\"sku\": \"SKU-1\", \"basePrice\": 10, \"inventoryStatus\": \"IN_STOCK\"}\n" +
+                "{\"sku\": \" SKU-1 \", \"inventoryQty\": 5}\n" +
+                "{\"sku\": \"SKU-1\", \"basePrice\": 12}\n"));
+
+        assertEquals(1, statements.size());
+        assertEquals(1, occurrences(statements.get(0), VALUES_ROW));
+        assertEquals("SKU-1", parameters.get(0).get(1));
+        assertEquals(new BigDecimal("12"), parameters.get(0).get(2));
+        assertEquals(5, parameters.get(0).get(3));
+        assertEquals("IN_STOCK", parameters.get(0).get(4));
+        assertEquals(3, result.getReceived());
+        assertEquals(1, result.getUpdated());
+    }
+
+    @Test
+    public void testInvalidEntriesAreRejectedWithTheirPosition() throws IOException {
+        PriceInventoryFeedResult result = service.applyJson(feed("[" +
+                "{\"basePrice\": 1}," +
+                "{\"sku\": \"SKU-1\"}," +
+                "{\"sku\": \"SKU-1\", \"basePrice\": -1}," +
+                "{\"sku\": \"SKU-1\", \"inventoryQty\": -1}," +
+                "{\"sku\": \"SKU-1\", \"inventoryStatus\": \"SOLD_OUT\"}," +
+                "{\"sku\": \"SKU-2\", \"inventoryStatus\": \"out_of_stock\"}]"));
+
+        assertEquals(6, result.getReceived());
+        assertEquals(5, result.getRejectedCount());
+        assertEquals(Map.of(
+                1L, "sku is required",
+                2L, "Nothing to update",
+                3L, "basePrice must not be negative",
+                4L, "inventoryQty must not be negative",
+                5L, "Unknown inventoryStatus: SOLD_OUT"), rejections(result));
+        // Statuses are normalized before they reach the database
+        assertEquals(List.of("SKU-2", "OUT_OF_STOCK"), List.of(parameters.get(0).get(1), parameters.get(0).get(4)));
+    }
+
+    @Test
+    public void testWronglyTypedJsonValuesRejectOnlyTheirEntry() throws IOException {
+        PriceInventoryFeedResult result = service.applyJson(feed("[" +
+                "{\"sku\": \"SKU-1\", \"basePrice\": \"abc\"}," +
+                "{\"sku\": \"SKU-1\", \"inventoryQty\": [3]}," +
+                "{\"sku\": \"SKU-1\", \"basePrice\": \"9.99\", \"inventoryQty\": 4}," +
+                "{\"sku\": \"SKU-2\", \"basePrice\": 0.1}]"));
+
+        assertEquals(4, result.getReceived());
+        assertEquals(Map.of(
+                1L, "basePrice and inventoryQty must be numbers",
+                2L, "basePrice and inventoryQty must be numbers"), rejections(result));
+        assertEquals(List.of("SKU-1", new BigDecimal("9.99"), 4, "SKU-2", new BigDecimal("0.1")),
+                List.of(parameters.get(0).get(1), parameters.get(0).get(2), parameters.get(0).get(3),
+                        parameters.get(0).get(5), parameters.get(0).get(6)));
+        assertEquals(2, result.getUpdated());
+    }
+
+    @Test
+    public void testCsvColumnsAreFoundByHeaderName() throws IOException {
+        PriceInventoryFeedResult result = service.applyCsv(feed(
+                "\uFEFFInventory_Qty, SKU ,Base_Price,note\n" +
+                "7,SKU-1,9.99,ignored\n" +
+                ",SKU-2,,\n" +
+                "many,SKU-1,1.00,\n" +
+                "2,SKU-2\n"));
+
+        assertEquals(4, result.getReceived());
+        assertEquals(Map.of(
+                2L, "Nothing to update",
+                3L, "base_price and inventory_qty must be numbers"), rejections(result));
+        assertEquals(List.of("SKU-1", new BigDecimal("9.99"), 7, "SKU-2", 2),
+                List.of(parameters.get(0).get(1), parameters.get(0).get(2), parameters.get(0).get(3),
+                        parameters.get(0).get(5), parameters.get(0).get(7)));
+    }
+
+    @Test
+    public void testCsvWithoutSkuColumnIsRefused() {
+        assertThrows(IllegalArgumentException.class, () -> service.applyCsv(feed("id,base_price\n1,2\n")));
+        assertTrue(statements.isEmpty());
+    }
+
+    @Test
+    public void testEmptyCsvChangesNothing() throws IOException {
+        PriceInventoryFeedResult result = service.applyCsv(feed(""));
+
+        assertEquals(0, result.getReceived());
+        assertTrue(statements.isEmpty());
+    }
+
+    @Test
+    public void testUnknownSkusAreCountedButOnlySampled() throws IOException {
+        StringBuilder feed = new StringBuilder("sku,inventory_qty\n");
+        int unknown = PriceInventoryFeedResult.MAX_NOT_FOUND_SAMPLES + 50;
+        for (int i = 0; i < unknown; i++) {
+            feed.append("MISSING-").append(i).append(",1\n");
+        }
+
+        PriceInventoryFeedResult result = service.applyCsv(feed(feed.toString()));
+
+        assertEquals(unknown, result.getNotFoundCount());
+        assertEquals(PriceInventoryFeedResult.MAX_NOT_FOUND_SAMPLES, result.getNotFound().size());
+        assertEquals("MISSING-0", result.getNotFound().get(0));
+    }
+
+    private static Map<Long, String> rejections(PriceInventoryFeedResult result) {
+        return result.getRejected().stream().collect(Collectors.toMap(
+                PriceInventoryFeedResult.Rejection::getEntry, PriceInventoryFeedResult.Rejection::getError));
+    }
+
+    private static int occurrences(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + part.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    private static ByteArrayInputStream feed(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> handler.invoke(method.getName(), args));
+    }
+}
@@ -0,0 +1,62 @@
+package com.p4.backend.catalog;
+
+import com.p4.backend.catalog.csv.ProductCsvDto;
+import com.p4.backend.catalog.csv.ProductCsvRow;
+import com.p4.backend.catalog.csv.ProductRowConverter;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductRowConverterTest {
+
+    @Test
+    public void testParallelConversionKeepsEachResultOnItsRow() {
+        List<ProductCsvRow> rows = new ArrayList<>();
+        for (int i = 1; i <= 1000; i++) {
+            rows.add(new ProductCsvRow(i, row("SKU-" + i, i % 100 == 0 ? "not-a-price" : i + ".50")));
+        }
+        ProductRowConverter converter = new ProductRowConverter(4);
+        try {
+            converter.convert(rows);
+        } finally {
+            converter.shutdown();
+        }
+
+        for (ProductCsvRow row : rows) {
+            if (row.getRowNumber() % 100 == 0) {
+                assertNull(row.getProduct());
+                assertEquals("Invalid base price format: not-a-price", row.getError());
+            } else {
+                assertNull(row.getError());
+                assertEquals("SKU-" + row.getRowNumber(), row.getProduct().getSku());
+                assertEquals(new BigDecimal(row.getRowNumber() + ".50"), row.getProduct().getBasePrice());
+            }
+        }
+    }
+
+    @Test
+    public void testImportHashIgnoresFormattingButNotValues() {
+        List<ProductCsvRow> rows = List.of(
+                new ProductCsvRow(1, row("SKU-1", "10.5")),
+                new ProductCsvRow(2, row("SKU-1", "10.50")),
+                new ProductCsvRow(3, row("SKU-1", "10.51")));
+        new ProductRowConverter(1).convert(rows);
+
+        assertEquals(64, rows.get(0).getProduct().getImportHash().length());
+        assertEquals(rows.get(0).getProduct().getImportHash(), rows.get(1).getProduct().getImportHash());
+        assertNotEquals(rows.get(0).getProduct().getImportHash(), rows.get(2).getProduct().getImportHash());
+    }
+
+    private static ProductCsvDto row(String sku, String price) {
+        ProductCsvDto dto = new ProductCsvDto();
+        dto.setName("Widget " + sku);
+        dto.setSku(sku);
+        dto.setVendorId("V1");
+        dto.setBasePrice(price);
+        return dto;
+    }
+}
@@ -0,0 +1,83 @@
+package com.p4.backend.catalog.csv;
+
+import com.p4.backend.catalog.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductCopyLoaderTest {
+
+    // Column positions in ProductJdbcItemWriter.COLUMNS
+    private static final int ID = 0;
+    private static final int NAME = 1;
+    private static final int SLUG = 2;
+    private static final int DESCRIPTION = 3;
+    private static final int SKU = 5;
+    private static final int STATUS = 12;
+    private static final int BASE_PRICE = 14;
+    private static final int WEIGHT = 19;
+    private static final int INVENTORY_TRACKING = 22;
+    private static final int CREATED_AT = 25;
+
+    @Test
+    public void testRowHasOneFieldPerColumnAndNullsAsBackslashN() {
+        Product product = new Product("Hex Bolt", "V1");
+        product.setId("P1");
+        product.setSku("HB-1");
+
+        String[] fields = fields(product);
+
+        assertEquals(ProductJdbcItemWriter.COLUMNS.split(",").length, fields.length);
+        assertEquals("P1", fields[ID]);
+        assertEquals("Hex Bolt", fields[NAME]);
+        assertEquals("\\N", fields[SLUG]);
+        assertEquals("HB-1", fields[SKU]);
+        assertEquals("DRAFT", fields[STATUS]);
+        assertEquals("false", fields[INVENTORY_TRACKING]);
+    }
+
+    @Test
+    public void testSpecialCharactersAreEscaped() {
+        Product product = new Product("Bolt\tM8", "V1");
+        product.setDescription("C:\\parts\nline two\r\\N");
+
+        String line = line(product);
+        String[] fields = fields(product);
+
+        // Only the row terminator is a raw newline, only column separators are raw tabs
+        assertEquals(line.length() - 1, line.indexOf('\n'));
+        assertEquals(-1, line.indexOf('\r'));
+        assertEquals("Bolt\\tM8", fields[NAME]);
+        // A literal \N in the data is not read back as NULL
+        assertEquals("C:\\\\parts\\nline two\\r\\\\N", fields[DESCRIPTION]);
+    }
+
+    @Test
+    public void testNumbersAndTimestampsUsePlainText() {
+        Product product = new Product("Hex Bolt", "V1");
+        product.setBasePrice(new BigDecimal("1E+3"));
+        product.setWeight(new BigDecimal("0.0000125"));
+        product.setCreatedAt(LocalDateTime.of(2024, 3, 9, 7, 5, 1, 250_000_000));
+
+        String[] fields = fields(product);
+
+        assertEquals("1000", fields[BASE_PRICE]);
+        assertEquals("0.0000125", fields[WEIGHT]);
+        assertEquals("2024-03-09T07:05:01.250", fields[CREATED_AT]);
+    }
+
+    private static String line(Product product) {
+        StringBuilder out = new StringBuilder();
+        ProductCopyLoader.appendRow(out, product);
+        return out.toString();
+    }
+
+    private static String[] fields(Product product) {
+        String line = line(product);
+        assertTrue(line.endsWith("\n"));
+        return line.substring(0, line.length() - 1).split("\t", -1);
+    }
+}
@@ -0,0 +1,130 @@
+package com.p4.backend.catalog.csv;
+
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.catalog.service.CatalogChangeListener;
+import com.p4.backend.catalog.service.CatalogChangeNotifier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductJdbcItemWriterTest {
+
+    private final ProductRowConverter converter = new ProductRowConverter(1);
+    private final ProductImportErrors errors = new ProductImportErrors();
+    private final List<Product> notified = new ArrayList<>();
+    // What the merge's RETURNING clause reports, SKU to stored id
+    private final Map<String, String> returned = new HashMap<>();
+
+    @AfterEach
+    public void tearDown() {
+        converter.shutdown();
+    }
+
+    @Test
+    public void testInsertRejectsRowsTheMergeSkipped() {
+        returned.put("SKU-1", "NEW-1");
+        ProductJdbcItemWriter writer = writer(ImportMode.INSERT);
+
+        List<ProductCsvRow> rows = List.of(
+                new ProductCsvRow(1, row("SKU-1", "10.00")),
+                new ProductCsvRow(2, row("SKU-2", "11.00")),
+                new ProductCsvRow(3, row("SKU-1", "12.00")),
+                new ProductCsvRow(4, row("SKU-3", "not-a-price")));
+        writer.write(new Chunk<>(rows));
+
+        ExecutionContext context = update(writer);
+        assertEquals(1, context.getLong(ProductJdbcItemWriter.WRITTEN_KEY));
+        assertEquals(0, context.getLong(ProductJdbcItemWriter.UNCHANGED_KEY));
+        assertEquals("NEW-1", rows.get(0).getProduct().getId());
+        assertEquals(Map.of(
+                2L, "SKU already exists: SKU-2 (import with mode=upsert to update existing products)",
+                3L, "Duplicate SKU in file: SKU-1",
+                4L, "Invalid base price format: not-a-price"), rejections(context));
+    }
+
+    @Test
+    public void testUpsertCountsRowsTheMergeSkippedAsUnchanged() {
+        // SKU-1 replaced a stored product, SKU-2 matched its stored hash
+        returned.put("SKU-1", "STORED-1");
+        ProductJdbcItemWriter writer = writer(ImportMode.UPSERT);
+
+        List<ProductCsvRow> rows = List.of(
+                new ProductCsvRow(1, row("SKU-1", "10.00")),
+                new ProductCsvRow(2, row("SKU-2", "11.00")));
+        writer.write(new Chunk<>(rows));
+
+        ExecutionContext context = update(writer);
+        assertEquals(1, context.getLong(ProductJdbcItemWriter.WRITTEN_KEY));
+        assertEquals(1, context.getLong(ProductJdbcItemWriter.UNCHANGED_KEY));
+        assertEquals("STORED-1", rows.get(0).getProduct().getId());
+        assertEquals(0, errors.getCount());
+    }
+
+    @Test
+    public void testBulkWritesLeaveTheListenersToTheJob() {
+        returned.put("SKU-1", "NEW-1");
+        ProductJdbcItemWriter writer = writer(ImportMode.INSERT);
+
+        writer.write(new Chunk<>(List.of(new ProductCsvRow(1, row("SKU-1", "10.00")))));
+
+        assertEquals(1, update(writer).getLong(ProductJdbcItemWriter.WRITTEN_KEY));
+        assertTrue(notified.isEmpty());
+    }
+
+    private ProductJdbcItemWriter writer(ImportMode mode) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T execute(ConnectionCallback<T> action) {
+                return (T) new HashMap<>(returned);
+            }
+        };
+        CatalogChangeNotifier notifier = new CatalogChangeNotifier();
+        ReflectionTestUtils.setField(notifier, "listeners", List.of(new CatalogChangeListener() {
+            @Override
+            public void onProductsSaved(List<Product> products) {
+                notified.addAll(products);
+            }
+
+            @Override
+            public void onProductsDeleted(List<Product> products) {
+            }
+        }));
+        ProductJdbcItemWriter writer = new ProductJdbcItemWriter(jdbcTemplate, notifier, converter, errors, mode, true);
+        writer.open(new ExecutionContext());
+        return writer;
+    }
+
+    private ExecutionContext update(ProductJdbcItemWriter writer) {
+        ExecutionContext context = new ExecutionContext();
+        writer.update(context);
+        errors.update(context);
+        return context;
+    }
+
+    private static Map<Long, String> rejections(ExecutionContext context) {
+        return ProductImportErrors.samplesOf(context).stream()
+                .collect(Collectors.toMap(error -> (long) error.getRowNumber(), CatalogCsvService.ImportError::getError));
+    }
+
+    private static ProductCsvDto row(String sku, String price) {
+        ProductCsvDto dto = new ProductCsvDto();
+        dto.setName("Widget " + sku);
+        dto.setSku(sku);
+        dto.setVendorId("V1");
+        dto.setBasePrice(price);
+        return dto;
+    }
+}
@@ -0,0 +1,124 @@
+package com.p4.backend.search;
+
+import com.p4.backend.catalog.dto.ProductFilter;
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.catalog.entity.ProductAttributeValue;
+import com.p4.backend.catalog.repository.ProductIndexRepository;
+import com.p4.backend.search.index.CatalogIndexRebuilder;
+import com.p4.backend.search.index.ProductAttributeIndex;
+import com.p4.backend.search.index.ProductFilterIndex;
+import com.p4.backend.search.index.ProductOrdinals;
+import com.p4.backend.search.index.ProductSearchIndex;
+import com.p4.backend.search.index.SuggestionIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogIndexRebuilderTest {
+
+    private ProductSearchIndex searchIndex;
+    private SuggestionIndex suggestionIndex;
+    private ProductFilterIndex filterIndex;
+    private CatalogIndexRebuilder rebuilder;
+
+    // Rows the scan returns, and a write that lands while it runs
+    private List<Product> scanned;
+    private Runnable duringScan = () -> { };
+
+    @BeforeEach
+    public void setUp() {
+        ProductOrdinals ordinals = new ProductOrdinals();
+        searchIndex = new ProductSearchIndex();
+        suggestionIndex = new SuggestionIndex();
+        ProductAttributeIndex attributeIndex = new ProductAttributeIndex();
+        ReflectionTestUtils.setField(attributeIndex, "productOrdinals", ordinals);
+        filterIndex = new ProductFilterIndex();
+        ReflectionTestUtils.setField(filterIndex, "productOrdinals", ordinals);
+        ReflectionTestUtils.setField(filterIndex, "productSearchIndex", searchIndex);
+        ReflectionTestUtils.setField(filterIndex, "productAttributeIndex", attributeIndex);
+
+        rebuilder = new CatalogIndexRebuilder();
+        ReflectionTestUtils.setField(rebuilder, "productIndexRepository", new ProductIndexRepository() {
+            @Override
+            public void forEachPublished(Consumer<Product> consumer) {
+                consumer.accept(scanned.get(0));
+                duringScan.run();
+                scanned.subList(1, scanned.size()).forEach(consumer);
+            }
+
+            @Override
+            public void forEachAttributeValue(Consumer<ProductAttributeValue> consumer) {
+            }
+        });
+        ReflectionTestUtils.setField(rebuilder, "productSearchIndex", searchIndex);
+        ReflectionTestUtils.setField(rebuilder, "suggestionIndex", suggestionIndex);
+        ReflectionTestUtils.setField(rebuilder, "productFilterIndex", filterIndex);
+        ReflectionTestUtils.setField(rebuilder, "productAttributeIndex", attributeIndex);
+    }
+
+    @Test
+    public void testOneScanFeedsEveryIndex() {
+        scanned = List.of(product("P1", "Hex Bolt", "V1"), product("P2", "Hex Nut", "V2"));
+
+        rebuilder.rebuild();
+
+        assertEquals(List.of("P1", "P2"), searchIndex.search("hex", 0, 10).getProductIds());
+        assertEquals("Hex Bolt", suggestionIndex.suggest("hex b", 5).get(0).getText());
+        ProductFilter filter = new ProductFilter();
+        filter.setVendorId("V2");
+        assertEquals(List.of("P2"), filterIndex.search(filter, 0, 10).getProductIds());
+    }
+
+    @Test
+    public void testWritesDuringTheScanSurviveTheSwap() {
+        scanned = List.of(product("P1", "Hex Bolt", "V1"), product("P2", "Hex Nut", "V2"));
+        // P1 is renamed after the scan read it, P2 is deleted before the scan reaches it
+        duringScan = () -> {
+            List<Product> renamed = List.of(product("P1", "Carriage Bolt", "V1"));
+            searchIndex.onProductsSaved(renamed);
+            suggestionIndex.onProductsSaved(renamed);
+            filterIndex.onProductsSaved(renamed);
+            List<Product> deleted = List.of(product("P2", "Hex Nut", "V2"));
+            searchIndex.onProductsDeleted(deleted);
+            suggestionIndex.onProductsDeleted(deleted);
+            filterIndex.onProductsDeleted(deleted);
+        };
+
+        rebuilder.rebuild();
+
+        assertEquals(0, searchIndex.search("hex", 0, 10).getTotalHits());
+        assertEquals(List.of("P1"), searchIndex.search("carriage", 0, 10).getProductIds());
+        assertTrue(suggestionIndex.suggest("hex", 5).isEmpty());
+        assertEquals("Carriage Bolt", suggestionIndex.suggest("carr", 5).get(0).getText());
+        assertEquals(List.of("P1"), filterIndex.search(new ProductFilter(), 0, 10).getProductIds());
+    }
+
+    @Test
+    public void testVersionMovesOnlyWhenIndexesAreSwapped() {
+        scanned = List.of(product("P1", "Hex Bolt", "V1"));
+        rebuilder.rebuild();
+        long swapped = rebuilder.currentVersion();
+        duringScan = () -> { throw new IllegalStateException("scan failed"); };
+
+        rebuilder.rebuild();
+
+        assertTrue(swapped > 0);
+        // The product scan failed and kept its indexes; only the attribute index was swapped
+        assertEquals(swapped + 1, rebuilder.currentVersion());
+        assertEquals(List.of("P1"), searchIndex.search("hex", 0, 10).getProductIds());
+    }
+
+    private Product product(String id, String name, String vendorId) {
+        Product product = new Product(name, vendorId);
+        product.setId(id);
+        product.setStatus(Product.ProductStatus.PUBLISHED);
+        product.setBasePrice(new BigDecimal("1.00"));
+        return product;
+    }
+}
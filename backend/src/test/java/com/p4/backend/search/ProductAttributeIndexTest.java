@@ -0,0 +1,82 @@
+package com.p4.backend.search;
+
+import com.p4.backend.catalog.dto.AttributeFilter;
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.catalog.entity.ProductAttributeValue;
+import com.p4.backend.search.index.ProductAttributeIndex;
+import com.p4.backend.search.index.ProductOrdinals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductAttributeIndexTest {
+
+    private ProductOrdinals ordinals;
+    private ProductAttributeIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        ordinals = new ProductOrdinals();
+        index = new ProductAttributeIndex();
+        ReflectionTestUtils.setField(index, "productOrdinals", ordinals);
+        index.index("P1", List.of(text("P1", "material", "Steel"), number("P1", "voltage", "220")));
+        index.index("P2", List.of(text("P2", "material", "Brass"), number("P2", "voltage", "110.0000")));
+        index.index("P3", List.of(text("P3", "material", "steel"), number("P3", "voltage", "24")));
+    }
+
+    @Test
+    public void testExactValuesIgnoreCaseAndNumericScale() {
+        assertEquals(List.of("P1", "P3"), match("material:STEEL"));
+        assertEquals(List.of("P2"), match("voltage:110"));
+        assertTrue(match("material:copper").isEmpty());
+        assertTrue(match("unknown:steel").isEmpty());
+    }
+
+    @Test
+    public void testNumericRangesAndIntersection() {
+        assertEquals(List.of("P1", "P2"), match("voltage:100..300"));
+        assertEquals(List.of("P2", "P3"), match("voltage:..110"));
+        assertEquals(List.of("P1"), match("voltage:200..", "material:steel"));
+        assertTrue(match("voltage:300..100").isEmpty());
+    }
+
+    @Test
+    public void testReindexAndDeleteReplacePostings() {
+        index.index("P1", List.of(text("P1", "material", "Brass")));
+        assertEquals(List.of("P1", "P2"), match("material:brass"));
+        assertEquals(List.of("P2", "P3"), match("voltage:0.."));
+
+        Product deleted = new Product();
+        deleted.setId("P2");
+        index.onProductsDeleted(List.of(deleted));
+        assertEquals(List.of("P1"), match("material:brass"));
+    }
+
+    private List<String> match(String... filters) {
+        return ordinals.idsOf(index.match(AttributeFilter.parseAll(List.of(filters))));
+    }
+
+    private static ProductAttributeValue text(String productId, String attributeId, String value) {
+        ProductAttributeValue attributeValue = value(productId, attributeId);
+        attributeValue.setValueText(value);
+        return attributeValue;
+    }
+
+    private static ProductAttributeValue number(String productId, String attributeId, String value) {
+        ProductAttributeValue attributeValue = value(productId, attributeId);
+        attributeValue.setValueNumber(new BigDecimal(value));
+        return attributeValue;
+    }
+
+    private static ProductAttributeValue value(String productId, String attributeId) {
+        ProductAttributeValue attributeValue = new ProductAttributeValue();
+        attributeValue.setProductId(productId);
+        attributeValue.setAttributeId(attributeId);
+        return attributeValue;
+    }
+}
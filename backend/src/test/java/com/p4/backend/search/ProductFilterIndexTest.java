@@ -0,0 +1,102 @@
+package com.p4.backend.search;
+
+import com.p4.backend.catalog.dto.ProductFilter;
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.catalog.repository.ProductFacetRepository;
+import com.p4.backend.search.index.ProductAttributeIndex;
+import com.p4.backend.search.index.ProductFilterIndex;
+import com.p4.backend.search.index.ProductOrdinals;
+import com.p4.backend.search.index.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductFilterIndexTest {
+
+    private ProductFilterIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        ProductOrdinals ordinals = new ProductOrdinals();
+        ProductSearchIndex searchIndex = new ProductSearchIndex();
+        ProductAttributeIndex attributeIndex = new ProductAttributeIndex();
+        ReflectionTestUtils.setField(attributeIndex, "productOrdinals", ordinals);
+        index = new ProductFilterIndex();
+        ReflectionTestUtils.setField(index, "productOrdinals", ordinals);
+        ReflectionTestUtils.setField(index, "productSearchIndex", searchIndex);
+        ReflectionTestUtils.setField(index, "productAttributeIndex", attributeIndex);
+
+        List<Product> products = List.of(
+                product("P1", "steel bolt", "V1", "C1", Product.InventoryStatus.IN_STOCK, "9.99"),
+                product("P2", "Brass Bolt", "V1", "C2", Product.InventoryStatus.OUT_OF_STOCK, "10"),
+                product("P3", "Anchor", "V2", "C1", Product.InventoryStatus.IN_STOCK, "75"),
+                product("P4", "Washer", "V2", "C1", Product.InventoryStatus.IN_STOCK, "1500"));
+        searchIndex.onProductsSaved(products);
+        index.onProductsSaved(products);
+    }
+
+    @Test
+    public void testIntersectsFiltersAndPagesByName() {
+        assertEquals(List.of("P3", "P2", "P1", "P4"), search(new ProductFilter()).getProductIds());
+        assertEquals(List.of("P3", "P4"), search(filter(null, "V2", "C1", null, null)).getProductIds());
+        assertEquals(List.of("P2", "P1"), search(filter("bolt", null, null, null, null)).getProductIds());
+        assertTrue(search(filter(null, "V9", null, null, null)).getProductIds().isEmpty());
+
+        ProductFilterIndex.Hits page = index.search(new ProductFilter(), 1, 2);
+        assertEquals(List.of("P2", "P1"), page.getProductIds());
+        assertEquals(4, page.getTotal());
+    }
+
+    @Test
+    public void testPriceRangeChecksEdgeBands() {
+        assertEquals(List.of("P2", "P1"), search(filter(null, null, null, "9.99", "10")).getProductIds());
+        assertEquals(List.of("P3", "P2"), search(filter(null, null, null, "10", "999")).getProductIds());
+        assertEquals(List.of("P4"), search(filter(null, null, null, "1000", null)).getProductIds());
+    }
+
+    @Test
+    public void testFacetCountsFollowFiltersAndWrites() {
+        ProductFacetRepository.FacetRows rows = index.aggregate(filter(null, null, "C1", null, null));
+        assertEquals(Long.valueOf(2), rows.getVendors().get("V2"));
+        assertEquals(Long.valueOf(1), rows.getVendors().get("V1"));
+        assertEquals(Long.valueOf(3), rows.getInventoryStatuses().get("IN_STOCK"));
+        assertEquals(Long.valueOf(1), rows.getPriceBuckets().get(0));
+        assertEquals(Long.valueOf(1), rows.getPriceBuckets().get(5));
+
+        Product unpublished = product("P3", "Anchor", "V2", "C1", Product.InventoryStatus.IN_STOCK, "75");
+        unpublished.setStatus(Product.ProductStatus.UNPUBLISHED);
+        index.onProductsSaved(List.of(unpublished));
+        index.onProductsSaved(List.of(product("P1", "steel bolt", "V3", "C1", Product.InventoryStatus.IN_STOCK, "9.99")));
+
+        rows = index.aggregate(filter(null, null, "C1", null, null));
+        assertEquals(Long.valueOf(1), rows.getVendors().get("V2"));
+        assertEquals(Long.valueOf(1), rows.getVendors().get("V3"));
+        assertNull(rows.getVendors().get("V1"));
+        assertNull(rows.getPriceBuckets().get(3));
+    }
+
+    private ProductFilterIndex.Hits search(ProductFilter filter) {
+        return index.search(filter, 0, 10);
+    }
+
+    private static ProductFilter filter(String query, String vendorId, String categoryId, String minPrice, String maxPrice) {
+        return new ProductFilter(query, vendorId, categoryId, null,
+                minPrice != null ? new BigDecimal(minPrice) : null, maxPrice != null ? new BigDecimal(maxPrice) : null);
+    }
+
+    private static Product product(String id, String name, String vendorId, String categoryId,
+                                   Product.InventoryStatus inventoryStatus, String price) {
+        Product product = new Product(name, vendorId);
+        product.setId(id);
+        product.setCategoryId(categoryId);
+        product.setInventoryStatus(inventoryStatus);
+        product.setBasePrice(new BigDecimal(price));
+        product.setStatus(Product.ProductStatus.PUBLISHED);
+        return product;
+    }
+}
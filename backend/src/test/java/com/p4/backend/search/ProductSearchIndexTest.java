@@ -0,0 +1,112 @@
+package com.p4.backend.search;
+
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.search.index.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new ProductSearchIndex();
+        index.init();
+        index.index(product("P1", "Steel Ball Bearing", "BRG-6204", "Deep groove bearing for electric motors"));
+        index.index(product("P2", "Nitrile Gloves", "PPE-100", "Disposable gloves, box of 100"));
+        index.index(product("P3", "Bearing Puller", "TL-55", "Workshop tool for removing pressed parts"));
+    }
+
+    @Test
+    public void testRanksByWeightedTermFrequency() {
+        ProductSearchIndex.SearchResult result = index.search("bearings", 0, 10);
+
+        assertEquals(2, result.getTotalHits());
+        assertEquals(List.of("P1", "P3"), result.getProductIds());
+    }
+
+    @Test
+    public void testAllTermsMustMatch() {
+        assertEquals(List.of("P1"), index.search("bearing motors", 0, 10).getProductIds());
+        assertEquals(0, index.search("bearing gloves", 0, 10).getTotalHits());
+    }
+
+    @Test
+    public void testPagingKeepsTotal() {
+        ProductSearchIndex.SearchResult page = index.search("bearing", 1, 1);
+
+        assertEquals(2, page.getTotalHits());
+        assertEquals(List.of("P3"), page.getProductIds());
+    }
+
+    @Test
+    public void testSearchAfterContinuesFromCursor() {
+        ProductSearchIndex.SearchResult first = index.search("bearing", 0, 1);
+        ProductSearchIndex.SearchResult second = index.searchAfter("bearing", first.getScores().get(0), first.getProductIds().get(0), 10);
+
+        assertEquals(List.of("P1"), first.getProductIds());
+        assertEquals(List.of("P3"), second.getProductIds());
+    }
+
+    @Test
+    public void testPinnedPagesIgnoreWritesBetweenPages() {
+        ProductSearchIndex.SearchResult first = index.searchPinned("bearing", 0, 0, Double.NaN, null, 1, null, "");
+        // A better match arrives and the second hit drops out before the next page is read
+        index.index(product("P4", "Bearing Bearing Kit", "BRG-KIT", "Bearing assortment"));
+        index.remove("P3");
+        ProductSearchIndex.SearchResult second = index.searchPinned("bearing", first.getSnapshot(), 1,
+                first.getScores().get(0), first.getProductIds().get(0), 10, null, "");
+
+        assertEquals(List.of("P1"), first.getProductIds());
+        assertEquals(List.of("P3"), second.getProductIds());
+        assertEquals(first.getSnapshot(), second.getSnapshot());
+        assertEquals(1, second.getPosition());
+    }
+
+    @Test
+    public void testExpiredSnapshotContinuesAfterTheCursor() {
+        ProductSearchIndex.SearchResult first = index.searchPinned("bearing", 0, 0, Double.NaN, null, 1, null, "");
+        ProductSearchIndex.SearchResult second = index.searchPinned("bearing", first.getSnapshot() + 1, 1,
+                first.getScores().get(0), first.getProductIds().get(0), 10, null, "");
+
+        assertEquals(List.of("P3"), second.getProductIds());
+        assertEquals(0, second.getSnapshot());
+    }
+
+    @Test
+    public void testSnapshotIsNotReusedForAnotherFilter() {
+        ProductSearchIndex.SearchResult first = index.searchPinned("bearing", 0, 0, Double.NaN, null, 1, null, "");
+        // Same cursor, but the next page asks for products other than P3 only
+        ProductSearchIndex.SearchResult second = index.searchPinned("bearing", first.getSnapshot(), 1,
+                first.getScores().get(0), first.getProductIds().get(0), 10, id -> !id.equals("P3"), "[A1:x]");
+
+        assertTrue(second.getProductIds().isEmpty());
+        assertEquals(0, second.getSnapshot());
+    }
+
+    @Test
+    public void testUnpublishAndDeleteRemoveFromIndex() {
+        Product gloves = product("P2", "Nitrile Gloves", "PPE-100", null);
+        gloves.setStatus(Product.ProductStatus.UNPUBLISHED);
+        index.index(gloves);
+        index.remove("P3");
+
+        assertEquals(0, index.search("gloves", 0, 10).getTotalHits());
+        assertEquals(List.of("P1"), index.search("bearing", 0, 10).getProductIds());
+        assertEquals(1, index.size());
+    }
+
+    private Product product(String id, String name, String sku, String description) {
+        Product product = new Product(name, "vendor-1");
+        product.setId(id);
+        product.setSku(sku);
+        product.setDescription(description);
+        product.setStatus(Product.ProductStatus.PUBLISHED);
+        return product;
+    }
+}
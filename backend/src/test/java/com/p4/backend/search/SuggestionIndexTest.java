@@ -0,0 +1,92 @@
+package com.p4.backend.search;
+
+import com.p4.backend.catalog.entity.Product;
+import com.p4.backend.search.index.Suggestion;
+import com.p4.backend.search.index.SuggestionIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SuggestionIndexTest {
+
+    private SuggestionIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new SuggestionIndex();
+        index.onProductsSaved(List.of(
+                product("P1", "Steel Ball Bearing", "BRG-6204", "Acme"),
+                product("P2", "Bearing Puller", "TL-55", "Acme"),
+                product("P3", "Nitrile Gloves", "PPE-100", "Safeguard")));
+    }
+
+    @Test
+    public void testMatchesNameFromAnyWordStart() {
+        assertEquals(List.of("Bearing Puller", "Steel Ball Bearing"), texts(index.suggest("bear", 10)));
+        assertEquals("P1", index.suggest("steel b", 10).get(0).getProductId());
+    }
+
+    @Test
+    public void testMatchesSkuAndRanksSharedBrandsByProductCount() {
+        assertEquals(List.of("BRG-6204"), texts(index.suggest("brg", 10)));
+
+        List<Suggestion> brands = index.suggest("a", 10);
+        assertEquals("Acme", brands.get(0).getText());
+        assertEquals(Suggestion.Type.BRAND, brands.get(0).getType());
+        assertEquals(2, brands.get(0).getWeight());
+        assertNull(brands.get(0).getProductId());
+    }
+
+    @Test
+    public void testUnpublishAndDeleteRemoveCompletions() {
+        Product puller = product("P2", "Bearing Puller", "TL-55", "Acme");
+        puller.setStatus(Product.ProductStatus.UNPUBLISHED);
+        index.onProductsSaved(List.of(puller));
+        index.onProductsDeleted(List.of(product("P3", "Nitrile Gloves", "PPE-100", "Safeguard")));
+
+        assertEquals(List.of("Steel Ball Bearing"), texts(index.suggest("bear", 10)));
+        assertTrue(index.suggest("glo", 10).isEmpty());
+        assertEquals(1, index.suggest("acme", 10).get(0).getWeight());
+    }
+
+    @Test
+    public void testCompletionsSharingPrefixesSurviveRemovals() {
+        index.onProductsSaved(List.of(
+                product("P4", "Bear Trap", "BT-1", null),
+                product("P5", "Beard Oil", "BO-1", null)));
+
+        assertEquals(List.of("Bear Trap", "Beard Oil", "Bearing Puller", "Steel Ball Bearing"),
+                     texts(index.suggest("bea", 10)));
+        assertEquals(List.of("Beard Oil"), texts(index.suggest("beard", 10)));
+
+        index.onProductsDeleted(List.of(product("P4", "Bear Trap", "BT-1", null)));
+        index.onProductsDeleted(List.of(product("P2", "Bearing Puller", "TL-55", "Acme")));
+
+        assertEquals(List.of("Beard Oil", "Steel Ball Bearing"), texts(index.suggest("bear", 10)));
+        assertEquals(List.of("Steel Ball Bearing"), texts(index.suggest("beari", 10)));
+        assertTrue(index.suggest("bear t", 10).isEmpty());
+    }
+
+    @Test
+    public void testLimitsResults() {
+        assertEquals(1, index.suggest("bear", 1).size());
+        assertTrue(index.suggest("  ", 10).isEmpty());
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getText).collect(Collectors.toList());
+    }
+
+    private Product product(String id, String name, String sku, String brand) {
+        Product product = new Product(name, "vendor-1");
+        product.setId(id);
+        product.setSku(sku);
+        product.setBrand(brand);
+        product.setStatus(Product.ProductStatus.PUBLISHED);
+        return product;
+    }
+}